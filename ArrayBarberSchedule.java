@@ -0,0 +1,29 @@
+// barber schedule held in memory, as parsed from a text barber file.
+// all positions are kept in one array grouped by timestep, in file order within
+// a timestep, so the schedule costs two ints per barber entry and no objects
+public final class ArrayBarberSchedule implements BarberSchedule {
+    private final int[] offsets; // barbers of timestep t are cells[offsets[t]] up to cells[offsets[t + 1]]
+    private final int[] cells;
+
+    public ArrayBarberSchedule(int[] offsets, int[] cells) {
+        this.offsets = offsets;
+        this.cells = cells;
+    }
+
+    @Override
+    public int getLastTimestep() {
+        return offsets.length - 2;
+    }
+
+    @Override
+    public int count(int timestep) {
+        if (timestep < 0 || timestep >= offsets.length - 1)
+            return 0;
+        return offsets[timestep + 1] - offsets[timestep];
+    }
+
+    @Override
+    public int cell(int timestep, int i) {
+        return cells[offsets[timestep] + i];
+    }
+}
@@ -0,0 +1,4 @@
+// how generated barbers move, see MapGenerator
+public enum BarberPattern {
+    WALK, PATROL
+}
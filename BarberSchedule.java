@@ -0,0 +1,12 @@
+// barber positions for every timestep, as grid indices (x * sizeY + y)
+public interface BarberSchedule {
+    BarberSchedule EMPTY = new ArrayBarberSchedule(new int[] { 0 }, new int[0]);
+
+    // last timestep with an entry in the schedule, -1 when it is empty
+    int getLastTimestep();
+
+    // number of barbers at the timestep, 0 outside the schedule
+    int count(int timestep);
+
+    int cell(int timestep, int i);
+}
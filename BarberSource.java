@@ -0,0 +1,35 @@
+// barber positions arriving one timestep at a time. the simulation pulls the next
+// timestep with advance() and reads its barbers, so only the current timestep
+// has to be held in memory however long the schedule runs
+public interface BarberSource extends AutoCloseable {
+
+    // move on to the next timestep (the first call moves to timestep 0). returns
+    // false once the source has ended, there are no barbers from then on
+    boolean advance();
+
+    // number of barbers at the current timestep
+    int count();
+
+    // grid index (x * sizeY + y) of a barber at the current timestep
+    int cell(int i);
+
+    // where the timesteps after the current one are read from, to carry on from there
+    // later with seek (eg. after a restart)
+    long offset();
+
+    // the barbers' cells at the current timestep, for a source whose next timestep
+    // follows from them and can't be found from offset() alone (a random walk), or
+    // null for the others. a checkpoint keeps them, to give back to seek
+    default int[] barbers() {
+        return null;
+    }
+
+    // carry on from an offset taken at the given timestep, with what barbers() gave
+    // then, so the next advance() moves to timestep + 1. called on a source that was
+    // not advanced yet
+    void seek(long offset, int timestep, int[] barbers);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// answers many (start, goal, timestep) queries against one immutable MapSnapshot
+// on a fork-join pool. each worker thread keeps its own SearchEngine, so the
+// search buffers are allocated once per thread and reused for every query
+public class BatchPlanner implements AutoCloseable {
+    private static final int CHUNK_SIZE = 16; // queries solved by one task without splitting further
+
+    private final MapSnapshot map;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<SearchEngine> engines;
+
+    public BatchPlanner(MapSnapshot map, int threads) {
+        this.map = map;
+        this.pool = new ForkJoinPool(threads);
+        this.engines = ThreadLocal.withInitial(() -> new SearchEngine(map));
+    }
+
+    public BatchPlanner(MapSnapshot map) {
+        this(map, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MapSnapshot getMap() {
+        return map;
+    }
+
+    // queries are packed as start, goal, timestep triples of grid indices. returns
+    // one path per query (the steps after the start, up to and including the goal),
+    // or null where no path was found
+    public int[][] solve(int[] queries) {
+        int[][] paths = new int[queries.length / 3][];
+        pool.invoke(new Solve(queries, paths, 0, paths.length));
+        return paths;
+    }
+
+    private class Solve extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] queries;
+        private final int[][] paths;
+        private final int from;
+        private final int to;
+
+        Solve(int[] queries, int[][] paths, int from, int to) {
+            this.queries = queries;
+            this.paths = paths;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Solve(queries, paths, from, mid), new Solve(queries, paths, mid, to));
+                return;
+            }
+
+            SearchEngine engine = engines.get();
+            for (int q = from; q < to; q++) {
+                if (!engine.search(queries[3 * q], queries[3 * q + 1], queries[3 * q + 2]))
+                    continue;
+
+                int[] path = new int[engine.getPathLength()];
+                for (int i = 0; i < path.length; i++)
+                    path[i] = engine.getPathStep(i);
+                paths[q] = path;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
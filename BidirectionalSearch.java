@@ -0,0 +1,334 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// bidirectional A* (NBA*, "new bidirectional A*" by Pijls and Post): one A* search
+// forwards from the start and one backwards from the goal, each with its own open
+// list. whenever one side reaches a cell the other side has already reached, the two
+// halves make a path, and the shortest such path is kept. a cell taken off either
+// open list joins the middle set, which neither side steps into again, and it is
+// only expanded if a path through it could still be shorter than the best one, as
+// judged by its own side's f and by the other side's lowest f. the search ends when
+// one open list is empty (or its lowest f is no shorter than the best path), and
+// the best path is then a shortest one. the middle set and the pruning keep the two
+// sides from running past each other, which plain bidirectional A* does.
+// the sequential search expands the side with the smaller open list first. the
+// parallel one runs the backward side on a worker thread while the caller runs the
+// forward side. each reads the other's g values, lowest f and the middle set as
+// they are published; a stale value only ever means less is pruned
+public class BidirectionalSearch implements Planner, AutoCloseable {
+    private static final int NONE = -1;
+    private static final int INF = Integer.MAX_VALUE / 4;
+    private static final VarHandle LABELS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle MIDDLE = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int sizeX;
+    private final int sizeY;
+    private final Grid grid;
+    private final Frontier forward;
+    private final Frontier backward;
+    private final ForkJoinPool pool; // runs the backward side, null when sequential
+    private final int[] middle; // generation in which either side took the cell off its open list
+    private int generation;
+    private int timestep;
+    private int start;
+    private int goal;
+
+    // shortest path found so far, as the edge where the two sides meet
+    private volatile int bestLength;
+    private int bestForwardCell;
+    private int bestBackwardCell;
+    private volatile boolean done;
+
+    private int[] path = new int[16];
+    private int pathLength;
+
+    public BidirectionalSearch(Grid grid, boolean parallel) {
+        if (grid.hasCosts())
+            throw new IllegalArgumentException(
+                    "bidirectional search counts every step as 1, the map has cells that cost more");
+        this.sizeX = grid.getSizeX();
+        this.sizeY = grid.getSizeY();
+        this.grid = grid;
+        this.forward = new Frontier();
+        this.backward = new Frontier();
+        forward.other = backward;
+        backward.other = forward;
+        this.pool = parallel ? new ForkJoinPool(1) : null;
+        this.middle = new int[sizeX * sizeY];
+    }
+
+    public BidirectionalSearch(Grid grid) {
+        this(grid, false);
+    }
+
+    @Override
+    public boolean search(int start, int goal, int timestep) {
+        pathLength = 0;
+        if (start == goal)
+            return false;
+
+        nextGeneration();
+        this.start = start;
+        this.goal = goal;
+        this.timestep = timestep;
+        bestLength = INF;
+        done = false;
+        forward.begin(start, goal);
+        backward.begin(goal, start);
+
+        if (pool == null) {
+            while (true) {
+                Frontier side = forward.openList.size() <= backward.openList.size() ? forward : backward;
+                if (!side.step())
+                    break;
+            }
+        } else {
+            ForkJoinTask<?> task = pool.submit(() -> backward.run());
+            forward.run();
+            task.join();
+        }
+
+        if (bestLength >= INF)
+            return false;
+        buildPath();
+        return true;
+    }
+
+    // keep the path through the edge forwardCell -> backwardCell if it is the shortest so far
+    private synchronized void offer(int length, int forwardCell, int backwardCell) {
+        if (length >= bestLength)
+            return;
+        bestForwardCell = forwardCell;
+        bestBackwardCell = backwardCell;
+        bestLength = length;
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            forward.reset();
+            backward.reset();
+            Arrays.fill(middle, 0);
+            generation = 1;
+        }
+    }
+
+    // the forward half back to the start, then the backward half on to the goal
+    private void buildPath() {
+        int length = 0;
+        for (int c = bestForwardCell; c != start; c = forward.parent[c])
+            length++;
+
+        int forwardLength = length;
+        for (int c = bestBackwardCell; c != goal; c = backward.parent[c])
+            length++;
+        if (path.length < length + 1)
+            path = new int[Math.max(length + 1, path.length * 2)];
+
+        length = forwardLength;
+        for (int c = bestForwardCell; c != start; c = forward.parent[c])
+            path[--length] = c;
+
+        length = forwardLength;
+        for (int c = bestBackwardCell; c != goal; c = backward.parent[c])
+            path[length++] = c;
+        path[length++] = goal;
+        pathLength = length;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return forward.expanded + backward.expanded;
+    }
+
+    // both open lists are kept at once
+    @Override
+    public int getOpenListPeak() {
+        return forward.openList.getPeakSize() + backward.openList.getPeakSize();
+    }
+
+    @Override
+    public int getDecreaseKeys() {
+        return forward.decreaseKeys + backward.decreaseKeys;
+    }
+
+    @Override
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    @Override
+    public int getPathStep(int i) {
+        return path[i];
+    }
+
+    @Override
+    public void close() {
+        if (pool != null)
+            pool.shutdown();
+    }
+
+    private boolean isMiddle(int cell) {
+        if (pool == null)
+            return middle[cell] == generation;
+        return (int) MIDDLE.getOpaque(middle, cell) == generation;
+    }
+
+    private void setMiddle(int cell) {
+        if (pool == null)
+            middle[cell] = generation;
+        else
+            MIDDLE.setOpaque(middle, cell, generation);
+    }
+
+    // one direction of the search. backwards, the cells stepped between are the same
+    // as forwards, only the path's direction is flipped, so both sides move between
+    // traversable cells and only differ in where they start and head to
+    private final class Frontier {
+        Frontier other;
+        private final long[] labels; // generation << 32 | g, published for the other side
+        final int[] parent;
+        final IndexedMinHeap openList;
+        private volatile int lowestF; // lowest f on the open list, INF when it is empty
+        int expanded;
+        int decreaseKeys;
+        private int target;
+        private int targetX;
+        private int targetY;
+
+        Frontier() {
+            int size = sizeX * sizeY;
+            this.labels = new long[size];
+            this.parent = new int[size];
+            this.openList = new IndexedMinHeap(size);
+        }
+
+        void reset() {
+            Arrays.fill(labels, 0);
+        }
+
+        void begin(int origin, int target) {
+            this.target = target;
+            this.targetX = target / sizeY;
+            this.targetY = target % sizeY;
+            openList.clear();
+            expanded = 0;
+            decreaseKeys = 0;
+
+            parent[origin] = NONE;
+            publish(origin, 0);
+            int h = heuristic(origin / sizeY, origin % sizeY);
+            openList.insertOrUpdate(origin, h, h);
+            lowestF = h;
+        }
+
+        // expand until this side is finished or the other side has found the shortest path
+        void run() {
+            while (!done && step()) {
+            }
+            done = true;
+        }
+
+        // take the cell with the lowest f off the open list and expand it unless it is
+        // pruned, false once the search is finished
+        boolean step() {
+            if (openList.isEmpty() || lowestF >= bestLength)
+                return false;
+
+            int q = openList.poll();
+            if (!isMiddle(q))
+                expand(q);
+            // published after the expansion, until then the old value is a lower bound
+            lowestF = openList.isEmpty() ? INF : (int) openList.primaryKey(openList.peek());
+            return true;
+        }
+
+        private void expand(int q) {
+            setMiddle(q);
+
+            // no path through q can be shorter than the best one when its f is not, or
+            // when the other side needs at least lowestF - h to get back to q
+            int qX = q / sizeY;
+            int qY = q % sizeY;
+            int g = g(q);
+            if (g + heuristic(qX, qY) >= bestLength || g + other.lowestF - other.heuristic(qX, qY) >= bestLength)
+                return;
+            expanded++;
+
+            // up, down, right, left
+            g++;
+            if (qY + 1 < sizeY)
+                relax(q, q + 1, qX, qY + 1, g);
+            if (qY - 1 >= 0)
+                relax(q, q - 1, qX, qY - 1, g);
+            if (qX + 1 < sizeX)
+                relax(q, q + sizeY, qX + 1, qY, g);
+            if (qX - 1 >= 0)
+                relax(q, q - sizeY, qX - 1, qY, g);
+        }
+
+        private void relax(int q, int next, int x, int y, int g) {
+            // meet first, also on cells already in the middle set: when both sides
+            // take neighbouring cells off their open lists at the same time, each
+            // skips the other's cell and only this finds the edge between them.
+            // the far end is reached by the other side from the start, and is never
+            // stepped through (the goal can be a wall)
+            meet(q, next, g);
+            if (next == target || isMiddle(next) || !grid.isTraversable(next, timestep))
+                return;
+            long label = label(next);
+            if ((int) (label >>> 32) == generation) {
+                if ((int) label <= g)
+                    return;
+                decreaseKeys++;
+            }
+
+            parent[next] = q;
+            publish(next, g);
+            meet(q, next, g);
+
+            int h = heuristic(x, y);
+            openList.insertOrUpdate(next, g + h, h);
+        }
+
+        // next was just reached from q in g steps, join it to the other side's path to it
+        private void meet(int q, int next, int g) {
+            long label = other.label(next);
+            if ((int) (label >>> 32) != generation)
+                return;
+
+            int length = g + (int) label;
+            if (length >= bestLength)
+                return;
+            if (this == forward)
+                offer(length, q, next);
+            else
+                offer(length, next, q);
+        }
+
+        private int g(int cell) {
+            return (int) label(cell);
+        }
+
+        private long label(int cell) {
+            if (pool == null)
+                return labels[cell];
+            return (long) LABELS.getVolatile(labels, cell);
+        }
+
+        private void publish(int cell, int g) {
+            long label = (long) generation << 32 | g;
+            if (pool == null)
+                labels[cell] = label;
+            else
+                LABELS.setVolatile(labels, cell, label);
+        }
+
+        private int heuristic(int x, int y) {
+            return Math.abs(x - targetX) + Math.abs(y - targetY);
+        }
+    }
+}
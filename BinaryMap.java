@@ -0,0 +1,202 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// a map and its barber schedule in one memory mapped binary file. only the header
+// is read when the file is opened, walls and barbers are read from the mapping
+// when asked for, so opening costs the same however long the schedule is.
+// layout, all values big endian:
+//   header    int magic, version, sizeX, sizeY, start, goal, timesteps, costs
+//   walls     one long per 64 cells, bit (index % 64) of long (index / 64)
+//   index     timesteps + 1 ints, barbers of timestep t are entries index[t] up to index[t + 1]
+//   barbers   one int grid index (x * sizeY + y) per entry
+//   costs     int grid index and int terrain cost of each cell that costs more than 1
+// version 1 files have no costs section, and 0 where the header counts the costs
+public final class BinaryMap implements BarberSchedule {
+    private static final int MAGIC = 0x4153544D; // "ASTM"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final long CHUNK_SIZE = 1L << 30; // bytes per mapping, a multiple of 8
+
+    private final MappedByteBuffer[] chunks;
+    private final int sizeX;
+    private final int sizeY;
+    private final int start;
+    private final int goal;
+    private final int timesteps;
+    private final int costCount;
+    private final long wallsStart;
+    private final long indexStart;
+    private final long barbersStart;
+    private final long costsStart;
+
+    private BinaryMap(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE)
+                throw new MapFormatException(path, "file is too short for a map header");
+
+            chunks = new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+            for (int i = 0; i < chunks.length; i++) {
+                long position = i * CHUNK_SIZE;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, size - position));
+            }
+
+            if (readInt(0) != MAGIC)
+                throw new MapFormatException(path, "not a binary map file");
+            if (readInt(4) != 1 && readInt(4) != VERSION)
+                throw new MapFormatException(path, "unsupported binary map version " + readInt(4));
+
+            sizeX = readInt(8);
+            sizeY = readInt(12);
+            start = readInt(16);
+            goal = readInt(20);
+            timesteps = readInt(24);
+            costCount = readInt(28);
+            if (sizeX <= 0 || sizeY <= 0 || (long) sizeX * sizeY > Integer.MAX_VALUE || timesteps < 0
+                    || costCount < 0)
+                throw new MapFormatException(path, "invalid map size or schedule length");
+            if (start < 0 || start >= sizeX * sizeY || goal < 0 || goal >= sizeX * sizeY)
+                throw new MapFormatException(path, "start or goal is outside the map");
+
+            wallsStart = HEADER_SIZE;
+            indexStart = wallsStart + 8L * wallWords(sizeX, sizeY);
+            barbersStart = indexStart + 4L * (timesteps + 1);
+            if (size < barbersStart)
+                throw new MapFormatException(path, "file is shorter than its header says");
+            costsStart = barbersStart + 4L * readInt(barbersStart - 4);
+            if (size < costsStart + 8L * costCount)
+                throw new MapFormatException(path, "file is shorter than its header says");
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("file not found: " + path);
+        }
+    }
+
+    public static BinaryMap open(String path) throws IOException {
+        return new BinaryMap(path);
+    }
+
+    // convert a text map file and barber file (see MapLoader) into one binary file
+    public static void convert(String mapPath, String barberPath, String binaryPath) throws IOException {
+        MapData map = MapLoader.loadMap(mapPath);
+        write(map, MapLoader.loadBarbers(barberPath, map.getSizeX(), map.getSizeY()), binaryPath);
+    }
+
+    public static void write(MapData map, BarberSchedule barbers, String path) throws IOException {
+        int sizeX = map.getSizeX();
+        int sizeY = map.getSizeY();
+        int timesteps = barbers.getLastTimestep() + 1;
+
+        long[] walls = new long[wallWords(sizeX, sizeY)];
+        for (int i = 0; i < map.getWallCount(); i++) {
+            int index = map.getWall(i);
+            walls[index >>> 6] |= 1L << index;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(Paths.get(path)), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sizeX);
+            out.writeInt(sizeY);
+            out.writeInt(map.getStart());
+            out.writeInt(map.getGoal());
+            out.writeInt(timesteps);
+            out.writeInt(map.getCostCount());
+
+            for (long word : walls)
+                out.writeLong(word);
+
+            int offset = 0;
+            for (int t = 0; t <= timesteps; t++) {
+                out.writeInt(offset);
+                offset += barbers.count(t);
+            }
+
+            for (int t = 0; t < timesteps; t++) {
+                for (int i = 0; i < barbers.count(t); i++)
+                    out.writeInt(barbers.cell(t, i));
+            }
+
+            for (int i = 0; i < map.getCostCount(); i++) {
+                out.writeInt(map.getCostCell(i));
+                out.writeInt(map.getCost(i));
+            }
+        }
+    }
+
+    private static int wallWords(int sizeX, int sizeY) {
+        return (int) (((long) sizeX * sizeY + 63) / 64);
+    }
+
+    private int readInt(long position) {
+        return chunks[(int) (position / CHUNK_SIZE)].getInt((int) (position % CHUNK_SIZE));
+    }
+
+    private long readLong(long position) {
+        return chunks[(int) (position / CHUNK_SIZE)].getLong((int) (position % CHUNK_SIZE));
+    }
+
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+
+    public boolean isWall(int index) {
+        return (readLong(wallsStart + 8L * (index >>> 6)) & (1L << index)) != 0;
+    }
+
+    // the walls of cells index to index + 63, one bit each (index must be a multiple of 64)
+    public long wallWord(int index) {
+        return readLong(wallsStart + 8L * (index >>> 6));
+    }
+
+    // number of cells that cost more than 1 to step into
+    public int getCostCount() {
+        return costCount;
+    }
+
+    public int getCostCell(int i) {
+        return readInt(costsStart + 8L * i);
+    }
+
+    public int getCost(int i) {
+        return readInt(costsStart + 8L * i + 4);
+    }
+
+    @Override
+    public int getLastTimestep() {
+        return timesteps - 1;
+    }
+
+    @Override
+    public int count(int timestep) {
+        if (timestep < 0 || timestep >= timesteps)
+            return 0;
+        long position = indexStart + 4L * timestep;
+        return readInt(position + 4) - readInt(position);
+    }
+
+    @Override
+    public int cell(int timestep, int i) {
+        return readInt(barbersStart + 4L * (readInt(indexStart + 4L * timestep) + i));
+    }
+}
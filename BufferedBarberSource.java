@@ -0,0 +1,164 @@
+import java.util.Arrays;
+
+// reads another BarberSource ahead on a background thread, keeping up to capacity
+// timesteps (including the current one) in a ring buffer. when the buffer is full
+// the reader waits for the simulation to catch up, so a fast source never holds
+// more than capacity timesteps in memory, and a slow one (eg. a file that is still
+// being written) does not stall the simulation while timesteps are buffered.
+// reading starts at the first advance(), so the source can be seeked until then
+public class BufferedBarberSource implements BarberSource {
+    private final BarberSource source;
+    private final int[][] slots;
+    private final int[] counts;
+    private final long[] offsets; // the source's offset after each slot's timestep
+    private final Thread reader;
+    private final boolean keepsBarbers; // the source needs its barbers to carry on, see barbers()
+
+    // guarded by this
+    private boolean started; // the reader was started by the first advance()
+    private int head; // slot of the current timestep, once advance() returned true
+    private int size; // filled slots, from head on
+    private boolean ended;
+    private boolean closed;
+    private RuntimeException failure;
+
+    private int current = -1; // slot being read by the simulation
+    private long offset; // the source's offset after the current timestep
+
+    public BufferedBarberSource(BarberSource source, int capacity) {
+        if (capacity < 2)
+            throw new IllegalArgumentException("capacity must be at least 2");
+        this.source = source;
+        this.slots = new int[capacity][16];
+        this.counts = new int[capacity];
+        this.offsets = new long[capacity];
+        this.offset = source.offset();
+        this.keepsBarbers = source.barbers() != null;
+
+        this.reader = new Thread(this::read, "barber-source");
+        reader.setDaemon(true);
+    }
+
+    // runs on the reader thread
+    private void read() {
+        try {
+            while (true) {
+                int slot;
+                synchronized (this) {
+                    while (size == slots.length && !closed)
+                        wait();
+                    if (closed)
+                        return;
+                    slot = (head + size) % slots.length;
+                }
+
+                // the slot is not visible to the simulation until size is increased
+                if (!source.advance())
+                    break;
+                int count = source.count();
+                if (slots[slot].length < count)
+                    slots[slot] = new int[Math.max(count, slots[slot].length * 2)];
+                for (int i = 0; i < count; i++)
+                    slots[slot][i] = source.cell(i);
+                counts[slot] = count;
+                offsets[slot] = source.offset();
+
+                synchronized (this) {
+                    size++;
+                    notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            return;
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                failure = e;
+            }
+        }
+
+        synchronized (this) {
+            ended = true;
+            notifyAll();
+        }
+    }
+
+    @Override
+    public synchronized boolean advance() {
+        if (!started) {
+            started = true;
+            reader.start();
+        }
+
+        // hand the slot of the previous timestep back to the reader
+        if (current != -1) {
+            head = (head + 1) % slots.length;
+            size--;
+            current = -1;
+            notifyAll();
+        }
+
+        try {
+            while (size == 0 && !ended)
+                wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        if (size == 0) {
+            if (failure != null && !closed)
+                throw failure;
+            return false;
+        }
+        current = head;
+        offset = offsets[current];
+        return true;
+    }
+
+    // timesteps read ahead of the current one
+    public synchronized int buffered() {
+        return current == -1 ? size : size - 1;
+    }
+
+    @Override
+    public int count() {
+        return current == -1 ? 0 : counts[current];
+    }
+
+    @Override
+    public int cell(int i) {
+        return slots[current][i];
+    }
+
+    // the offset of the source at the current timestep, not at the ones read ahead
+    @Override
+    public long offset() {
+        return offset;
+    }
+
+    // the cells of the current timestep, when the source needs them to carry on
+    @Override
+    public int[] barbers() {
+        if (!keepsBarbers)
+            return null;
+        return current == -1 ? source.barbers() : Arrays.copyOf(slots[current], counts[current]);
+    }
+
+    @Override
+    public synchronized void seek(long offset, int timestep, int[] barbers) {
+        if (started)
+            throw new IllegalStateException("a buffered source can only seek before the first advance()");
+        source.seek(offset, timestep, barbers);
+        this.offset = offset;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        reader.interrupt();
+        source.close();
+    }
+}
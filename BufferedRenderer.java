@@ -0,0 +1,81 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+// draws every frame the same as printing it cell by cell would, but into a char[]
+// that is kept between frames and written out in one go, instead of a print call
+// (and a flush of the console's small buffer) per cell. the bars and the "| "
+// sides never change, so they are laid out once per map size and only the cells
+// are filled in each frame
+public class BufferedRenderer implements Renderer {
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final Writer out;
+    private char[] frame; // the map part of a frame, below the step number
+    private int sizeX = -1;
+    private int sizeY = -1;
+    private int firstRow; // offset of the first cell row in frame
+    private int rowLength;
+
+    public BufferedRenderer(PrintStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out), 1 << 16);
+    }
+
+    @Override
+    public void frame(LevelMap map, int timestep) {
+        if (map.getSizeX() != sizeX || map.getSizeY() != sizeY)
+            layout(map.getSizeX(), map.getSizeY());
+
+        for (int x = 0; x < sizeX; x++) {
+            int offset = firstRow + x * rowLength + 2;
+            int index = x * sizeY;
+            for (int y = 0; y < sizeY; y++)
+                frame[offset + 2 * y] = map.display(index + y);
+        }
+
+        try {
+            out.write("Step: ");
+            out.write(Integer.toString(timestep));
+            out.write(NEWLINE);
+            out.write(frame);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void message(String text) {
+        try {
+            out.write(text);
+            out.write(NEWLINE);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // a bar of dashes, a "| c c ... c |" row per x and another bar followed by two
+    // blank lines
+    private void layout(int sizeX, int sizeY) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+
+        String bar = "-".repeat(sizeY * 2 + 3);
+        StringBuilder row = new StringBuilder("| ");
+        row.append(" ".repeat(sizeY * 2)).append('|').append(NEWLINE);
+
+        StringBuilder layout = new StringBuilder();
+        layout.append(bar).append(NEWLINE);
+        firstRow = layout.length();
+        rowLength = row.length();
+        for (int x = 0; x < sizeX; x++)
+            layout.append(row);
+        layout.append(bar).append("\n\n").append(NEWLINE);
+
+        frame = layout.toString().toCharArray();
+    }
+}
@@ -0,0 +1,59 @@
+// answers searches from a PathCache when a path from the same start (or from a
+// cell on the way) to the same goal was found before and nothing has changed near
+// enough to it to change it, and only runs the wrapped planner on a miss. on a hit
+// the wrapped planner is not searched at all; it is still told about every changed
+// cell, so an incremental planner stays up to date for its next search
+public class CachingPlanner implements Planner {
+    private final Planner planner;
+    private final PathCache cache;
+    private int entry = PathCache.NONE; // entry holding the last path found, NONE when none was
+    private int offset; // steps of the entry's path before the last search's start
+    private boolean searched; // whether the last search missed and ran the wrapped planner
+
+    public CachingPlanner(Planner planner, PathCache cache) {
+        this.planner = planner;
+        this.cache = cache;
+    }
+
+    @Override
+    public boolean search(int start, int goal, int timestep) {
+        entry = cache.lookup(start, goal);
+        offset = cache.getOffset();
+        searched = entry == PathCache.NONE;
+        if (searched && planner.search(start, goal, timestep))
+            entry = cache.put(start, goal, planner);
+        return entry != PathCache.NONE;
+    }
+
+    @Override
+    public int getPathLength() {
+        return entry == PathCache.NONE ? 0 : cache.getLength(entry) - offset;
+    }
+
+    @Override
+    public int getPathStep(int i) {
+        return cache.getStep(entry, offset + i);
+    }
+
+    @Override
+    public void cellChanged(int index) {
+        cache.cellChanged(index);
+        planner.cellChanged(index);
+    }
+
+    // a hit expands nothing
+    @Override
+    public int getNodesExpanded() {
+        return searched ? planner.getNodesExpanded() : 0;
+    }
+
+    @Override
+    public int getOpenListPeak() {
+        return searched ? planner.getOpenListPeak() : 0;
+    }
+
+    @Override
+    public int getDecreaseKeys() {
+        return searched ? planner.getDecreaseKeys() : 0;
+    }
+}
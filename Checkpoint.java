@@ -0,0 +1,108 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// how far a simulation run got, enough to carry on from there after a restart:
+// the timestep, Scandro's cell at the end of it, the barber source's offset (see
+// BarberSource.offset), the barbers' cells when the source needs them to carry on
+// (see BarberSource.barbers) and whether the run stopped for lack of a path. a
+// checkpoint file is 29 bytes and 4 more per barber kept. it is written to a
+// temporary file and moved over the old one, so a crash while writing leaves the
+// previous checkpoint in place
+public final class Checkpoint {
+    private static final int MAGIC = 0x4153434B; // "ASCK"
+    private static final int VERSION = 2; // 1 had no barbers, and offsets of random walks were timesteps
+
+    private final int timestep;
+    private final int scandro;
+    private final long barberOffset;
+    private final int[] barbers;
+    private final boolean pathNotFound;
+
+    public Checkpoint(int timestep, int scandro, long barberOffset, int[] barbers, boolean pathNotFound) {
+        this.timestep = timestep;
+        this.scandro = scandro;
+        this.barberOffset = barberOffset;
+        this.barbers = barbers;
+        this.pathNotFound = pathNotFound;
+    }
+
+    // the checkpoint of a run as it is now
+    public static Checkpoint of(LevelMap map) {
+        BarberSource source = map.getBarberSource();
+        return new Checkpoint(map.getTimestep(), map.getScandro(), source.offset(), source.barbers(),
+                map.isPathNotFound());
+    }
+
+    // carry on the run from this checkpoint, on a map that was just opened and has
+    // not been stepped
+    public void restore(LevelMap map) {
+        map.getBarberSource().seek(barberOffset, timestep, barbers);
+        map.resume(timestep, scandro, pathNotFound);
+    }
+
+    public int getTimestep() {
+        return timestep;
+    }
+
+    public int getScandro() {
+        return scandro;
+    }
+
+    public long getBarberOffset() {
+        return barberOffset;
+    }
+
+    // null when the barber source carries on from its offset alone
+    public int[] getBarbers() {
+        return barbers;
+    }
+
+    public boolean isPathNotFound() {
+        return pathNotFound;
+    }
+
+    public void write(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temporary))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(timestep);
+            out.writeInt(scandro);
+            out.writeLong(barberOffset);
+            out.writeBoolean(pathNotFound);
+            out.writeInt(barbers == null ? -1 : barbers.length);
+            if (barbers != null) {
+                for (int cell : barbers)
+                    out.writeInt(cell);
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // the checkpoint in the file, or null when there is no file
+    public static Checkpoint read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException(path + ": not a checkpoint file");
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new IOException(path + ": unsupported checkpoint version " + version);
+            int timestep = in.readInt();
+            int scandro = in.readInt();
+            long barberOffset = in.readLong();
+            boolean pathNotFound = in.readBoolean();
+            int count = in.readInt();
+            int[] barbers = count < 0 ? null : new int[count];
+            for (int i = 0; i < count; i++)
+                barbers[i] = in.readInt();
+            return new Checkpoint(timestep, scandro, barberOffset, barbers, pathNotFound);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+// writes one line per timestep to a csv file, for analysis after the run. the
+// writer is buffered, so a line costs building its string and a copy. write
+// errors are thrown as an UncheckedIOException, and the file is closed when the run
+// is over
+public class CsvMetricsSink implements MetricsSink {
+    private static final String HEADER = "timestep,found,nodes_expanded,open_list_peak,decrease_keys,path_length,"
+            + "search_ns,reset_ns,barbers_ns,print_ns";
+
+    private final BufferedWriter writer;
+
+    public CsvMetricsSink(String path) throws IOException {
+        this.writer = Files.newBufferedWriter(Paths.get(path));
+        writer.write(HEADER);
+        writer.newLine();
+    }
+
+    @Override
+    public void timestep(SearchMetrics metrics) {
+        try {
+            writer.write(metrics.getLastTimestep() + "," + (metrics.isLastFound() ? 1 : 0) + ","
+                    + metrics.getLastNodesExpanded() + "," + metrics.getLastOpenListPeak() + ","
+                    + metrics.getLastDecreaseKeys() + "," + metrics.getLastPathLength() + ","
+                    + metrics.getLastSearchNanos() + "," + metrics.getLastResetNanos() + ","
+                    + metrics.getLastBarberNanos() + "," + metrics.getLastPrintNanos());
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void finish(SearchMetrics metrics) {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
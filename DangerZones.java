@@ -0,0 +1,94 @@
+// the cells around the barbers that Scandro keeps away from, so a barber can't cut
+// his hair from the next cell. cells within radius steps (manhattan distance,
+// through walls) of a barber are blocked, and cells further out up to softRadius
+// steps cost more to step into: softCost one step past the blocked zone, falling by
+// softCost / (softRadius - radius) per step after that. the zones of barbers close
+// to each other overlap, blocked cells are counted and extra costs add up.
+// a barber's zone is added when it arrives on a cell and taken away when it leaves,
+// so a timestep only costs the cells around the barbers that moved. the planner is
+// told about every cell that became blocked or open; costs are read when searching
+public final class DangerZones {
+    private final OccupancyGrid grid;
+    private final int sizeX;
+    private final int sizeY;
+    private final int radius;
+    private final int softRadius;
+    private final int softCost;
+    private final int[] blocking; // barbers whose blocked zone covers each cell, null when radius is 0
+
+    public DangerZones(OccupancyGrid grid, int radius, int softRadius, int softCost) {
+        if (radius < 0)
+            throw new IllegalArgumentException("radius must be at least 0, not " + radius);
+        if (softRadius != 0 && softRadius <= radius)
+            throw new IllegalArgumentException("soft radius must be 0 or past the radius " + radius + ", not "
+                    + softRadius);
+        if (softCost < 0)
+            throw new IllegalArgumentException("soft cost must be at least 0, not " + softCost);
+        this.grid = grid;
+        this.sizeX = grid.getSizeX();
+        this.sizeY = grid.getSizeY();
+        this.radius = radius;
+        this.softRadius = softCost == 0 ? 0 : softRadius;
+        this.softCost = softCost;
+
+        // the barber's own cell is blocked anyway
+        this.blocking = radius == 0 ? null : new int[sizeX * sizeY];
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public int getSoftRadius() {
+        return softRadius;
+    }
+
+    // a barber arrived on the cell
+    public void add(int barber, Planner planner) {
+        update(barber, 1, planner);
+    }
+
+    // a barber left the cell
+    public void remove(int barber, Planner planner) {
+        update(barber, -1, planner);
+    }
+
+    // walk the diamond of cells within the outer radius of the barber
+    private void update(int barber, int sign, Planner planner) {
+        int outer = Math.max(radius, softRadius);
+        if (outer == 0)
+            return;
+
+        int bx = barber / sizeY;
+        int by = barber % sizeY;
+        for (int x = Math.max(0, bx - outer); x <= Math.min(sizeX - 1, bx + outer); x++) {
+            int dx = Math.abs(x - bx);
+            int width = outer - dx;
+            for (int y = Math.max(0, by - width); y <= Math.min(sizeY - 1, by + width); y++) {
+                int index = x * sizeY + y;
+                int distance = dx + Math.abs(y - by);
+                if (distance <= radius) {
+                    if (blocking != null)
+                        block(index, sign, planner);
+                } else {
+                    grid.addDangerCost(index, sign * softCost(distance));
+                    planner.cellChanged(index);
+                }
+            }
+        }
+    }
+
+    private void block(int index, int sign, Planner planner) {
+        int before = blocking[index];
+        blocking[index] = before + sign;
+        if (before == 0 || before + sign == 0) {
+            grid.setDanger(index, before == 0);
+            planner.cellChanged(index);
+        }
+    }
+
+    // extra cost of a cell this far from a barber, past the blocked zone
+    private int softCost(int distance) {
+        return softCost * (softRadius + 1 - distance) / (softRadius - radius);
+    }
+}
@@ -0,0 +1,75 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+// draws the first frame in full (see BufferedRenderer), and after that only the
+// cells that changed since the frame before: the step number and how many cells
+// changed, then one "x y c" line per changed cell with its new display character
+// ('.' for an empty cell). a long run on a large map then writes a few lines per
+// timestep instead of the whole map
+public class DiffRenderer implements Renderer {
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final BufferedRenderer full;
+    private final Writer out;
+    private final StringBuilder changes = new StringBuilder();
+    private char[] buffer = new char[256];
+    private char[] previous; // display character of every cell in the last frame
+    private int sizeX = -1;
+    private int sizeY = -1;
+
+    public DiffRenderer(PrintStream out) {
+        this.full = new BufferedRenderer(out);
+        this.out = new BufferedWriter(new OutputStreamWriter(out), 1 << 16);
+    }
+
+    @Override
+    public void frame(LevelMap map, int timestep) {
+        if (map.getSizeX() != sizeX || map.getSizeY() != sizeY) {
+            sizeX = map.getSizeX();
+            sizeY = map.getSizeY();
+            previous = new char[sizeX * sizeY];
+            for (int i = 0; i < previous.length; i++)
+                previous[i] = map.display(i);
+            full.frame(map, timestep);
+            return;
+        }
+
+        changes.setLength(0);
+        int changed = 0;
+        for (int i = 0; i < previous.length; i++) {
+            char c = map.display(i);
+            if (c == previous[i])
+                continue;
+            previous[i] = c;
+            changed++;
+            changes.append(i / sizeY).append(' ').append(i % sizeY).append(' ').append(c == ' ' ? '.' : c)
+                    .append(NEWLINE);
+        }
+
+        if (buffer.length < changes.length())
+            buffer = new char[Math.max(changes.length(), buffer.length * 2)];
+        changes.getChars(0, changes.length(), buffer, 0);
+        try {
+            out.write("Step: " + timestep + " (" + changed + " changed)" + NEWLINE);
+            out.write(buffer, 0, changes.length());
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void message(String text) {
+        try {
+            out.write(text);
+            out.write(NEWLINE);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// reads a text barber file ('timestep y x' lines, see MapLoader) while it is still
+// being written, like 'tail -f'. when the end of the file is reached before the
+// '-1' line, advance() waits for more lines to be appended.
+// timesteps must not decrease through the file, since a timestep is handed out
+// as soon as a line of a later timestep is read. parse errors are thrown as an
+// UncheckedIOException around a MapFormatException
+public class FileTailBarberSource implements BarberSource {
+    private static final int NONE = -2;
+
+    private final String path;
+    private final int sizeX;
+    private final int sizeY;
+    private final long pollMillis;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+    private long bufferStart; // file offset of the buffer's first byte
+    private long lineStart; // file offset of the last line read
+    private long recordOffset; // file offset of the pending record's line, or of the '-1' line
+
+    private byte[] line = new byte[64];
+    private int lineLength;
+    private int lineNumber; // counted from the offset after a seek
+    private int parsed; // last number read by parseInt
+
+    private int[] cells = new int[64]; // barbers of the current timestep
+    private int count;
+    private int timestep = -1;
+    private int pendingTimestep = NONE; // a record of a later timestep that was already read
+    private int pendingCell;
+    private boolean ended;
+    private volatile boolean closed;
+
+    // pollMillis is how long to wait before looking for new lines at the end of the file
+    public FileTailBarberSource(String path, int sizeX, int sizeY, long pollMillis) throws IOException {
+        this.path = path;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.pollMillis = pollMillis;
+        try {
+            this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("file not found: " + path);
+        }
+        buffer.flip();
+    }
+
+    @Override
+    public boolean advance() {
+        count = 0;
+        if (ended)
+            return false;
+
+        timestep++;
+        while (true) {
+            if (pendingTimestep != NONE) {
+                if (pendingTimestep > timestep)
+                    return true;
+
+                if (count == cells.length)
+                    cells = Arrays.copyOf(cells, count * 2);
+                cells[count++] = pendingCell;
+                pendingTimestep = NONE;
+            }
+
+            try {
+                if (!readRecord()) {
+                    ended = true;
+                    return count > 0;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // read the next 'timestep y x' line into the pending record, false at the '-1' line
+    // (or when the source was closed)
+    private boolean readRecord() throws IOException {
+        int position;
+        do {
+            if (!readLine())
+                return false;
+            position = skipSpaces(0);
+        } while (position == lineLength);
+
+        position = parseInt(position);
+        int recordTimestep = parsed;
+        if (recordTimestep == -1) {
+            recordOffset = lineStart;
+            return false;
+        }
+        if (recordTimestep < 0)
+            throw error("negative timestep " + recordTimestep);
+        if (recordTimestep < timestep)
+            throw error("timestep " + recordTimestep + " comes after timestep " + timestep);
+
+        position = parseInt(position);
+        int y = parsed;
+        position = parseInt(position);
+        int x = parsed;
+        if (skipSpaces(position) != lineLength)
+            throw error("expected 'timestep y x'");
+        if (x < 0 || x >= sizeX || y < 0 || y >= sizeY)
+            throw error("cell " + y + " " + x + " is outside the map (M " + sizeY + " " + sizeX + ")");
+
+        pendingTimestep = recordTimestep;
+        pendingCell = x * sizeY + y;
+        recordOffset = lineStart;
+        return true;
+    }
+
+    // read up to the next newline, waiting for the file to grow at its end.
+    // false when the source was closed while waiting
+    private boolean readLine() throws IOException {
+        lineLength = 0;
+        lineNumber++;
+        lineStart = bufferStart + buffer.position();
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                bufferStart += buffer.limit();
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read <= 0) {
+                    // the writer may have finished with '-1' without a newline
+                    if (lineLength == 2 && line[0] == '-' && line[1] == '1')
+                        return true;
+                    if (closed)
+                        return false;
+                    waitForData();
+                    continue;
+                }
+            }
+
+            byte b = buffer.get();
+            if (b == '\n')
+                return true;
+            if (lineLength == line.length)
+                line = Arrays.copyOf(line, lineLength * 2);
+            line[lineLength++] = b;
+        }
+    }
+
+    private void waitForData() throws IOException {
+        try {
+            Thread.sleep(pollMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for " + path + " to grow");
+        }
+    }
+
+    private int skipSpaces(int position) {
+        while (position < lineLength && (line[position] == ' ' || line[position] == '\t' || line[position] == '\r'))
+            position++;
+        return position;
+    }
+
+    // parse the number at position (after any spaces) into parsed, returns the position after it
+    private int parseInt(int position) throws MapFormatException {
+        position = skipSpaces(position);
+        boolean negative = position < lineLength && line[position] == '-';
+        if (negative)
+            position++;
+
+        int start = position;
+        long result = 0;
+        while (position < lineLength && line[position] >= '0' && line[position] <= '9') {
+            result = result * 10 + (line[position++] - '0');
+            if (result > Integer.MAX_VALUE)
+                throw error("number is too large");
+        }
+        if (position == start)
+            throw error("expected 'timestep y x'");
+
+        parsed = (int) (negative ? -result : result);
+        return position;
+    }
+
+    private MapFormatException error(String message) {
+        return new MapFormatException(path, lineNumber, message);
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public int cell(int i) {
+        return cells[i];
+    }
+
+    // the file offset of the line the next timestep starts at
+    @Override
+    public long offset() {
+        if (pendingTimestep != NONE || ended)
+            return recordOffset;
+        return bufferStart + buffer.position();
+    }
+
+    @Override
+    public void seek(long offset, int timestep, int[] barbers) {
+        try {
+            channel.position(offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+        buffer.flip();
+        bufferStart = offset;
+        lineNumber = 0;
+        this.timestep = timestep;
+        pendingTimestep = NONE;
+        ended = false;
+        count = 0;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
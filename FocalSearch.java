@@ -0,0 +1,195 @@
+import java.util.Arrays;
+
+// focal search (A*-epsilon, Pearl and Kim): like A*, the open list is ordered by
+// f = g + h, but the cell expanded next is not the one with the lowest f. it is
+// the one closest to the goal (lowest h) among the focal list, the open cells whose
+// f is at most (1 + epsilon) times the lowest f. it heads straight for the goal
+// wherever that costs little more than the best path, and the path found costs at
+// most (1 + epsilon) times the cheapest.
+// three heaps hold the open cells: every open cell by f (for the lowest f), the
+// ones outside the focal list by f (to move them in as the lowest f goes up), and
+// the focal list by h. the lowest f never goes down, so a cell never has to leave
+// the focal list until it is expanded. there is no closed list: an expanded cell
+// that is reached again by a cheaper path is opened again, which the bound needs
+// as cells are not expanded in order of f.
+// steps cost what the cell stepped into costs (see Grid.getCost), and the goal is
+// always enterable
+public class FocalSearch implements Planner {
+    private static final int NO_PARENT = -1;
+
+    private final int sizeX;
+    private final int sizeY;
+    private final Grid grid;
+    private final double epsilon;
+
+    private final int[] g;
+    private final int[] parent;
+    private final int[] visited; // generation in which g and parent were last written
+    private int generation;
+    private final IndexedMinHeap open; // every open cell, by f then h
+    private final IndexedMinHeap outside; // open cells outside the focal list, by f then h
+    private final IndexedMinHeap focal; // by h then g (the same as by h then f)
+    private long bound; // highest f in the focal list
+    private int nodesExpanded;
+    private int decreaseKeys;
+    private int timestep;
+    private int goal;
+    private int goalX;
+    private int goalY;
+
+    // last path found, from the first step after the start up to and including the goal
+    private int[] path = new int[16];
+    private int pathLength;
+
+    public FocalSearch(Grid grid, double epsilon) {
+        if (!(epsilon >= 0))
+            throw new IllegalArgumentException("epsilon must be at least 0, not " + epsilon);
+        this.sizeX = grid.getSizeX();
+        this.sizeY = grid.getSizeY();
+        this.grid = grid;
+        this.epsilon = epsilon;
+
+        int size = sizeX * sizeY;
+        this.g = new int[size];
+        this.parent = new int[size];
+        this.visited = new int[size];
+        this.open = new IndexedMinHeap(size);
+        this.outside = new IndexedMinHeap(size);
+        this.focal = new IndexedMinHeap(size);
+    }
+
+    @Override
+    public boolean search(int start, int goal, int timestep) {
+        nextGeneration();
+        open.clear();
+        outside.clear();
+        focal.clear();
+        pathLength = 0;
+        nodesExpanded = 0;
+        decreaseKeys = 0;
+        this.timestep = timestep;
+        this.goal = goal;
+        goalX = goal / sizeY;
+        goalY = goal % sizeY;
+
+        int h = heuristic(start);
+        g[start] = 0;
+        parent[start] = NO_PARENT;
+        visited[start] = generation;
+        bound = h;
+        open.insertOrUpdate(start, h, h);
+        focal.insertOrUpdate(start, h, 0);
+
+        while (!open.isEmpty()) {
+            // widen the focal list to the new lowest f
+            long lowest = open.primaryKey(open.peek());
+            bound = Math.max(bound, (long) Math.floor((1 + epsilon) * lowest));
+            while (!outside.isEmpty() && outside.primaryKey(outside.peek()) <= bound) {
+                int cell = outside.poll();
+                focal.insertOrUpdate(cell, open.secondaryKey(cell), g[cell]);
+            }
+
+            int q = focal.poll();
+            open.remove(q);
+            if (q == goal) {
+                buildPath(start);
+                return true;
+            }
+            nodesExpanded++;
+
+            int qX = q / sizeY;
+            int qY = q % sizeY;
+
+            // up, down, right, left
+            if (qY + 1 < sizeY)
+                relax(q, q + 1);
+            if (qY - 1 >= 0)
+                relax(q, q - 1);
+            if (qX + 1 < sizeX)
+                relax(q, q + sizeY);
+            if (qX - 1 >= 0)
+                relax(q, q - sizeY);
+        }
+
+        return false;
+    }
+
+    private void relax(int q, int next) {
+        if (next != goal && !grid.isTraversable(next, timestep))
+            return;
+
+        int gNew = Math.addExact(g[q], grid.getCost(next));
+        if (visited[next] == generation) {
+            if (g[next] <= gNew)
+                return;
+            decreaseKeys++;
+        }
+
+        g[next] = gNew;
+        parent[next] = q;
+        visited[next] = generation;
+
+        int h = heuristic(next);
+        long f = (long) gNew + h;
+        open.insertOrUpdate(next, f, h);
+        if (f <= bound) {
+            outside.remove(next);
+            focal.insertOrUpdate(next, h, gNew);
+        } else {
+            outside.insertOrUpdate(next, f, h);
+        }
+    }
+
+    // invalidate all per-cell data from the previous search in O(1)
+    private void nextGeneration() {
+        generation++;
+
+        // stamps only need clearing when the counter wraps around
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            generation = 1;
+        }
+    }
+
+    private int heuristic(int index) {
+        return Math.abs(index / sizeY - goalX) + Math.abs(index % sizeY - goalY);
+    }
+
+    // walk the parents back from the goal and store the path in start -> goal order
+    private void buildPath(int start) {
+        int length = 0;
+        for (int c = goal; c != start; c = parent[c])
+            length++;
+
+        pathLength = length;
+        if (path.length < length)
+            path = new int[Math.max(length, path.length * 2)];
+        for (int c = goal; c != start; c = parent[c])
+            path[--length] = c;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    @Override
+    public int getOpenListPeak() {
+        return open.getPeakSize();
+    }
+
+    @Override
+    public int getDecreaseKeys() {
+        return decreaseKeys;
+    }
+
+    @Override
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    @Override
+    public int getPathStep(int i) {
+        return path[i];
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.Arrays;
+
+// exact number of steps to the goal around the walls, from a breadth first search
+// backwards from the goal. barbers are left out, since they move and can only make
+// the real path longer, so the distance is still a lower bound. on maps where the
+// straight line is misleading (eg. goaround) A* then only expands cells on
+// shortest paths, unless barbers are in the way.
+// the field is built on the first search towards a goal and kept until a search
+// towards another goal, at 2 bytes per cell. walls must not change after that
+public class GoalDistanceHeuristic implements Heuristic {
+    static final char UNREACHED = Character.MAX_VALUE;
+    static final char MAX_DISTANCE = Character.MAX_VALUE - 1; // longer distances are stored as this
+
+    private final OccupancyGrid grid;
+    private final int sizeY;
+    private final char[] distance;
+    private final int[] queue;
+    private int goal = -1;
+
+    public GoalDistanceHeuristic(OccupancyGrid grid) {
+        this.grid = grid;
+        this.sizeY = grid.getSizeY();
+        this.distance = new char[grid.getSizeX() * sizeY];
+        this.queue = new int[grid.getSizeX() * sizeY];
+    }
+
+    @Override
+    public int estimate(int index, int goal) {
+        if (goal != this.goal) {
+            breadthFirst(grid, goal, distance, queue);
+            this.goal = goal;
+        }
+
+        // cells the search did not reach (only a walled in start) fall back to manhattan
+        int manhattan = Math.abs(index / sizeY - goal / sizeY) + Math.abs(index % sizeY - goal % sizeY);
+        char d = distance[index];
+        return d == UNREACHED ? manhattan : Math.max(d, manhattan);
+    }
+
+    // steps from source to every cell, moving between cells that are not walls.
+    // source and the grid's goal are open even on a wall, since the goal can always
+    // be entered. distances are capped at MAX_DISTANCE, which keeps them lower
+    // bounds, and cells that cannot be reached are UNREACHED
+    static void breadthFirst(OccupancyGrid grid, int source, char[] distance, int[] queue) {
+        int sizeX = grid.getSizeX();
+        int sizeY = grid.getSizeY();
+        int goal = grid.getGoal();
+        Arrays.fill(distance, UNREACHED);
+
+        distance[source] = 0;
+        queue[0] = source;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int cell = queue[head++];
+            char next = (char) Math.min(distance[cell] + 1, MAX_DISTANCE);
+            int x = cell / sizeY;
+            int y = cell % sizeY;
+
+            // up, down, right, left
+            if (y + 1 < sizeY)
+                tail = visit(grid, cell + 1, goal, next, distance, queue, tail);
+            if (y > 0)
+                tail = visit(grid, cell - 1, goal, next, distance, queue, tail);
+            if (x + 1 < sizeX)
+                tail = visit(grid, cell + sizeY, goal, next, distance, queue, tail);
+            if (x > 0)
+                tail = visit(grid, cell - sizeY, goal, next, distance, queue, tail);
+        }
+    }
+
+    private static int visit(OccupancyGrid grid, int cell, int goal, char d, char[] distance, int[] queue, int tail) {
+        if (distance[cell] != UNREACHED || (grid.isWall(cell) && cell != goal))
+            return tail;
+        distance[cell] = d;
+        queue[tail] = cell;
+        return tail + 1;
+    }
+}
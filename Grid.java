@@ -0,0 +1,21 @@
+// read-only view of which cells of a map can be walked on.
+// cells are grid indices (x * sizeY + y)
+public interface Grid {
+
+    int getSizeX();
+
+    int getSizeY();
+
+    // true if Scandro can step into the cell at the given timestep
+    boolean isTraversable(int index, int timestep);
+
+    // cost of stepping into the cell, at least 1
+    default int getCost(int index) {
+        return 1;
+    }
+
+    // true when some cell can cost more than 1 to step into
+    default boolean hasCosts() {
+        return false;
+    }
+}
@@ -0,0 +1,8 @@
+// lower bound on the number of steps from a cell to the goal, for A*. it must
+// never overestimate, and must not drop by more than 1 per step (consistent), so
+// A* keeps finding shortest paths without reopening closed cells.
+// cells are grid indices (x * sizeY + y)
+public interface Heuristic {
+
+    int estimate(int index, int goal);
+}
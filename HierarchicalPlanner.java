@@ -0,0 +1,647 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// hierarchical path finding (HPA*). the map is split into square clusters, and
+// entrances (runs of open cells along a cluster border) are found once from the
+// static walls. each entrance gets one or two transitions, and the distances
+// between transitions of the same cluster are cached, so a query is answered on
+// the small abstract graph of transitions and only the clusters along the
+// abstract path are searched cell by cell.
+// when a barber enters or leaves a cell only that cluster's cached distances are
+// recomputed (and a transition blocked by a barber moves to another open cell of
+// its entrance). paths are close to, but not always, the shortest ones
+public class HierarchicalPlanner implements Planner {
+    private static final int INF = Integer.MAX_VALUE / 4;
+    private static final int NONE = -1;
+    private static final int MAX_SINGLE_ENTRANCE = 6; // longer entrances get a transition at each end
+
+    private final int sizeX;
+    private final int sizeY;
+    private final OccupancyGrid grid;
+    private final int clusterSize;
+    private final int clustersY;
+
+    // entrances, each a run of open cell pairs along a border
+    private final int[] runCell; // first cell of the run on the far side of the border
+    private final int[] runStep; // index step along the run
+    private final int[] runCross; // index step across the border
+    private final int[] runLength;
+    private final int[] runFirstNode;
+
+    // abstract graph. each transition is two nodes, one on each side of the border
+    // (n and n ^ 1), and the last two node ids are the start and goal of a query
+    private final int nodeCount;
+    private final int startNode;
+    private final int goalNode;
+    private final int[] nodeCell;
+    private final int[] nodeCluster;
+    private final int[] nodeSlot; // position of the node in its cluster's node list
+    private final int[] nodeRun;
+    private final int[][] clusterNodes;
+    private final int[][] clusterDistances; // k * k distances between a cluster's nodes
+    private final boolean[] dirty;
+    private final int[] dirtyClusters; // the clusters flagged in dirty, so they can be found without a scan
+    private int dirtyCount;
+
+    // scratch for searches inside one cluster
+    private final int[] localDist;
+    private final int[] localParent;
+    private final int[] queue;
+
+    // abstract search
+    private final int[] g;
+    private final int[] parent;
+    private final int[] visited;
+    private final int[] closed;
+    private int generation;
+    private final IndexedMinHeap openList;
+    private final int[] startDistances;
+    private final int[] goalDistances;
+    private final int[] goalClusters = new int[3]; // clusters the goal can be stepped into from
+    private int goalClusterCount;
+    private int start = NONE;
+    private int goal = NONE;
+
+    private final int[] abstractPath;
+    private int abstractPathLength;
+    private int[] path = new int[16];
+    private int pathLength;
+
+    public HierarchicalPlanner(OccupancyGrid grid, int clusterSize) {
+        if (grid.hasCosts())
+            throw new IllegalArgumentException(
+                    "hpa* counts every step as 1, the map has cells that cost more");
+        this.sizeX = grid.getSizeX();
+        this.sizeY = grid.getSizeY();
+        this.grid = grid;
+        this.clusterSize = clusterSize;
+        int clustersX = (sizeX + clusterSize - 1) / clusterSize;
+        this.clustersY = (sizeY + clusterSize - 1) / clusterSize;
+        int clusterCount = clustersX * clustersY;
+
+        // find the entrances along every cluster border
+        List<int[]> runs = new ArrayList<int[]>();
+        for (int x = 0; x < sizeX; x++) {
+            for (int y = clusterSize; y < sizeY; y += clusterSize)
+                findEntrance(x, y, 0, 1, runs);
+        }
+        for (int x = clusterSize; x < sizeX; x += clusterSize) {
+            for (int y = 0; y < sizeY; y++)
+                findEntrance(x, y, 1, 0, runs);
+        }
+
+        int runCount = runs.size();
+        this.runCell = new int[runCount];
+        this.runStep = new int[runCount];
+        this.runCross = new int[runCount];
+        this.runLength = new int[runCount];
+        this.runFirstNode = new int[runCount + 1];
+        for (int r = 0; r < runCount; r++) {
+            int[] run = runs.get(r);
+            runCell[r] = run[0];
+            runStep[r] = run[1];
+            runCross[r] = run[2];
+            runLength[r] = run[3];
+            runFirstNode[r + 1] = runFirstNode[r] + 2 * transitionSlots(r);
+        }
+
+        this.nodeCount = runFirstNode[runCount] + 2;
+        this.startNode = nodeCount - 2;
+        this.goalNode = nodeCount - 1;
+        this.nodeCell = new int[nodeCount];
+        this.nodeCluster = new int[nodeCount];
+        this.nodeSlot = new int[nodeCount];
+        this.nodeRun = new int[nodeCount];
+
+        int[] clusterNodeCount = new int[clusterCount];
+        for (int r = 0; r < runCount; r++) {
+            int far = clusterOf(runCell[r]);
+            int near = clusterOf(runCell[r] - runCross[r]);
+            for (int n = runFirstNode[r]; n < runFirstNode[r + 1]; n++) {
+                nodeRun[n] = r;
+                nodeCluster[n] = (n & 1) == 0 ? near : far;
+                nodeSlot[n] = clusterNodeCount[nodeCluster[n]]++;
+            }
+            placeTransitions(r);
+        }
+
+        this.clusterNodes = new int[clusterCount][];
+        this.clusterDistances = new int[clusterCount][];
+        int maxNodes = 0;
+        for (int c = 0; c < clusterCount; c++) {
+            clusterNodes[c] = new int[clusterNodeCount[c]];
+            clusterDistances[c] = new int[clusterNodeCount[c] * clusterNodeCount[c]];
+            maxNodes = Math.max(maxNodes, clusterNodeCount[c]);
+        }
+        for (int n = 0; n < nodeCount - 2; n++)
+            clusterNodes[nodeCluster[n]][nodeSlot[n]] = n;
+
+        this.localDist = new int[clusterSize * clusterSize];
+        this.localParent = new int[clusterSize * clusterSize];
+        this.queue = new int[clusterSize * clusterSize];
+
+        this.g = new int[nodeCount];
+        this.parent = new int[nodeCount];
+        this.visited = new int[nodeCount];
+        this.closed = new int[nodeCount];
+        this.openList = new IndexedMinHeap(nodeCount);
+        this.startDistances = new int[maxNodes];
+        this.goalDistances = new int[nodeCount];
+        this.abstractPath = new int[nodeCount];
+
+        // every cluster starts out dirty, so the distances are computed on first use
+        this.dirty = new boolean[clusterCount];
+        this.dirtyClusters = new int[clusterCount];
+        for (int c = 0; c < clusterCount; c++)
+            markDirty(c);
+    }
+
+    public HierarchicalPlanner(OccupancyGrid grid) {
+        this(grid, 10);
+    }
+
+    // a barber moved in or out of a cell, so its cluster's distances are stale.
+    // a cell on a border can also move the transitions of the cluster next to it
+    @Override
+    public void cellChanged(int index) {
+        int x = index / sizeY;
+        int y = index % sizeY;
+        markDirty(clusterOf(index));
+        if (y + 1 < sizeY)
+            markDirty(clusterOf(index + 1));
+        if (y - 1 >= 0)
+            markDirty(clusterOf(index - 1));
+        if (x + 1 < sizeX)
+            markDirty(clusterOf(index + sizeY));
+        if (x - 1 >= 0)
+            markDirty(clusterOf(index - sizeY));
+    }
+
+    private void markDirty(int cluster) {
+        if (!dirty[cluster]) {
+            dirty[cluster] = true;
+            dirtyClusters[dirtyCount++] = cluster;
+        }
+    }
+
+    @Override
+    public boolean search(int start, int goal, int timestep) {
+        pathLength = 0;
+
+        // refresh stale clusters before the query cells are known, so the cached
+        // distances never treat this query's start or goal specially
+        refreshClusters(NONE, NONE);
+
+        // a start or goal under a barber is still an endpoint, so the clusters around it
+        // are refreshed knowing the query, and left dirty for the next one
+        boolean endpointBlocked = isBlocked(start) || isBlocked(goal);
+        if (endpointBlocked) {
+            cellChanged(start);
+            cellChanged(goal);
+        }
+        refreshClusters(start, goal);
+        if (endpointBlocked) {
+            cellChanged(start);
+            cellChanged(goal);
+        }
+
+        if (!searchAbstract())
+            return false;
+
+        return refine();
+    }
+
+    // move the transitions and recompute the distances of every dirty cluster
+    private void refreshClusters(int start, int goal) {
+        this.start = start;
+        this.goal = goal;
+        for (int i = 0; i < dirtyCount; i++) {
+            for (int n : clusterNodes[dirtyClusters[i]])
+                placeTransitions(nodeRun[n]);
+        }
+        for (int i = 0; i < dirtyCount; i++)
+            computeClusterDistances(dirtyClusters[i]);
+        dirtyCount = 0;
+    }
+
+    // A* over the entrances, from the start node to the goal node
+    private boolean searchAbstract() {
+        nextGeneration();
+        openList.clear();
+
+        int startCluster = clusterOf(start);
+        int goalCluster = clusterOf(goal);
+        nodeCell[startNode] = start;
+        nodeCluster[startNode] = startCluster;
+        nodeCell[goalNode] = goal;
+        nodeCluster[goalNode] = goalCluster;
+
+        // distances from the start and the goal to the entrances of their clusters
+        localSearch(startCluster, start);
+        int[] startEntrances = clusterNodes[startCluster];
+        for (int i = 0; i < startEntrances.length; i++)
+            startDistances[i] = nodeDistance(startCluster, startEntrances[i]);
+        int direct = startCluster == goalCluster ? localDistance(startCluster, goal) : INF;
+
+        localSearch(goalCluster, goal);
+        for (int n : clusterNodes[goalCluster])
+            goalDistances[n] = nodeDistance(goalCluster, n);
+        goalClusters[0] = goalCluster;
+        goalClusterCount = 1;
+
+        // like SearchEngine the goal can be stepped into even when it is a wall, but no
+        // entrance crosses a wall, so it is also reached from its open neighbours in
+        // the clusters next to it
+        if (grid.isWall(goal)) {
+            int goalX = goal / sizeY;
+            int goalY = goal % sizeY;
+            if (goalY + 1 < sizeY)
+                direct = addGoalNeighbour(goal + 1, startCluster, direct);
+            if (goalY - 1 >= 0)
+                direct = addGoalNeighbour(goal - 1, startCluster, direct);
+            if (goalX + 1 < sizeX)
+                direct = addGoalNeighbour(goal + sizeY, startCluster, direct);
+            if (goalX - 1 >= 0)
+                direct = addGoalNeighbour(goal - sizeY, startCluster, direct);
+        }
+
+        g[startNode] = 0;
+        parent[startNode] = NONE;
+        visited[startNode] = generation;
+        openList.insertOrUpdate(startNode, heuristic(start), heuristic(start));
+
+        while (!openList.isEmpty()) {
+            int q = openList.poll();
+            if (q == goalNode) {
+                buildAbstractPath();
+                return true;
+            }
+            closed[q] = generation;
+
+            if (q == startNode) {
+                for (int i = 0; i < startEntrances.length; i++)
+                    relax(q, startEntrances[i], startDistances[i]);
+                relax(q, goalNode, direct);
+                continue;
+            }
+
+            // entrances of the same cluster
+            int cluster = nodeCluster[q];
+            int[] entrances = clusterNodes[cluster];
+            int[] distances = clusterDistances[cluster];
+            int row = nodeSlot[q] * entrances.length;
+            for (int i = 0; i < entrances.length; i++)
+                relax(q, entrances[i], distances[row + i]);
+
+            // crossing into the neighbouring cluster
+            relax(q, q ^ 1, 1);
+
+            if (reachesGoal(cluster))
+                relax(q, goalNode, goalDistances[q]);
+        }
+
+        return false;
+    }
+
+    // add the distances through an open neighbour of the goal in another cluster,
+    // returns the direct distance from the start with it
+    private int addGoalNeighbour(int neighbour, int startCluster, int direct) {
+        int cluster = clusterOf(neighbour);
+        if (cluster == goalClusters[0] || isBlocked(neighbour))
+            return direct;
+
+        if (!reachesGoal(cluster)) {
+            goalClusters[goalClusterCount++] = cluster;
+            for (int n : clusterNodes[cluster])
+                goalDistances[n] = INF;
+        }
+        localSearch(cluster, neighbour);
+        for (int n : clusterNodes[cluster])
+            goalDistances[n] = Math.min(goalDistances[n], nodeDistance(cluster, n) + 1);
+        if (cluster == startCluster)
+            direct = Math.min(direct, localDistance(cluster, start) + 1);
+        return direct;
+    }
+
+    private boolean reachesGoal(int cluster) {
+        for (int i = 0; i < goalClusterCount; i++) {
+            if (goalClusters[i] == cluster)
+                return true;
+        }
+        return false;
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    private void relax(int from, int to, int cost) {
+        if (cost >= INF || to == from || closed[to] == generation)
+            return;
+        if (to != goalNode && (nodeCell[to] == NONE || isBlocked(nodeCell[to])))
+            return;
+
+        int gNew = g[from] + cost;
+        if (visited[to] == generation && g[to] <= gNew)
+            return;
+
+        int h = heuristic(nodeCell[to]);
+        g[to] = gNew;
+        parent[to] = from;
+        visited[to] = generation;
+        openList.insertOrUpdate(to, gNew + h, h);
+    }
+
+    private void buildAbstractPath() {
+        int length = 0;
+        for (int n = goalNode; n != NONE; n = parent[n])
+            abstractPath[length++] = n;
+
+        // reverse into start -> goal order
+        for (int i = 0; i < length / 2; i++) {
+            int tmp = abstractPath[i];
+            abstractPath[i] = abstractPath[length - 1 - i];
+            abstractPath[length - 1 - i] = tmp;
+        }
+        abstractPathLength = length;
+    }
+
+    // turn the abstract path into cells, searching only the clusters it passes through
+    private boolean refine() {
+        for (int i = 1; i < abstractPathLength; i++) {
+            int from = nodeCell[abstractPath[i - 1]];
+            int to = nodeCell[abstractPath[i]];
+            int cluster = clusterOf(from);
+
+            if (cluster != clusterOf(to) && abstractPath[i] == goalNode) {
+                // a goal on a wall, entered from its nearest open neighbour in this cluster
+                localSearch(cluster, from);
+                int via = NONE;
+                for (int neighbour : new int[] { to + 1, to - 1, to + sizeY, to - sizeY }) {
+                    if (isNeighbour(to, neighbour) && clusterOf(neighbour) == cluster
+                            && (via == NONE || localDistance(cluster, neighbour) < localDistance(cluster, via)))
+                        via = neighbour;
+                }
+                if (via == NONE || !appendLocalPath(cluster, via))
+                    return false;
+                growPath(pathLength + 1);
+                path[pathLength++] = to;
+                continue;
+            }
+
+            if (cluster != clusterOf(to)) {
+                // inter-cluster edge, the cells are neighbours
+                growPath(pathLength + 1);
+                path[pathLength++] = to;
+                continue;
+            }
+
+            localSearch(cluster, from);
+            if (!appendLocalPath(cluster, to))
+                return false;
+        }
+        return true;
+    }
+
+    // append the steps of the last local search's path to a cell of its cluster
+    private boolean appendLocalPath(int cluster, int to) {
+        if (localDistance(cluster, to) >= INF) {
+            pathLength = 0;
+            return false;
+        }
+
+        // walk back from the target and write the steps in order
+        int steps = localDistance(cluster, to);
+        int end = pathLength + steps;
+        growPath(end);
+        int local = toLocal(cluster, to);
+        for (int k = end - 1; k >= pathLength; k--) {
+            path[k] = fromLocal(cluster, local);
+            local = localParent[local];
+        }
+        pathLength = end;
+        return true;
+    }
+
+    // room for length steps, keeping the ones already in the path
+    private void growPath(int length) {
+        if (path.length < length)
+            path = Arrays.copyOf(path, Math.max(length, path.length * 2));
+    }
+
+    private boolean isNeighbour(int cell, int other) {
+        if (other < 0 || other >= sizeX * sizeY)
+            return false;
+        return other == cell + sizeY || other == cell - sizeY || other / sizeY == cell / sizeY;
+    }
+
+    // cached distances between every pair of entrances of a cluster
+    private void computeClusterDistances(int cluster) {
+        int[] entrances = clusterNodes[cluster];
+        int[] distances = clusterDistances[cluster];
+        int k = entrances.length;
+
+        for (int i = 0; i < k; i++) {
+            if (nodeCell[entrances[i]] == NONE || isBlocked(nodeCell[entrances[i]])) {
+                Arrays.fill(distances, i * k, i * k + k, INF);
+                continue;
+            }
+            localSearch(cluster, nodeCell[entrances[i]]);
+            for (int j = 0; j < k; j++)
+                distances[i * k + j] = nodeDistance(cluster, entrances[j]);
+        }
+        dirty[cluster] = false;
+    }
+
+    // breadth first search from source, restricted to the cells of one cluster
+    private void localSearch(int cluster, int source) {
+        Arrays.fill(localDist, INF);
+
+        int head = 0;
+        int tail = 0;
+        int local = toLocal(cluster, source);
+        localDist[local] = 0;
+        localParent[local] = NONE;
+        queue[tail++] = source;
+
+        int minX = (cluster / clustersY) * clusterSize;
+        int minY = (cluster % clustersY) * clusterSize;
+        int maxX = Math.min(sizeX, minX + clusterSize);
+        int maxY = Math.min(sizeY, minY + clusterSize);
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell / sizeY;
+            int y = cell % sizeY;
+            int d = localDist[toLocal(cluster, cell)] + 1;
+
+            // same neighbour order as SearchEngine: up, down, right, left
+            if (y + 1 < maxY)
+                tail = visitLocal(cluster, cell, cell + 1, d, tail);
+            if (y - 1 >= minY)
+                tail = visitLocal(cluster, cell, cell - 1, d, tail);
+            if (x + 1 < maxX)
+                tail = visitLocal(cluster, cell, cell + sizeY, d, tail);
+            if (x - 1 >= minX)
+                tail = visitLocal(cluster, cell, cell - sizeY, d, tail);
+        }
+    }
+
+    private int visitLocal(int cluster, int from, int cell, int d, int tail) {
+        int local = toLocal(cluster, cell);
+        if (localDist[local] != INF)
+            return tail;
+
+        localDist[local] = d;
+        localParent[local] = toLocal(cluster, from);
+
+        // the goal can be reached but not walked through
+        if (cell != goal && !isBlocked(cell))
+            queue[tail++] = cell;
+        else if (cell != goal)
+            localDist[local] = INF;
+        return tail;
+    }
+
+    // distance from the last local search to a node, INF for switched off nodes
+    private int nodeDistance(int cluster, int node) {
+        if (nodeCell[node] == NONE)
+            return INF;
+        return localDistance(cluster, nodeCell[node]);
+    }
+
+    private int localDistance(int cluster, int cell) {
+        return localDist[toLocal(cluster, cell)];
+    }
+
+    private int toLocal(int cluster, int cell) {
+        int x = cell / sizeY - (cluster / clustersY) * clusterSize;
+        int y = cell % sizeY - (cluster % clustersY) * clusterSize;
+        return x * clusterSize + y;
+    }
+
+    private int fromLocal(int cluster, int local) {
+        int x = (cluster / clustersY) * clusterSize + local / clusterSize;
+        int y = (cluster % clustersY) * clusterSize + local % clusterSize;
+        return x * sizeY + y;
+    }
+
+    // walls and barbers block, Scandro's own cell does not
+    private boolean isBlocked(int cell) {
+        if (cell == start || cell == goal)
+            return false;
+        return !grid.isTraversable(cell, 0);
+    }
+
+    private boolean isWall(int x, int y) {
+        return grid.isWall(x * sizeY + y);
+    }
+
+    // record the run of open cell pairs across the border between (x, y) - (dx, dy)
+    // and (x, y) that starts at this cell, if one does
+    private void findEntrance(int x, int y, int dx, int dy, List<int[]> runs) {
+        // the border runs along x when crossing in y, and along y when crossing in x
+        int alongX = dy;
+        int alongY = dx;
+        if (!isOpenPair(x, y, dx, dy))
+            return;
+
+        int cluster = clusterOf(x * sizeY + y);
+        int px = x - alongX;
+        int py = y - alongY;
+        if (px >= 0 && py >= 0 && clusterOf(px * sizeY + py) == cluster && isOpenPair(px, py, dx, dy))
+            return;
+
+        // find the end of the run inside this cluster's border
+        int length = 1;
+        while (true) {
+            int nx = x + alongX * length;
+            int ny = y + alongY * length;
+            if (nx >= sizeX || ny >= sizeY || clusterOf(nx * sizeY + ny) != cluster || !isOpenPair(nx, ny, dx, dy))
+                break;
+            length++;
+        }
+
+        runs.add(new int[] { x * sizeY + y, alongX * sizeY + alongY, dx * sizeY + dy, length });
+    }
+
+    private boolean isOpenPair(int x, int y, int dx, int dy) {
+        return !isWall(x, y) && !isWall(x - dx, y - dy);
+    }
+
+    // room for the most transitions the run can need once barbers split it into
+    // shorter open pieces (every piece needs at least one cell and a gap)
+    private int transitionSlots(int run) {
+        return (runLength[run] + 1) / 2;
+    }
+
+    // split the run into its currently open pieces, give short pieces one transition
+    // in the middle and long ones one at each end. unused slots are switched off
+    private void placeTransitions(int run) {
+        int length = runLength[run];
+        int node = runFirstNode[run];
+        int end = runFirstNode[run + 1];
+
+        int k = 0;
+        while (k < length) {
+            if (!isOpenPair(run, k)) {
+                k++;
+                continue;
+            }
+
+            int first = k;
+            while (k < length && isOpenPair(run, k))
+                k++;
+            int pieceLength = k - first;
+
+            if (pieceLength < MAX_SINGLE_ENTRANCE) {
+                placeTransition(run, node, first + pieceLength / 2);
+                node += 2;
+            } else {
+                placeTransition(run, node, first);
+                placeTransition(run, node + 2, k - 1);
+                node += 4;
+            }
+        }
+
+        for (; node < end; node++)
+            nodeCell[node] = NONE;
+    }
+
+    private void placeTransition(int run, int node, int offset) {
+        int far = runCell[run] + offset * runStep[run];
+        nodeCell[node] = far - runCross[run];
+        nodeCell[node + 1] = far;
+    }
+
+    private boolean isOpenPair(int run, int offset) {
+        int far = runCell[run] + offset * runStep[run];
+        return !isBlocked(far) && !isBlocked(far - runCross[run]);
+    }
+
+    private int clusterOf(int cell) {
+        return (cell / sizeY / clusterSize) * clustersY + (cell % sizeY) / clusterSize;
+    }
+
+    private int heuristic(int cell) {
+        return Math.abs(cell / sizeY - goal / sizeY) + Math.abs(cell % sizeY - goal % sizeY);
+    }
+
+    @Override
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    @Override
+    public int getPathStep(int i) {
+        return path[i];
+    }
+}
@@ -0,0 +1,60 @@
+import java.util.Arrays;
+
+// distribution of non-negative values in power of two buckets (0, 1, 2-3, 4-7, ...),
+// so recording a value is a few instructions and never allocates. a percentile is
+// reported as the top of the bucket it falls in (at most the largest value
+// recorded), which is within 2x of the exact value
+public class Histogram {
+    private final long[] buckets = new long[64];
+    private long count;
+    private long sum;
+    private long max;
+
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+        buckets[64 - Long.numberOfLeadingZeros(value)]++;
+        count++;
+        sum += value;
+        if (value > max)
+            max = value;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    // value that the given fraction (eg. 0.99) of the recorded values are at most
+    public long getPercentile(double fraction) {
+        if (count == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int b = 0; b < buckets.length; b++) {
+            seen += buckets[b];
+            if (seen >= rank)
+                return Math.min(max, b == 0 ? 0 : (1L << b) - 1);
+        }
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(buckets, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+}
@@ -0,0 +1,259 @@
+import java.util.Arrays;
+
+// D* Lite planner. searches backwards from the goal and keeps its search tree
+// between calls, so when barbers move only the cells around the ones that
+// changed are repaired instead of planning from scratch.
+// moving into a cell costs 1 if the cell is traversable (or is the goal), and is
+// impossible otherwise, which gives the same path costs as SearchEngine on maps
+// without terrain or danger costs (it refuses maps with them)
+public class IncrementalPlanner implements Planner {
+    private static final int INF = Integer.MAX_VALUE / 4;
+
+    private final int sizeX;
+    private final int sizeY;
+    private final OccupancyGrid grid;
+
+    private final int[] g; // cost to goal from the last time the cell was expanded
+    private final int[] rhs; // one step look-ahead cost to goal
+    private final IndexedMinHeap openList; // keyed by (k1, k2)
+
+    private int start;
+    private int lastStart;
+    private int goal;
+    private int km; // key modifier, sum of heuristic distances the start has moved
+    private boolean initialized;
+    private int nodesExpanded;
+
+    private int[] path = new int[16];
+    private int pathLength;
+
+    public IncrementalPlanner(OccupancyGrid grid) {
+        if (grid.hasCosts())
+            throw new IllegalArgumentException(
+                    "the incremental planner counts every step as 1, the map has cells that cost more");
+        this.sizeX = grid.getSizeX();
+        this.sizeY = grid.getSizeY();
+        this.grid = grid;
+
+        int size = sizeX * sizeY;
+        this.g = new int[size];
+        this.rhs = new int[size];
+        this.openList = new IndexedMinHeap(size);
+    }
+
+    @Override
+    public boolean search(int start, int goal, int timestep) {
+        if (!initialized || goal != this.goal) {
+            initialize(start, goal);
+        } else {
+            km += heuristic(lastStart, start);
+            lastStart = start;
+            this.start = start;
+        }
+
+        nodesExpanded = 0;
+        computeShortestPath();
+        return buildPath();
+    }
+
+    // a cell's traversability changed, repair the cells that can step into it
+    @Override
+    public void cellChanged(int index) {
+        if (!initialized)
+            return;
+
+        int x = index / sizeY;
+        int y = index % sizeY;
+        if (y + 1 < sizeY)
+            updateVertex(index + 1);
+        if (y - 1 >= 0)
+            updateVertex(index - 1);
+        if (x + 1 < sizeX)
+            updateVertex(index + sizeY);
+        if (x - 1 >= 0)
+            updateVertex(index - sizeY);
+    }
+
+    private void initialize(int start, int goal) {
+        Arrays.fill(g, INF);
+        Arrays.fill(rhs, INF);
+        openList.clear();
+
+        this.start = start;
+        this.lastStart = start;
+        this.goal = goal;
+        this.km = 0;
+        this.initialized = true;
+
+        rhs[goal] = 0;
+        openList.insertOrUpdate(goal, heuristic(start, goal), 0);
+    }
+
+    private void computeShortestPath() {
+        while (!openList.isEmpty()) {
+            int u = openList.peek();
+            long oldK1 = openList.primaryKey(u);
+            int oldK2 = openList.secondaryKey(u);
+
+            // stop once the start is consistent and nothing left can improve it
+            int startMin = Math.min(g[start], rhs[start]);
+            int startK1 = add(startMin, heuristic(start, start) + km);
+            if (!keyLess(oldK1, oldK2, startK1, startMin) && rhs[start] == g[start])
+                break;
+
+            int uMin = Math.min(g[u], rhs[u]);
+            int newK1 = add(uMin, heuristic(start, u) + km);
+
+            if (keyLess(oldK1, oldK2, newK1, uMin)) {
+                // key is out of date because the start moved
+                openList.insertOrUpdate(u, newK1, uMin);
+            } else if (g[u] > rhs[u]) {
+                // overconsistent, lock in the new lower cost
+                nodesExpanded++;
+                g[u] = rhs[u];
+                openList.remove(u);
+                updatePredecessors(u);
+            } else {
+                // underconsistent, the cell got more expensive
+                nodesExpanded++;
+                g[u] = INF;
+                updateVertex(u);
+                updatePredecessors(u);
+            }
+        }
+    }
+
+    private void updatePredecessors(int u) {
+        int x = u / sizeY;
+        int y = u % sizeY;
+        if (y + 1 < sizeY)
+            updateVertex(u + 1);
+        if (y - 1 >= 0)
+            updateVertex(u - 1);
+        if (x + 1 < sizeX)
+            updateVertex(u + sizeY);
+        if (x - 1 >= 0)
+            updateVertex(u - sizeY);
+    }
+
+    private void updateVertex(int u) {
+        if (u != goal)
+            rhs[u] = bestSuccessorCost(u);
+
+        if (g[u] != rhs[u]) {
+            int uMin = Math.min(g[u], rhs[u]);
+            openList.insertOrUpdate(u, add(uMin, heuristic(start, u) + km), uMin);
+        } else {
+            openList.remove(u);
+        }
+    }
+
+    // min over the 4 successors s of cost(u, s) + g(s)
+    private int bestSuccessorCost(int u) {
+        int x = u / sizeY;
+        int y = u % sizeY;
+        int best = INF;
+        if (y + 1 < sizeY)
+            best = Math.min(best, stepCost(u + 1));
+        if (y - 1 >= 0)
+            best = Math.min(best, stepCost(u - 1));
+        if (x + 1 < sizeX)
+            best = Math.min(best, stepCost(u + sizeY));
+        if (x - 1 >= 0)
+            best = Math.min(best, stepCost(u - sizeY));
+        return best;
+    }
+
+    // cost of stepping into s and then following s's cost to the goal
+    private int stepCost(int s) {
+        if (!canEnter(s))
+            return INF;
+        return add(g[s], 1);
+    }
+
+    private boolean canEnter(int index) {
+        if (index == goal)
+            return true;
+
+        // Scandro's own cell is only ever the start, so it does not block anything
+        return grid.isTraversable(index, 0);
+    }
+
+    // follow the cheapest successors from the start to the goal
+    private boolean buildPath() {
+        pathLength = 0;
+        if (g[start] >= INF)
+            return false;
+
+        int current = start;
+        while (current != goal) {
+            int x = current / sizeY;
+            int y = current % sizeY;
+            int next = -1;
+            int best = INF;
+
+            // same neighbour order as SearchEngine: up, down, right, left
+            if (y + 1 < sizeY && stepCost(current + 1) < best) {
+                best = stepCost(current + 1);
+                next = current + 1;
+            }
+            if (y - 1 >= 0 && stepCost(current - 1) < best) {
+                best = stepCost(current - 1);
+                next = current - 1;
+            }
+            if (x + 1 < sizeX && stepCost(current + sizeY) < best) {
+                best = stepCost(current + sizeY);
+                next = current + sizeY;
+            }
+            if (x - 1 >= 0 && stepCost(current - sizeY) < best) {
+                best = stepCost(current - sizeY);
+                next = current - sizeY;
+            }
+
+            // a path can't visit a cell twice, so a longer walk went round in circles
+            if (next == -1 || pathLength == sizeX * sizeY) {
+                pathLength = 0;
+                return false;
+            }
+            if (pathLength == path.length)
+                path = Arrays.copyOf(path, path.length * 2);
+            path[pathLength++] = next;
+            current = next;
+        }
+        return true;
+    }
+
+    private int heuristic(int a, int b) {
+        return Math.abs(a / sizeY - b / sizeY) + Math.abs(a % sizeY - b % sizeY);
+    }
+
+    // addition that saturates at INF
+    private static int add(int a, int b) {
+        if (a >= INF || b >= INF)
+            return INF;
+        return Math.min(INF, a + b);
+    }
+
+    private static boolean keyLess(long k1, int k2, long otherK1, int otherK2) {
+        if (k1 != otherK1)
+            return k1 < otherK1;
+        return k2 < otherK2;
+    }
+
+    // cells whose cost was locked in or raised by the last search, only the cells
+    // around what changed since the search before it
+    @Override
+    public int getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    @Override
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    @Override
+    public int getPathStep(int i) {
+        return path[i];
+    }
+}
@@ -0,0 +1,171 @@
+import java.util.Arrays;
+
+// binary min-heap of grid indices (x * sizeY + y) with O(log n) insert, poll and
+// decrease-key. entries are ordered by primary key, ties are broken on the
+// secondary key (for A* that is f, then h so nodes closer to the goal come first).
+// the primary key is a long, so a weighted f (see SearchEngine) can't overflow.
+// the keys are kept next to their entry in heap order, and the slot arrays only
+// grow as far as the heap does: a heap costs 4 bytes per index plus 16 per entry
+// that was queued at once, which for a search is far less than one per cell
+public class IndexedMinHeap {
+    private final int capacity;
+    private final int[] pos; // pos[index] = heap slot of index, or -1 when not queued
+    private int[] heap; // heap[i] = grid index stored at heap slot i
+    private long[] primary; // primary[i] = primary key of the entry at slot i
+    private int[] secondary;
+    private int size;
+    private int peakSize; // largest size since the last clear
+
+    public IndexedMinHeap(int capacity) {
+        this.capacity = capacity;
+        int slots = Math.min(capacity, 16);
+        heap = new int[slots];
+        pos = new int[capacity];
+        primary = new long[slots];
+        secondary = new int[slots];
+        Arrays.fill(pos, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getPeakSize() {
+        return peakSize;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int index) {
+        return pos[index] != -1;
+    }
+
+    // keys of a queued index
+    public long primaryKey(int index) {
+        return primary[pos[index]];
+    }
+
+    public int secondaryKey(int index) {
+        return secondary[pos[index]];
+    }
+
+    // index with the lowest key, without removing it
+    public int peek() {
+        return heap[0];
+    }
+
+    // add index to the heap, or move it to its new keys if it is already queued
+    // (keys may go up or down)
+    public void insertOrUpdate(int index, long primaryKey, int secondaryKey) {
+        int slot = pos[index];
+        if (slot == -1) {
+            if (size == heap.length)
+                grow();
+            slot = size++;
+            siftUp(slot, index, primaryKey, secondaryKey);
+            if (size > peakSize)
+                peakSize = size;
+        } else if (less(primaryKey, secondaryKey, primary[slot], secondary[slot])) {
+            siftUp(slot, index, primaryKey, secondaryKey);
+        } else {
+            siftDown(slot, index, primaryKey, secondaryKey);
+        }
+    }
+
+    // remove and return the index with the lowest key
+    public int poll() {
+        int top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    public void remove(int index) {
+        int slot = pos[index];
+        if (slot != -1)
+            removeAt(slot);
+    }
+
+    // empty the heap, only touching the entries that are still queued
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[heap[i]] = -1;
+        }
+        size = 0;
+        peakSize = 0;
+    }
+
+    private void grow() {
+        int slots = (int) Math.min(capacity, 2L * heap.length);
+        heap = Arrays.copyOf(heap, slots);
+        primary = Arrays.copyOf(primary, slots);
+        secondary = Arrays.copyOf(secondary, slots);
+    }
+
+    private void removeAt(int slot) {
+        pos[heap[slot]] = -1;
+        size--;
+
+        if (slot == size)
+            return;
+
+        // move last entry into the hole and restore heap order
+        int last = heap[size];
+        long lastPrimary = primary[size];
+        int lastSecondary = secondary[size];
+        int parentSlot = (slot - 1) >>> 1;
+        if (slot > 0 && less(lastPrimary, lastSecondary, primary[parentSlot], secondary[parentSlot]))
+            siftUp(slot, last, lastPrimary, lastSecondary);
+        else
+            siftDown(slot, last, lastPrimary, lastSecondary);
+    }
+
+    private static boolean less(long primaryA, int secondaryA, long primaryB, int secondaryB) {
+        if (primaryA != primaryB)
+            return primaryA < primaryB;
+        return secondaryA < secondaryB;
+    }
+
+    // put index with its keys in the hole at slot, moving it up towards the root
+    private void siftUp(int slot, int index, long primaryKey, int secondaryKey) {
+        while (slot > 0) {
+            int parentSlot = (slot - 1) >>> 1;
+            if (!less(primaryKey, secondaryKey, primary[parentSlot], secondary[parentSlot]))
+                break;
+            move(parentSlot, slot);
+            slot = parentSlot;
+        }
+        set(slot, index, primaryKey, secondaryKey);
+    }
+
+    // put index with its keys in the hole at slot, moving it down towards the leaves
+    private void siftDown(int slot, int index, long primaryKey, int secondaryKey) {
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && less(primary[right], secondary[right], primary[child], secondary[child]))
+                child = right;
+            if (!less(primary[child], secondary[child], primaryKey, secondaryKey))
+                break;
+            move(child, slot);
+            slot = child;
+        }
+        set(slot, index, primaryKey, secondaryKey);
+    }
+
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        primary[to] = primary[from];
+        secondary[to] = secondary[from];
+        pos[heap[to]] = to;
+    }
+
+    private void set(int slot, int index, long primaryKey, int secondaryKey) {
+        heap[slot] = index;
+        primary[slot] = primaryKey;
+        secondary[slot] = secondaryKey;
+        pos[index] = slot;
+    }
+}
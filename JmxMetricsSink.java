@@ -0,0 +1,36 @@
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// makes a SearchMetrics' totals readable over JMX (eg. in jconsole) while the
+// simulation runs, as astar:type=SearchMetrics,name=<name>. the totals are read
+// straight from the metrics, so nothing is done per timestep. the bean is removed
+// when the run is over
+public class JmxMetricsSink implements MetricsSink {
+    private final MBeanServer server;
+    private final ObjectName objectName;
+
+    public JmxMetricsSink(SearchMetrics metrics, String name) {
+        this.server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            this.objectName = new ObjectName("astar:type=SearchMetrics,name=" + ObjectName.quote(name));
+            server.registerMBean(metrics, objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("could not register the search metrics: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void timestep(SearchMetrics metrics) {
+    }
+
+    @Override
+    public void finish(SearchMetrics metrics) {
+        try {
+            server.unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("could not unregister the search metrics: " + e.getMessage(), e);
+        }
+    }
+}
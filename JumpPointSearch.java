@@ -0,0 +1,292 @@
+import java.util.Arrays;
+
+// Jump Point Search for 4-connected grids with uniform step cost.
+// among all shortest paths only "canonical" ones are searched: vertical moves are
+// made as early as possible, so after a horizontal move Scandro may only turn
+// vertically when the cell diagonally behind him blocked an earlier turn (a forced
+// neighbour). straight runs without such decisions are jumped over instead of
+// being pushed onto the open list one cell at a time, which gives the same path
+// lengths as SearchEngine with far fewer expansions on open maps.
+// horizontal jumps read the OccupancyGrid a word (64 cells) at a time
+public class JumpPointSearch implements Planner {
+    private static final int NONE = -1;
+
+    private final int sizeX;
+    private final int sizeY;
+    private final OccupancyGrid grid;
+    private final int wordsPerRow;
+
+    private final int[] g;
+    private final int[] parent;
+    private final int[] visited; // generation in which g and parent were last written
+    private final int[] closed; // generation in which the jump point was closed
+    private int generation;
+    private final IndexedMinHeap openList;
+    private int nodesExpanded;
+    private int decreaseKeys;
+
+    private int start;
+    private int goal;
+    // row, word and bit of the start and goal, patched into the words of the grid
+    private int startX;
+    private int startWord;
+    private long startBit;
+    private int goalX;
+    private int goalWord;
+    private long goalBit;
+
+    private int[] path = new int[16];
+    private int pathLength;
+
+    public JumpPointSearch(OccupancyGrid grid) {
+        if (grid.hasCosts())
+            throw new IllegalArgumentException(
+                    "jump point search counts every step as 1, the map has cells that cost more");
+        this.sizeX = grid.getSizeX();
+        this.sizeY = grid.getSizeY();
+        this.grid = grid;
+        this.wordsPerRow = grid.getWordsPerRow();
+
+        int size = sizeX * sizeY;
+        this.g = new int[size];
+        this.parent = new int[size];
+        this.visited = new int[size];
+        this.closed = new int[size];
+        this.openList = new IndexedMinHeap(size);
+    }
+
+    @Override
+    public boolean search(int start, int goal, int timestep) {
+        nextGeneration();
+        openList.clear();
+        pathLength = 0;
+        nodesExpanded = 0;
+        decreaseKeys = 0;
+        this.start = start;
+        this.goal = goal;
+        startX = start / sizeY;
+        startWord = (start % sizeY) >>> 6;
+        startBit = 1L << (start % sizeY);
+        goalX = goal / sizeY;
+        goalWord = (goal % sizeY) >>> 6;
+        goalBit = 1L << (goal % sizeY);
+
+        g[start] = 0;
+        parent[start] = NONE;
+        visited[start] = generation;
+        openList.insertOrUpdate(start, heuristic(start), heuristic(start));
+
+        while (!openList.isEmpty()) {
+            int q = openList.poll();
+            if (q == goal) {
+                buildPath();
+                return true;
+            }
+
+            closed[q] = generation;
+            nodesExpanded++;
+
+            int qX = q / sizeY;
+            int qY = q % sizeY;
+            int p = parent[q];
+
+            if (p == NONE) {
+                // the start has no direction yet, so every direction is natural
+                jumpFrom(q, 0, 1);
+                jumpFrom(q, 0, -1);
+                jumpFrom(q, 1, 0);
+                jumpFrom(q, -1, 0);
+            } else if (p / sizeY == qX) {
+                // reached horizontally (along y): keep going, or turn where forced
+                int dy = qY > p % sizeY ? 1 : -1;
+                jumpFrom(q, 0, dy);
+                if (isForced(qX, qY, 1, dy))
+                    jumpFrom(q, 1, 0);
+                if (isForced(qX, qY, -1, dy))
+                    jumpFrom(q, -1, 0);
+            } else {
+                // reached vertically (along x): keep going or turn either way
+                int dx = qX > p / sizeY ? 1 : -1;
+                jumpFrom(q, dx, 0);
+                jumpFrom(q, 0, 1);
+                jumpFrom(q, 0, -1);
+            }
+        }
+
+        return false;
+    }
+
+    // jump from q in a direction and queue the jump point it lands on, if any
+    private void jumpFrom(int q, int dx, int dy) {
+        int next = dx == 0 ? jumpHorizontal(q / sizeY, q % sizeY, dy) : jumpVertical(q / sizeY, q % sizeY, dx);
+        if (next == NONE || closed[next] == generation)
+            return;
+
+        int gNew = g[q] + Math.abs(next / sizeY - q / sizeY) + Math.abs(next % sizeY - q % sizeY);
+        if (visited[next] == generation) {
+            if (g[next] <= gNew)
+                return;
+            decreaseKeys++;
+        }
+
+        int h = heuristic(next);
+        g[next] = gNew;
+        parent[next] = q;
+        visited[next] = generation;
+        openList.insertOrUpdate(next, gNew + h, h);
+    }
+
+    // move along y until the goal or a cell with a forced vertical neighbour.
+    // a whole word of the row is checked at once: a cell is forced when its cell in
+    // the row beside is open and the one before that (one step back along y) is
+    // blocked, so shifting the beside row's word by one cell lines the two up
+    private int jumpHorizontal(int x, int y, int dy) {
+        int w = y >>> 6;
+        if (dy > 0) {
+            // the carries hold the last cell of the previous word, which the first
+            // word's mask never needs
+            long mask = -2L << (y & 63); // cells after y
+            long rightCarry = 0;
+            long leftCarry = 0;
+            for (; w < wordsPerRow; w++) {
+                long row = blockedWord(x, w);
+                long right = blockedWord(x + 1, w);
+                long left = blockedWord(x - 1, w);
+                long forced = ~right & (right << 1 | rightCarry) | ~left & (left << 1 | leftCarry);
+                long events = (row | forced | goalBit(x, w)) & mask;
+                if (events != 0)
+                    return jumpPoint(x, (w << 6) + Long.numberOfTrailingZeros(events), row);
+
+                rightCarry = right >>> 63;
+                leftCarry = left >>> 63;
+                mask = -1L;
+            }
+        } else {
+            long mask = (1L << (y & 63)) - 1; // cells before y
+            long rightCarry = 0;
+            long leftCarry = 0;
+            for (; w >= 0; w--) {
+                long row = blockedWord(x, w);
+                long right = blockedWord(x + 1, w);
+                long left = blockedWord(x - 1, w);
+                long forced = ~right & (right >>> 1 | rightCarry) | ~left & (left >>> 1 | leftCarry);
+                long events = (row | forced | goalBit(x, w)) & mask;
+                if (events != 0)
+                    return jumpPoint(x, (w << 6) + 63 - Long.numberOfLeadingZeros(events), row);
+
+                rightCarry = right << 63;
+                leftCarry = left << 63;
+                mask = -1L;
+            }
+        }
+        return NONE;
+    }
+
+    // the first cell along a horizontal jump that is the goal, blocked or forced.
+    // the goal is never blocked in row, and y may be past the end of the row
+    private int jumpPoint(int x, int y, long row) {
+        if ((row & (1L << y)) != 0)
+            return NONE;
+        return x * sizeY + y;
+    }
+
+    // blocked cells of word w of row x as isBlocked reports them, everything is
+    // blocked outside the map
+    private long blockedWord(int x, int w) {
+        long word = grid.blockedWord(x, w);
+        if (x == startX && w == startWord)
+            word |= startBit;
+        if (x == goalX && w == goalWord)
+            word &= ~goalBit;
+        return word;
+    }
+
+    private long goalBit(int x, int w) {
+        return x == goalX && w == goalWord ? goalBit : 0;
+    }
+
+    // move along x until the goal or a cell from which a horizontal jump finds something
+    private int jumpVertical(int x, int y, int dx) {
+        while (true) {
+            x += dx;
+            if (x < 0 || x >= sizeX)
+                return NONE;
+
+            int index = x * sizeY + y;
+            if (index == goal)
+                return index;
+            if (isBlocked(x, y))
+                return NONE;
+            if (jumpHorizontal(x, y, 1) != NONE || jumpHorizontal(x, y, -1) != NONE)
+                return index;
+        }
+    }
+
+    // after moving along y by dy onto (x, y), turning by dx is only canonical when
+    // the same turn one cell earlier was blocked
+    private boolean isForced(int x, int y, int dx, int dy) {
+        int turnX = x + dx;
+        if (turnX < 0 || turnX >= sizeX)
+            return false;
+        return !isBlocked(turnX, y) && isBlocked(turnX, y - dy);
+    }
+
+    private boolean isBlocked(int x, int y) {
+        if (x < 0 || x >= sizeX || y < 0 || y >= sizeY)
+            return true;
+        int index = x * sizeY + y;
+        return index != goal && (index == start || !grid.isTraversable(index, 0));
+    }
+
+    private int heuristic(int index) {
+        return Math.abs(index / sizeY - goal / sizeY) + Math.abs(index % sizeY - goal % sizeY);
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    // fill in the straight runs between jump points, in start -> goal order
+    private void buildPath() {
+        pathLength = g[goal];
+        int length = pathLength;
+        if (path.length < length)
+            path = new int[Math.max(length, path.length * 2)];
+        for (int c = goal; c != start; c = parent[c]) {
+            int p = parent[c];
+            int step = p / sizeY == c / sizeY ? (c > p ? 1 : -1) : (c > p ? sizeY : -sizeY);
+            for (int cell = c; cell != p; cell -= step)
+                path[--length] = cell;
+        }
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    @Override
+    public int getOpenListPeak() {
+        return openList.getPeakSize();
+    }
+
+    @Override
+    public int getDecreaseKeys() {
+        return decreaseKeys;
+    }
+
+    @Override
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    @Override
+    public int getPathStep(int i) {
+        return path[i];
+    }
+}
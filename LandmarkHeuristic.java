@@ -0,0 +1,100 @@
+import java.util.Arrays;
+
+// ALT heuristic: the steps around the walls from a few landmark cells to every cell
+// are found once per map, and by the triangle inequality a path from a cell to the
+// goal is at least |d(landmark, goal) - d(landmark, cell)| steps for every landmark.
+// unlike GoalDistanceHeuristic this works for any goal without another search, at
+// 2 bytes per cell per landmark. landmarks are picked far apart (each one the cell
+// farthest from those already picked), which is where the bound is tightest.
+// barbers are left out like in GoalDistanceHeuristic, and walls must not change
+public class LandmarkHeuristic implements Heuristic {
+    private final int sizeY;
+    private final int[] landmarks;
+    private final char[][] distances; // per landmark, see GoalDistanceHeuristic.breadthFirst
+
+    public LandmarkHeuristic(OccupancyGrid grid, int count) {
+        int size = grid.getSizeX() * grid.getSizeY();
+        this.sizeY = grid.getSizeY();
+
+        // start from the cell farthest from the map's goal (or the first open cell when
+        // there is none), then keep adding the cell farthest from every landmark so
+        // far. landmarks only help inside the area they can reach, so this covers the
+        // area the goal is in
+        int[] queue = new int[size];
+        char[] scratch = new char[size];
+        int[] nearest = new int[size]; // distance to the nearest landmark
+        int first = grid.getGoal();
+        if (first < 0) {
+            first = 0;
+            while (first < size && grid.isWall(first))
+                first++;
+        }
+        if (first == size) {
+            this.landmarks = new int[0];
+            this.distances = new char[0][];
+            return;
+        }
+        GoalDistanceHeuristic.breadthFirst(grid, first, scratch, queue);
+        int next = farthest(scratch, null);
+
+        int[] picked = new int[count];
+        char[][] fields = new char[count][];
+        int found = 0;
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+        while (found < count && next != -1) {
+            char[] field = new char[size];
+            GoalDistanceHeuristic.breadthFirst(grid, next, field, queue);
+            picked[found] = next;
+            fields[found] = field;
+            found++;
+
+            for (int i = 0; i < size; i++) {
+                if (field[i] != GoalDistanceHeuristic.UNREACHED)
+                    nearest[i] = Math.min(nearest[i], field[i]);
+            }
+            next = farthest(field, nearest);
+        }
+
+        this.landmarks = Arrays.copyOf(picked, found);
+        this.distances = Arrays.copyOf(fields, found);
+    }
+
+    // the reached cell farthest from the landmarks picked so far (or from the search
+    // in field when there are none), -1 when every reached cell is a landmark
+    private static int farthest(char[] field, int[] nearest) {
+        int best = -1;
+        int bestDistance = 0;
+        for (int i = 0; i < field.length; i++) {
+            if (field[i] == GoalDistanceHeuristic.UNREACHED)
+                continue;
+            int d = nearest == null ? field[i] : nearest[i];
+            if (d > bestDistance) {
+                best = i;
+                bestDistance = d;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int estimate(int index, int goal) {
+        int h = Math.abs(index / sizeY - goal / sizeY) + Math.abs(index % sizeY - goal % sizeY);
+        for (char[] d : distances) {
+            char toCell = d[index];
+            char toGoal = d[goal];
+            // a landmark that cannot reach both says nothing about the pair
+            if (toCell == GoalDistanceHeuristic.UNREACHED || toGoal == GoalDistanceHeuristic.UNREACHED)
+                continue;
+            h = Math.max(h, Math.abs(toGoal - toCell));
+        }
+        return h;
+    }
+
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    public int getLandmark(int i) {
+        return landmarks[i];
+    }
+}
@@ -1,496 +1,595 @@
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Scanner;
+import java.io.IOException;
+import java.util.Arrays;
 
 public class LevelMap {
     private static final boolean DEBUG_MODE = false;
+    private static final String SPACE_TIME_NEEDS_SCHEDULE = "the space_time search mode plans against the whole "
+            + "barber schedule, which a barber source read while the simulation runs does not know";
+    private static final String REPEAT_NEEDS_SCHEDULE = "only a barber schedule known up front can be repeated, "
+            + "not a barber source read while the simulation runs";
     private int currentTimestep;
 
     private int sizeX;
     private int sizeY;
 
-    private Cell[][] cells;
-    private Map<Integer, List<Cell>> barbers; // map with key = timestamp, value is locations of barbers
-    private List<Cell> walls;
-    private Cell scandro; // location of Scandro
-    private Cell start; // location of start
-    private Cell end; // location of end
+    private OccupancyGrid grid;
+    private BarberSchedule barbers; // whole barber schedule when it is known up front
+    private BarberSource barberSource; // where each timestep's barbers come from
+    private boolean streamed; // true when barberSource was set, and the schedule is not known in advance
+    private boolean repeatBarbers; // the schedule starts over after its last timestep
+    private int[] placedBarbers = new int[16]; // barbers currently on the grid, sorted, no repeats
+    private int placedBarberCount;
+    private int[] nextBarbers = new int[16]; // the barbers being placed
+    private DangerZones dangerZones; // null unless enabled with setDangerZones
+    private int scandro; // location of Scandro
+    private int start; // location of start
+    private int end; // location of end
     private boolean pathNotFound;
+    private int[] path = new int[16]; // path Scandro is on, copied from the planner
+    private int pathLength;
+    private int pathPosition; // next step of the path to take
+    private int lookahead; // steps of the path checked before following it, 0 to replan every timestep
+    private boolean searched; // the current timestep searched for a path
+    private Planner planner;
+    private SearchMode searchMode;
+    private PathCache pathCache; // null unless enabled with setPathCache
+    private Heuristic heuristic; // null for manhattan distance
+    private double epsilon = 0.5; // how much longer than the shortest the weighted and focal paths may be
+    private SearchMetrics metrics; // null unless enabled with setMetrics
+    private Renderer renderer; // null for a BufferedRenderer on System.out
+
+    // load a map file, see MapLoader for the format
+    static LevelMap fromFile(String path) throws IOException {
+        MapData data = MapLoader.loadMap(path);
+        int sizeY = data.getSizeY();
+
+        int[] walls = new int[data.getWallCount()];
+        for (int i = 0; i < walls.length; i++)
+            walls[i] = data.getWall(i);
 
-    static LevelMap fromFile(String path) {
-        File file = new File(path);
-        int sizeX = 0;
-        int sizeY = 0;
-        Cell start = null;
-        Cell end = null;
-        List<Cell> walls = new ArrayList<Cell>();
-
-        try {
-            // read entire file
-            Scanner sc = new Scanner(file);
-            String c;
-            int x, y;
-            while (sc.hasNextLine()) {
-
-                c = sc.next();
-
-                // to get map size
-                if (c.equals("M")) {
-                    sizeY = sc.nextInt();
-                    sizeX = sc.nextInt();
-                }
-
-                // to get starting cell
-                else if (c.equals("S")) {
-                    y = sc.nextInt();
-                    x = sc.nextInt();
-                    start = new Cell(x, y);
-                    start.setStart(true);
-                }
-                // to get goal cell
-                else if (c.equals("G")) {
-                    y = sc.nextInt();
-                    x = sc.nextInt();
-                    end = new Cell(x, y);
-                    end.setGoal(true);
-                }
-                // to get walls
-                else if (c.equals("W")) {
-                    y = sc.nextInt();
-                    x = sc.nextInt();
-                    Cell cell = new Cell(x, y);
-                    cell.setOccupant(Entity.WALL);
-                    walls.add(cell);
-                } else if (c.equals("E")) {
-                    break;
-                }
-            }
+        if (DEBUG_MODE)
+            System.out.println("Data successfully read from map file...");
+
+        LevelMap map = new LevelMap(data.getSizeX(), sizeY, data.getStart(), data.getGoal(), walls);
+        for (int i = 0; i < data.getCostCount(); i++)
+            map.grid.setCost(data.getCostCell(i), data.getCost(i));
+        return map;
+    }
 
-            sc.close();
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-            System.exit(1);
+    // open a binary map file (see BinaryMap). the barbers of each timestep are read
+    // from the file when they are placed, so the schedule is never loaded as a whole
+    static LevelMap fromBinaryFile(String path) throws IOException {
+        BinaryMap binary = BinaryMap.open(path);
+        int sizeX = binary.getSizeX();
+        int sizeY = binary.getSizeY();
+
+        LevelMap map = new LevelMap(sizeX, sizeY, binary.getStart(), binary.getGoal(), new int[0]);
+        for (int i = 0; i < sizeX * sizeY; i += 64) {
+            for (long word = binary.wallWord(i); word != 0; word &= word - 1)
+                map.grid.setWall(i + Long.numberOfTrailingZeros(word), true);
         }
+        for (int i = 0; i < binary.getCostCount(); i++)
+            map.grid.setCost(binary.getCostCell(i), binary.getCost(i));
+        map.barbers = binary;
+        map.barberSource = new ScheduleBarberSource(binary);
+        return map;
+    }
 
-        if (DEBUG_MODE)
-            System.out.println("Data successfully read from map file...");
+    // a map made by a MapGenerator, with its barbers taken from
+    // generator.barberSource (see setBarberSource)
+    static LevelMap fromGenerator(MapGenerator generator, int barbers, BarberPattern pattern) {
+        int sizeX = generator.getSizeX();
+        int sizeY = generator.getSizeY();
 
-        return new LevelMap(sizeX, sizeY, start, end, walls);
+        LevelMap map = new LevelMap(sizeX, sizeY, generator.getStart(), generator.getGoal(), new int[0]);
+        for (int index = 0; index < sizeX * sizeY; index++) {
+            if (generator.isWall(index))
+                map.grid.setWall(index, true);
+        }
+        map.setBarberSource(generator.barberSource(barbers, pattern));
+        return map;
     }
 
-    public LevelMap(int sizeX, int sizeY, Cell start, Cell end, List<Cell> walls) {
+    // start, end and walls given as grid indices (x * sizeY + y)
+    public LevelMap(int sizeX, int sizeY, int start, int end, int[] walls) {
         this.sizeX = sizeX;
         this.sizeY = sizeY;
         this.start = start;
         this.end = end;
-        this.walls = walls;
-        this.cells = new Cell[sizeX][sizeY];
+        this.grid = new OccupancyGrid(sizeX, sizeY);
+        this.barbers = BarberSchedule.EMPTY;
+        this.barberSource = new ScheduleBarberSource(barbers);
         this.currentTimestep = 0;
 
-        // initialize cell objects
-        for (int i = 0; i < sizeX; i++) {
-            for (int j = 0; j < sizeY; j++) {
-                cells[i][j] = new Cell(i, j);
-            }
-        }
-
         // set start, end cells
-        cells[start.x][start.y] = start;
-        cells[end.x][end.y] = end;
+        grid.setStart(this.start);
+        grid.setGoal(this.end);
 
         // set walls
-        for (Cell wall : walls) {
-            cells[wall.x][wall.y] = wall;
+        for (int wall : walls) {
+            grid.setWall(wall, true);
         }
 
+        setSearchMode(SearchMode.ASTAR);
+
         if (DEBUG_MODE)
             System.out.println("LevelMap successfully created...");
     }
 
-    // load the barber file (convert file data to Map<timestep, List<Cells>>)
-    public void addBarberFile(String path) {
-        File file = new File(path);
-        barbers = new HashMap<Integer, List<Cell>>();
+    public int getSizeX() {
+        return sizeX;
+    }
 
-        try {
-            // read entire file
-            Scanner sc = new Scanner(file);
-            int timestep, x, y;
-            while (sc.hasNextLine()) {
+    public int getSizeY() {
+        return sizeY;
+    }
 
-                // get timestep that a specific barber is at
-                timestep = sc.nextInt();
-                if (timestep == -1)
-                    break;
+    // immutable copy of the walls and barber schedule, for searching from many threads
+    public MapSnapshot snapshot() {
+        return MapSnapshot.of(grid, barbers);
+    }
 
-                // get location of the barber
-                y = sc.nextInt();
-                x = sc.nextInt();
+    // choose how Scandro's path is planned each timestep. only the astar, weighted
+    // and focal modes can plan on a map with terrain costs or soft danger zones
+    public void setSearchMode(SearchMode mode) {
+        checkCosts(mode, dangerZones != null && dangerZones.getSoftRadius() != 0);
+        if (mode == SearchMode.SPACE_TIME && streamed)
+            throw new IllegalArgumentException(SPACE_TIME_NEEDS_SCHEDULE);
+        searchMode = mode;
+        switch (mode) {
+            case INCREMENTAL:
+                planner = new IncrementalPlanner(grid);
+                break;
+            case HPA:
+                planner = new HierarchicalPlanner(grid);
+                break;
+            case JPS:
+                planner = new JumpPointSearch(grid);
+                break;
+            case BIDIRECTIONAL:
+                planner = new BidirectionalSearch(grid);
+                break;
+            case WEIGHTED:
+                SearchEngine weighted = new SearchEngine(grid);
+                weighted.setHeuristic(heuristic);
+                weighted.setWeight(1 + epsilon);
+                planner = weighted;
+                break;
+            case FOCAL:
+                planner = new FocalSearch(grid, epsilon);
+                break;
+            case SPACE_TIME:
+                // plans against the barber schedule, so the barber file must be loaded first.
+                // the danger zones on the grid are only of the current barbers, the planner
+                // keeps its distance from the barbers of each timestep it plans through
+                MapSnapshot snapshot = snapshot();
+                SpaceTimePlanner spaceTime = new SpaceTimePlanner(snapshot);
+                if (dangerZones != null)
+                    spaceTime.setDangerRadius(dangerZones.getRadius());
+                if (repeatBarbers)
+                    spaceTime.setPeriod(snapshot.getPeriod());
+                planner = spaceTime;
+                break;
+            case ASTAR:
+            default:
+                SearchEngine engine = new SearchEngine(grid);
+                engine.setHeuristic(heuristic);
+                planner = engine;
+                break;
+        }
 
-                // create cell
-                Cell barber = new Cell(x, y);
-                barber.setOccupant(Entity.BARBER);
+        // space_time plans the whole trip against the schedule, not the current grid
+        if (pathCache != null && mode != SearchMode.SPACE_TIME) {
+            pathCache.clear();
+            planner = new CachingPlanner(planner, pathCache);
+        }
+    }
 
-                // initialize list at timestep if it isn't already
-                if (!barbers.containsKey(timestep)) {
-                    List<Cell> list = new ArrayList<Cell>();
-                    barbers.put(timestep, list);
-                }
+    private void checkCosts(SearchMode mode, boolean softZones) {
+        if (!mode.usesCosts() && (grid.hasCosts() || softZones))
+            throw new IllegalArgumentException("the " + mode.toString().toLowerCase()
+                    + " search mode counts every step as 1, use astar, weighted or focal on a map with costs");
+    }
 
-                // append barber list in map at key=timestep
-                barbers.get(timestep).add(barber);
+    // reuse the paths of earlier timesteps while no barber has moved close enough to
+    // them to change them (see PathCache), keeping up to capacity paths.
+    // takes effect for the current search mode and any set after it
+    public void setPathCache(int capacity) {
+        pathCache = new PathCache(grid, capacity);
+        setSearchMode(searchMode);
+    }
 
-            }
-            sc.close();
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-            System.exit(2);
+    // estimate the distance to the goal in the astar and weighted search modes with a
+    // heuristic precomputed from the walls (see GoalDistanceHeuristic and
+    // LandmarkHeuristic), or null for the manhattan distance. the other modes keep
+    // their own estimates
+    public void setHeuristic(Heuristic heuristic) {
+        this.heuristic = heuristic;
+        setSearchMode(searchMode);
+    }
+
+    // paths of the weighted and focal search modes cost at most (1 + epsilon) times
+    // the cheapest, in exchange for expanding fewer cells
+    public void setEpsilon(double epsilon) {
+        if (!(epsilon >= 0))
+            throw new IllegalArgumentException("epsilon must be at least 0, not " + epsilon);
+        this.epsilon = epsilon;
+        setSearchMode(searchMode);
+    }
+
+    // keep Scandro radius steps away from every barber, and make the cells up to
+    // softRadius steps away costlier to step into (softCost one step past radius,
+    // less further out, see DangerZones). a softRadius or softCost of 0 adds no
+    // costs, and 0 for all three takes the zones away. only the astar, weighted and
+    // focal search modes use the costs
+    public void setDangerZones(int radius, int softRadius, int softCost) {
+        checkCosts(searchMode, softRadius > radius && softCost != 0);
+        if (dangerZones != null) {
+            for (int i = 0; i < placedBarberCount; i++)
+                dangerZones.remove(placedBarbers[i], planner);
         }
 
+        dangerZones = null;
+        if (radius != 0 || (softRadius != 0 && softCost != 0)) {
+            dangerZones = new DangerZones(grid, radius, softRadius, softCost);
+            for (int i = 0; i < placedBarberCount; i++)
+                dangerZones.add(placedBarbers[i], planner);
+        }
+
+        // the planner's search data and cached paths were made without the zones
+        setSearchMode(searchMode);
+    }
+
+    // the grid, to build a heuristic from its walls
+    public OccupancyGrid getGrid() {
+        return grid;
+    }
+
+    // the path cache and its hit, miss and eviction counters, or null
+    public PathCache getPathCache() {
+        return pathCache;
+    }
+
+    // keep following the last path while its next lookahead steps are open, and only
+    // search for a new one once a barber (or its danger zone) blocks one of them.
+    // 0 searches every timestep. the path is not checked for a shorter one, so a
+    // followed path can end up longer than a fresh one would be
+    public void setLookahead(int lookahead) {
+        if (lookahead < 0)
+            throw new IllegalArgumentException("lookahead must be at least 0, not " + lookahead);
+        this.lookahead = lookahead;
+    }
+
+    // record how every search and timestep goes (see SearchMetrics), or null to stop.
+    // the caller finishes the metrics once the run is over
+    public void setMetrics(SearchMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // how the map is drawn after every timestep, eg. Renderer.HEADLESS for no output.
+    // by default each frame is drawn into a buffer and written to System.out at once
+    public void setRenderer(Renderer renderer) {
+        this.renderer = renderer;
+    }
+
+    // load the barber file, see MapLoader for the format
+    public void addBarberFile(String path) throws IOException {
+        barbers = MapLoader.loadBarbers(path, sizeX, sizeY);
+        barberSource = new ScheduleBarberSource(barbers, repeatBarbers);
+        streamed = false;
+
         if (DEBUG_MODE)
             System.out.println("Barber file successfully loaded...");
     }
 
-    // sets the barbers locaitons for the current step
-    private void setBarbers() {
+    // take the barbers from a source that is read one timestep at a time while the
+    // simulation runs, instead of a barber file loaded up front. the caller closes
+    // the source. the schedule is not known in advance, so snapshot() no longer sees
+    // any barbers and the space_time mode is refused
+    public void setBarberSource(BarberSource source) {
+        if (searchMode == SearchMode.SPACE_TIME)
+            throw new IllegalArgumentException(SPACE_TIME_NEEDS_SCHEDULE);
+        if (repeatBarbers)
+            throw new IllegalArgumentException(REPEAT_NEEDS_SCHEDULE);
+        barbers = BarberSchedule.EMPTY;
+        barberSource = source;
+        streamed = true;
+    }
 
-        // remove old barbers
-        List<Cell> currentBarbers = barbers.get(currentTimestep - 1);
+    // play the barber schedule over and over, starting from its first timestep again
+    // after its last one, instead of the barbers leaving when it ends. the space_time
+    // mode then only searches each cell at each timestep of the shortest round the
+    // barbers repeat in (see MapSnapshot.getPeriod), not at every timestep up to the
+    // end of the schedule. set before the simulation starts
+    public void setRepeatBarbers(boolean repeat) {
+        if (repeat && streamed)
+            throw new IllegalArgumentException(REPEAT_NEEDS_SCHEDULE);
+        repeatBarbers = repeat;
+        barberSource = new ScheduleBarberSource(barbers, repeat);
+
+        // the space_time planner was made for the schedule played once
+        setSearchMode(searchMode);
+    }
 
-        // if barbers were found in the previous time step, remove them from grid
-        if ((currentBarbers == null)) {
-            if (DEBUG_MODE)
-                System.out.println("No barbers to remove from the previous step.");
-        } else {
-            for (Cell barber : currentBarbers) {
-                cells[barber.x][barber.y].removeOccupant();
-            }
+    // where the barbers come from, see setBarberSource
+    public BarberSource getBarberSource() {
+        return barberSource;
+    }
 
-            if (DEBUG_MODE)
-                System.out.println("Barbers removed from timestep " + (currentTimestep - 1));
-        }
+    // sets the barbers locaitons for the current step. only the barbers that moved
+    // are taken off or put on the grid (with their danger zones), so a barber
+    // standing still costs nothing
+    private void setBarbers() {
 
-        // get the list of barbers at current timestep
-        currentBarbers = barbers.get(currentTimestep);
-        if (currentBarbers == null) {
-            if (DEBUG_MODE)
-                System.out.println("No barbers at this timestep");
-            return;
+        // get the barbers at current timestep, sorted so they can be matched against
+        // the ones already placed
+        int count = 0;
+        if (barberSource.advance())
+            count = barberSource.count();
+        if (nextBarbers.length < count)
+            nextBarbers = new int[Math.max(count, nextBarbers.length * 2)];
+        for (int i = 0; i < count; i++)
+            nextBarbers[i] = barberSource.cell(i);
+        Arrays.sort(nextBarbers, 0, count);
+
+        // walk both sorted lists: a barber only in the placed ones left its cell, one
+        // only in the next ones arrived
+        int placed = 0;
+        int next = 0;
+        int nextCount = 0;
+        while (placed < placedBarberCount || next < count) {
+            int left = placed < placedBarberCount ? placedBarbers[placed] : Integer.MAX_VALUE;
+            int arrived = next < count ? nextBarbers[next] : Integer.MAX_VALUE;
+            if (left < arrived) {
+                removeBarber(left);
+                placed++;
+                continue;
+            }
+            if (arrived < left)
+                addBarber(arrived);
+            else
+                placed++;
+
+            // several barbers on one cell are placed once
+            nextBarbers[nextCount++] = arrived;
+            while (next < count && nextBarbers[next] == arrived)
+                next++;
         }
 
-        // add barbers to grid
-        for (Cell barber : currentBarbers) {
-            cells[barber.x][barber.y] = barber;
-        }
+        int[] swap = placedBarbers;
+        placedBarbers = nextBarbers;
+        nextBarbers = swap;
+        placedBarberCount = nextCount;
 
         if (DEBUG_MODE)
-            System.out.println("Barbers loaded for timestep " + currentTimestep);
+            System.out.println("Barbers placed for timestep " + currentTimestep);
+    }
+
+    private void addBarber(int barber) {
+        grid.setBarber(barber, true);
+        planner.cellChanged(barber);
+        if (dangerZones != null)
+            dangerZones.add(barber, planner);
+    }
+
+    private void removeBarber(int barber) {
+        grid.setBarber(barber, false);
+        planner.cellChanged(barber);
+        if (dangerZones != null)
+            dangerZones.remove(barber, planner);
     }
 
     // print the current map's state
     private void print() {
+        renderer().frame(this, currentTimestep);
+    }
 
-        // print current timestep
-        System.out.println("Step: " + currentTimestep);
+    // System.out is only looked up once something is printed, so it can be
+    // redirected before the run
+    private Renderer renderer() {
+        if (renderer == null)
+            renderer = new BufferedRenderer(System.out);
+        return renderer;
+    }
 
-        // print horizontal bar above
-        System.out.println("-".repeat(cells[0].length * 2 + 3));
+    // how a cell is displayed in the console, an occupant shows over the start,
+    // goal and path markers
+    char display(int index) {
+        if (grid.hasBarber(index))
+            return 'B';
+        if (grid.isWall(index))
+            return 'W';
+        if (grid.hasAgent(index))
+            return 'S';
+        if (index == end)
+            return 'G';
+        if (index == start)
+            return 'X';
+        if (grid.isPath(index))
+            return '*';
+        return ' ';
+    }
 
-        // print | on sides of map, along with all the cells inside
-        // individual cells have a display() method that defines what they should print
-        for (int i = 0; i < cells.length; i++) {
-            System.out.print("| ");
-            for (int j = 0; j < cells[0].length; j++) {
-                System.out.print(cells[i][j].display() + " ");
-            }
-            System.out.println("|");
+    // plan Scandro's path for the current timestep
+    void astar() {
+        searched = false;
+        if (lookahead > 0) {
+            if (pathAheadOpen())
+                return;
+            // the rest of the path, from Scandro's cell on
+            clearPath(Math.max(0, pathPosition - 1));
         }
 
-        // print horizontal bar below
-        System.out.println("-".repeat(cells[0].length * 2 + 3) + "\n\n");
+        searched = true;
+        if (planner.search(scandro, end, currentTimestep)) {
+            if (DEBUG_MODE)
+                System.out.println("Destination found.");
+            storePath();
+            return;
+        }
 
+        pathLength = 0;
+        pathNotFound = true;
     }
 
-    private void astar() {
+    // the next lookahead steps of the path are not blocked at the current timestep
+    // (the goal is always enterable)
+    private boolean pathAheadOpen() {
+        if (pathPosition >= pathLength)
+            return false;
+
+        int last = Math.min(pathLength, pathPosition + lookahead);
+        for (int i = pathPosition; i < last; i++) {
+            int cell = path[i];
+            if (cell != end && !grid.isTraversable(cell, currentTimestep))
+                return false;
+        }
+        return true;
+    }
 
-        // initialize the open list with starting node
-        List<Cell> openList = new ArrayList<Cell>();
-        Cell currCell = scandro;
-        currCell.f = 0;
-        openList.add(currCell);
+    // copy the path found by the last search and apply it to the map
+    private void storePath() {
+        int length = planner.getPathLength();
+        if (path.length < length)
+            path = new int[Math.max(length, path.length * 2)];
+        for (int i = 0; i < length; i++) {
+            path[i] = planner.getPathStep(i);
+            grid.setPath(path[i], true);
+        }
+        pathLength = length;
+        pathPosition = 0;
+    }
 
-        // initialize the closed list
-        boolean[][] closedList = new boolean[sizeX][sizeY];
+    // clear isPath status from the cells of the last path
+    // (search data is generation stamped inside the engine, so only the path needs clearing).
+    // a path being followed is kept, see astar
+    private void resetBoard() {
+        if (lookahead == 0)
+            clearPath(0);
+    }
 
-        // while the open list is not empty
-        while (!openList.isEmpty()) {
+    private void clearPath(int from) {
+        for (int i = from; i < pathLength; i++) {
+            grid.setPath(path[i], false);
+        }
+    }
 
-            // find node with lowest f in open list "q"
-            Cell q = openList.get(0);
-            for (Cell c : openList) {
-                if (c.f < q.f) {
-                    q = c;
-                }
-            }
+    // move Scandro onto the next step of the path
+    // (the step can be his current cell when the planner decided to wait)
+    private void moveScandro() {
+        if (pathPosition >= pathLength)
+            return;
 
-            // pop q off open list
-            openList.remove(q);
-            closedList[q.x][q.y] = true;
-
-            // generate q's 4 successors and set their parents to q
-            double gNew, hNew, fNew;
-            Cell up = new Cell(q.x, q.y + 1);
-            up.parent = q;
-            Cell down = new Cell(q.x, q.y - 1);
-            down.parent = q;
-            Cell right = new Cell(q.x + 1, q.y);
-            right.parent = q;
-            Cell left = new Cell(q.x - 1, q.y);
-            left.parent = q;
-
-            // check cell above
-            if (isValid(up)) {
-                // if it is the destination
-                if (isDestination(up)) {
-                    if (DEBUG_MODE)
-                        System.out.println("Destination found.");
-                    up.setGoal(true);
-                    cells[up.x][up.y] = up;
-                    setPath();
-                    return;
-                }
-                // if it is not on the closed list and is not blocked by wall/barber
-                else if (!closedList[up.x][up.y] && cells[up.x][up.y].isTraversable()) {
-                    gNew = q.g + 1;
-                    hNew = calculateHValue(up);
-                    fNew = gNew + hNew;
-
-                    // if the new f value is better than a previously found f value
-                    // (defaut f is -1, so always do this on new cells)
-                    if (cells[up.x][up.y].f < fNew) {
-                        openList.add(up);
-
-                        if (cells[up.x][up.y].getIsStart())
-                            up.setStart(true);
-
-                        // apply new f,g,h, and parent to the grid cell
-                        cells[up.x][up.y] = up;
-
-                    }
-                }
-                // else means the cell is already on the closed list, or it is blocked, nothing
-                // needs to be done
-            }
-            // check cell below
-            if (isValid(down)) {
-                // if it is the destination
-                if (isDestination(down)) {
-                    if (DEBUG_MODE)
-                        System.out.println("Destination found.");
-                    down.setGoal(true);
-                    cells[down.x][down.y] = down;
-                    setPath();
-                    return;
-                }
-                // if it is not on the closed list and is not blocked by wall/barber
-                else if (!closedList[down.x][down.y] && cells[down.x][down.y].isTraversable()) {
-                    gNew = q.g + 1;
-                    hNew = calculateHValue(down);
-                    fNew = gNew + hNew;
-
-                    // if the new f value is better than a previously found f value
-                    // (defaut f is -1, so always do this on new cells)
-                    if (cells[down.x][down.y].f < fNew) {
-                        openList.add(down);
-
-                        if (cells[down.x][down.y].getIsStart())
-                            down.setStart(true);
-
-                        // apply new f,g,h, and parent to the grid cell
-                        cells[down.x][down.y] = down;
-                    }
-                }
-                // else means the cell is already on the closed list, or it is blocked, nothing
-                // needs to be done
-            }
-            // check cell to the right
-            if (isValid(right)) {
-                // if it is the destination
-                if (isDestination(right)) {
-                    if (DEBUG_MODE)
-                        System.out.println("Destination found.");
-                    right.setGoal(true);
-                    cells[right.x][right.y] = right;
-                    setPath();
-                    return;
-                }
-                // if it is not on the closed list and is not blocked by wall/barber
-                else if (!closedList[right.x][right.y] && cells[right.x][right.y].isTraversable()) {
-                    gNew = q.g + 1;
-                    hNew = calculateHValue(right);
-                    fNew = gNew + hNew;
-
-                    // if the new f value is better than a previously found f value
-                    // (defaut f is -1, so always do this on new cells)
-                    if (cells[right.x][right.y].f < fNew) {
-                        openList.add(right);
-
-                        if (cells[right.x][right.y].getIsStart())
-                            right.setStart(true);
-
-                        // apply new f,g,h, and parent to the grid cell
-                        cells[right.x][right.y] = right;
-                    }
-                }
-                // else means the cell is already on the closed list, or it is blocked, nothing
-                // needs to be done
-            }
-            // check cell to the left
-            if (isValid(left)) {
-                // if it is the destination
-                if (isDestination(left)) {
-                    if (DEBUG_MODE)
-                        System.out.println("Destination found.");
-                    left.setGoal(true);
-                    cells[left.x][left.y] = left;
-                    setPath();
-                    return;
-                }
-                // if it is not on the closed list and is not blocked by wall/barber
-                else if (!closedList[left.x][left.y] && cells[left.x][left.y].isTraversable()) {
-                    gNew = q.g + 1;
-                    hNew = calculateHValue(left);
-                    fNew = gNew + hNew;
-
-                    // if the new f value is better than a previously found f value
-                    // (defaut f is -1, so always do this on new cells)
-                    if (cells[left.x][left.y].f < fNew) {
-                        openList.add(left);
-
-                        if (cells[left.x][left.y].getIsStart())
-                            left.setStart(true);
-
-                        // apply new f,g,h, and parent to the grid cell
-                        cells[left.x][left.y] = left;
-                    }
-                }
-                // else means the cell is already on the closed list, or it is blocked, nothing
-                // needs to be done
-            }
+        int next = path[pathPosition++];
+        if (next == scandro)
+            return;
 
-        }
+        // a followed path is not cleared every timestep, so clear the step behind
+        if (lookahead > 0)
+            grid.setPath(scandro, false);
+        grid.setAgent(scandro, false);
+        grid.setAgent(next, true);
+        scandro = next;
+    }
 
-        pathNotFound = true;
-        return;
+    // put Scandro on the start and place the barbers of the first timestep
+    void begin() {
+        scandro = start;
+        pathLength = 0;
+        pathPosition = 0;
+        setBarbers();
+    }
 
+    // carry on a run from a checkpoint, with Scandro on the given cell at the end of
+    // the given timestep (and stopped there if no path was found). the barber source
+    // must already be seeked past that timestep (see BarberSource.seek), the next
+    // step places the barbers of the timestep after it and searches for a new path
+    public void resume(int timestep, int scandro, boolean pathNotFound) {
+        clearPath(0);
+        pathLength = 0;
+        pathPosition = 0;
+        this.pathNotFound = pathNotFound;
+        currentTimestep = timestep;
+
+        grid.setAgent(this.scandro, false);
+        grid.setAgent(scandro, true);
+        this.scandro = scandro;
     }
 
-    private boolean isDestination(Cell c) {
-        return (c.x == end.x && c.y == end.y);
+    // run the next timestep: place its barbers, plan, move Scandro and print the map.
+    // returns false, doing nothing, once Scandro reached the goal or found no path
+    public boolean step() {
+        if (isFinished())
+            return false;
+
+        currentTimestep++;
+        if (metrics != null) {
+            measuredStep();
+            return true;
+        }
+        resetBoard();
+        setBarbers();
+        astar();
+        moveScandro();
+        print();
+        return true;
     }
 
-    private boolean isValid(Cell c) {
-        return (c.x >= 0 && c.x < sizeX && c.y >= 0 && c.y < sizeY);
+    public boolean isFinished() {
+        return pathNotFound || scandro == end;
     }
 
-    private int calculateHValue(Cell c) {
-        return Math.abs(c.x - end.x) + Math.abs(c.y - end.y);
+    // the last step found no path to the goal
+    public boolean isPathNotFound() {
+        return pathNotFound;
     }
 
-    // apply the current path object to the map
-    private void setPath() {
-        Cell currCell = cells[end.x][end.y];
-        while (currCell.hasParent()) {
-            currCell.isPath = true;
-            currCell = cells[currCell.parent.x][currCell.parent.y];
-        }
+    public int getTimestep() {
+        return currentTimestep;
     }
 
-    // clear isPath status from all cells, along with f,g, parent values
-    private void resetBoard() {
-        for (int i = 0; i < sizeX; i++) {
-            for (int j = 0; j < sizeY; j++) {
-                cells[i][j].isPath = false;
-                cells[i][j].f = -1;
-                cells[i][j].g = -1;
-                cells[i][j].parent = null;
-            }
-        }
+    // Scandro's cell
+    public int getScandro() {
+        return scandro;
     }
 
-    private void moveScandro() {
-        try {
-            Cell up = cells[scandro.x][scandro.y + 1];
-            if (up.isPath) {
-                cells[scandro.x][scandro.y].setOccupant(Entity.EMPTY);
-                cells[up.x][up.y].setOccupant(Entity.SCANDRO);
-                scandro = up;
-                return;
-            }
-        } catch (Exception e) {
-        }
-        try {
-            Cell down = cells[scandro.x][scandro.y - 1];
-            if (down.isPath) {
-                cells[scandro.x][scandro.y].setOccupant(Entity.EMPTY);
-                cells[down.x][down.y].setOccupant(Entity.SCANDRO);
-                scandro = down;
-                return;
-            }
-        } catch (Exception e) {
-        }
-        try {
-            Cell right = cells[scandro.x + 1][scandro.y];
-            if (right.isPath) {
-                cells[scandro.x][scandro.y].setOccupant(Entity.EMPTY);
-                cells[right.x][right.y].setOccupant(Entity.SCANDRO);
-                scandro = right;
-                return;
-            }
-        } catch (Exception e) {
-        }
-        try {
-            Cell left = cells[scandro.x - 1][scandro.y];
-            if (left.isPath) {
-                cells[scandro.x][scandro.y].setOccupant(Entity.EMPTY);
-                cells[left.x][left.y].setOccupant(Entity.SCANDRO);
-                scandro = left;
-                return;
-            }
-        } catch (Exception e) {
-        }
+    // the same step as in run, timing each part of it into the metrics
+    private void measuredStep() {
+        long t0 = System.nanoTime();
+        resetBoard();
+        long t1 = System.nanoTime();
+        setBarbers();
+        long t2 = System.nanoTime();
+        astar();
+        long t3 = System.nanoTime();
+        moveScandro();
+        long t4 = System.nanoTime();
+        print();
+        long t5 = System.nanoTime();
+
+        metrics.recordReset(t1 - t0);
+        metrics.recordBarbers(t2 - t1);
+        if (searched)
+            metrics.recordSearch(planner, !pathNotFound, t3 - t2);
+        metrics.recordPrint(t5 - t4);
+        metrics.endTimestep(currentTimestep);
     }
 
     // run the entire simulation, stepping until finished and printing map after
     // each step
     void run() {
-        System.out.println("");
+        renderer().message("");
 
         // initialize things and print map
-        scandro = start;
-        cells[start.x][start.y] = scandro;
-        setBarbers();
+        begin();
         print();
 
         // sets barbers, scandro at timestep i and print the map
-        while (!pathNotFound && !(scandro.x == end.x && scandro.y == end.y)) {
-            currentTimestep++;
-            resetBoard();
-            setBarbers();
-            astar();
-            moveScandro();
-            print();
+        while (step()) {
         }
 
         if (pathNotFound) {
-            System.out.println("NO PATH");
+            renderer.message("NO PATH");
         }
-        // loop
-        // step
-        // print()
     }
 }
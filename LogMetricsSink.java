@@ -0,0 +1,34 @@
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// logs every timestep at FINE and the totals at INFO when the run is over, through
+// java.util.logging (by default INFO and above go to stderr). a timestep's line is
+// only formatted when FINE is enabled for the logger
+public class LogMetricsSink implements MetricsSink {
+    private final Logger logger;
+
+    public LogMetricsSink() {
+        this(Logger.getLogger("astar.metrics"));
+    }
+
+    public LogMetricsSink(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public void timestep(SearchMetrics metrics) {
+        if (!logger.isLoggable(Level.FINE))
+            return;
+
+        logger.fine(String.format(
+                "step %d: %s, %d expanded, open list peak %d, %d decrease-keys, path %d, search %d us",
+                metrics.getLastTimestep(), metrics.isLastFound() ? "found" : "no path",
+                metrics.getLastNodesExpanded(), metrics.getLastOpenListPeak(), metrics.getLastDecreaseKeys(),
+                metrics.getLastPathLength(), metrics.getLastSearchNanos() / 1000));
+    }
+
+    @Override
+    public void finish(SearchMetrics metrics) {
+        logger.info("search metrics\n" + metrics.summary());
+    }
+}
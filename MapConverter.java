@@ -0,0 +1,21 @@
+import java.io.IOException;
+
+// converts a text map file and barber file into one binary map file (see BinaryMap),
+// run with eg. '$ java MapConverter InputFiles/mapcup.txt InputFiles/barbercup.txt cup.bin'
+public class MapConverter {
+    public static void main(String[] args) {
+
+        if (args.length != 3) {
+            System.out.println(
+                    "ERROR: You must provide the map file, barber file and binary file to write as args\n" +
+                            "eg. '$ java MapConverter InputFiles/mapcup.txt InputFiles/barbercup.txt cup.bin'");
+            return;
+        }
+
+        try {
+            BinaryMap.convert(args[0], args[1], args[2]);
+        } catch (IOException e) {
+            System.out.println("ERROR: " + e.getMessage());
+        }
+    }
+}
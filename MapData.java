@@ -0,0 +1,61 @@
+// contents of a map file: the map size, start and goal, the walls and the cells that
+// cost more than 1 to step into, with every cell given as a grid index (x * sizeY + y)
+public final class MapData {
+    private final int sizeX;
+    private final int sizeY;
+    private final int start;
+    private final int goal;
+    private final int[] walls;
+    private final int[] costCells;
+    private final int[] costs;
+
+    public MapData(int sizeX, int sizeY, int start, int goal, int[] walls) {
+        this(sizeX, sizeY, start, goal, walls, new int[0], new int[0]);
+    }
+
+    public MapData(int sizeX, int sizeY, int start, int goal, int[] walls, int[] costCells, int[] costs) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.start = start;
+        this.goal = goal;
+        this.walls = walls;
+        this.costCells = costCells;
+        this.costs = costs;
+    }
+
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+
+    public int getWallCount() {
+        return walls.length;
+    }
+
+    public int getWall(int i) {
+        return walls[i];
+    }
+
+    public int getCostCount() {
+        return costCells.length;
+    }
+
+    public int getCostCell(int i) {
+        return costCells[i];
+    }
+
+    public int getCost(int i) {
+        return costs[i];
+    }
+}
@@ -0,0 +1,32 @@
+import java.io.IOException;
+
+// a map or barber file that cannot be parsed, with the line the problem is on
+// (for text files)
+public class MapFormatException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final String path;
+    private final int line;
+
+    public MapFormatException(String path, int line, String message) {
+        super(path + ":" + line + ": " + message);
+        this.path = path;
+        this.line = line;
+    }
+
+    // for binary files, which have no lines
+    public MapFormatException(String path, String message) {
+        super(path + ": " + message);
+        this.path = path;
+        this.line = -1;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    // -1 for binary files
+    public int getLine() {
+        return line;
+    }
+}
@@ -0,0 +1,392 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+// generates map files and barber files of any size up to 16k x 16k for load
+// testing, run with eg.
+// '$ java MapGenerator maze 16384 16384 42 mapbig.txt barberbig.txt 1000 1000000 patrol'.
+// every wall is a function of the seed and the cell alone (a hash of the two), so
+// the map is written a row at a time and barbers look up the walls around them
+// without the map ever being held in memory. a barber file takes memory for its
+// barbers only, however many timesteps it runs for. the same seed always gives the
+// same files.
+// the start is the top left cell and the goal the bottom right one (the last
+// corridor cell of a maze), and both are always open
+public class MapGenerator {
+    private static final double OPEN_WALL_DENSITY = 0.2;
+    private static final int ROOM_SIZE = 16; // rooms are 15 x 15 cells inside their walls
+    private static final int CORRIDOR_SPACING = 4; // a wall row after every 3 rows of corridor
+    private static final int CORRIDOR_DOORS = 64; // one extra door per this many cells of wall row
+    private static final int PATROL_REACH = 16; // most cells a patrol goes either way from where it starts
+    private static final int MAX_SIZE = 16384;
+
+    private final MapLayout layout;
+    private final int sizeX;
+    private final int sizeY;
+    private final long seed;
+    private final int start;
+    private final int goal;
+
+    public MapGenerator(MapLayout layout, int sizeX, int sizeY, long seed) {
+        if (sizeX <= 0 || sizeY <= 0 || sizeX > MAX_SIZE || sizeY > MAX_SIZE)
+            throw new IllegalArgumentException("map size must be from 1 to " + MAX_SIZE + ", not " + sizeX + " x "
+                    + sizeY);
+        this.layout = layout;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.seed = seed;
+        this.start = 0;
+
+        // maze corridors run along even rows and columns
+        if (layout == MapLayout.MAZE)
+            this.goal = ((sizeX - 1) & ~1) * sizeY + ((sizeY - 1) & ~1);
+        else
+            this.goal = sizeX * sizeY - 1;
+    }
+
+    public static void main(String[] args) {
+
+        if (args.length != 5 && args.length != 8 && args.length != 9) {
+            System.out.println(
+                    "ERROR: You must provide the layout {maze, open, rooms, corridors}, sizeX, sizeY, seed and map file\n" +
+                            "to write as args, optionally followed by the barber file to write, the number of barbers,\n" +
+                            "the number of timesteps and how they move {walk, patrol} (walk unless given)\n" +
+                            "eg. '$ java MapGenerator rooms 4096 4096 42 InputFiles/maprooms.txt' or\n" +
+                            "'$ java MapGenerator rooms 4096 4096 42 InputFiles/maprooms.txt InputFiles/barberrooms.txt 500 100000 patrol'");
+            return;
+        }
+
+        try {
+            MapGenerator generator = new MapGenerator(MapLayout.valueOf(args[0].toUpperCase()),
+                    Integer.parseInt(args[1]), Integer.parseInt(args[2]), Long.parseLong(args[3]));
+            try (OutputStream out = Files.newOutputStream(Paths.get(args[4]))) {
+                generator.writeMap(out);
+            }
+            if (args.length > 5) {
+                BarberPattern pattern = args.length > 8 ? BarberPattern.valueOf(args[8].toUpperCase())
+                        : BarberPattern.WALK;
+                try (OutputStream out = Files.newOutputStream(Paths.get(args[5]))) {
+                    generator.writeBarbers(out, Integer.parseInt(args[6]), Integer.parseInt(args[7]), pattern);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("ERROR: " + e.getMessage());
+        }
+    }
+
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+
+    public boolean isWall(int index) {
+        return isWall(index / sizeY, index % sizeY);
+    }
+
+    public boolean isWall(int x, int y) {
+        int index = x * sizeY + y;
+        if (index == start || index == goal)
+            return false;
+
+        switch (layout) {
+            case MAZE:
+                return isMazeWall(x, y);
+            case ROOMS:
+                return isRoomWall(x, y);
+            case CORRIDORS:
+                return isCorridorWall(x, y);
+            case OPEN:
+            default:
+                return uniform(hash(x, y, 0)) < OPEN_WALL_DENSITY;
+        }
+    }
+
+    // a sidewinder maze: corridor cells sit on even x and y, and every row of them is
+    // cut into runs joined along y, each run opening into the row above at one of
+    // its cells (the first row is one long run). this only needs a few of the row's
+    // cells to decide a wall, where a depth first maze needs the whole map
+    private boolean isMazeWall(int x, int y) {
+        if ((x & 1) == 0 && (y & 1) == 0)
+            return false;
+        if ((x & 1) == 1 && (y & 1) == 1)
+            return true;
+        if ((x & 1) == 0)
+            return !joinsNext(x >> 1, y >> 1);
+        return !opensUp((x >> 1) + 1, y >> 1);
+    }
+
+    // maze cell (i, j) is joined to (i, j + 1)
+    private boolean joinsNext(int i, int j) {
+        if (2 * j + 2 >= sizeY)
+            return false;
+        return i == 0 || (hash(i, j, 1) & 1) == 0;
+    }
+
+    // maze cell (i, j) is joined to (i - 1, j): every run opens up at one of its cells,
+    // picked at random
+    private boolean opensUp(int i, int j) {
+        if (2 * i >= sizeX)
+            return false;
+        int first = j;
+        while (first > 0 && joinsNext(i, first - 1))
+            first--;
+        int last = j;
+        while (joinsNext(i, last))
+            last++;
+        return j == first + (int) Long.remainderUnsigned(hash(i, last, 2), last - first + 1);
+    }
+
+    // rooms in a grid, with a one cell door at a random place in every wall between
+    // two rooms
+    private boolean isRoomWall(int x, int y) {
+        // no wall along the map's edge, it would shut the corner cells in
+        boolean wallRow = x % ROOM_SIZE == ROOM_SIZE - 1 && x < sizeX - 1;
+        boolean wallColumn = y % ROOM_SIZE == ROOM_SIZE - 1 && y < sizeY - 1;
+        if (wallRow && wallColumn)
+            return true;
+        if (wallRow)
+            return y != door(x / ROOM_SIZE, y / ROOM_SIZE, 3, sizeY);
+        if (wallColumn)
+            return x != door(y / ROOM_SIZE, x / ROOM_SIZE, 4, sizeX);
+        return false;
+    }
+
+    // position along a room's side of the door in the wall after room row a, room
+    // column b (or the other way around), within the map's size along that side
+    private int door(int a, int b, int salt, int size) {
+        int from = b * ROOM_SIZE;
+        int width = Math.min(ROOM_SIZE - 1, size - from);
+        return from + (int) Long.remainderUnsigned(hash(a, b, salt), width);
+    }
+
+    // long corridors along y, 3 cells wide, between rows of wall with at least one
+    // door each and a few more at random
+    private boolean isCorridorWall(int x, int y) {
+        if (x % CORRIDOR_SPACING != CORRIDOR_SPACING - 1)
+            return false;
+        if (y == (int) Long.remainderUnsigned(hash(x, 0, 5), sizeY))
+            return false;
+        return Long.remainderUnsigned(hash(x, y, 6), CORRIDOR_DOORS) != 0;
+    }
+
+    // random bits for a cell, the splitmix64 finalizer of the seed, cell and salt
+    private long hash(int a, int b, int salt) {
+        long h = mix(seed + salt * 0x9E3779B97F4A7C15L);
+        h = mix(h + a);
+        return mix(h + b);
+    }
+
+    private static long mix(long key) {
+        key = (key + 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        return key ^ (key >>> 31);
+    }
+
+    // in [0, 1)
+    private static double uniform(long bits) {
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+
+    // the map file (see MapLoader), a row at a time
+    public void writeMap(OutputStream out) throws IOException {
+        LineWriter writer = new LineWriter(out);
+        writer.record('M', sizeY, sizeX);
+        writer.record('S', start % sizeY, start / sizeY);
+        writer.record('G', goal % sizeY, goal / sizeY);
+        for (int x = 0; x < sizeX; x++) {
+            for (int y = 0; y < sizeY; y++) {
+                if (isWall(x, y))
+                    writer.record('W', y, x);
+            }
+        }
+        writer.end("E");
+    }
+
+    // the barber file (see MapLoader), the barbers of a timestep at a time
+    public void writeBarbers(OutputStream out, int barbers, int timesteps, BarberPattern pattern)
+            throws IOException {
+        LineWriter writer = new LineWriter(out);
+        BarberSource source = barberSource(barbers, pattern);
+        for (int t = 0; t < timesteps && source.advance(); t++) {
+            for (int i = 0; i < source.count(); i++) {
+                int cell = source.cell(i);
+                writer.barber(t, cell % sizeY, cell / sizeY);
+            }
+        }
+        writer.end("-1");
+    }
+
+    // barbers moving around the map forever, the same ones writeBarbers writes, for
+    // running a simulation without a barber file. each starts on a random open cell
+    // other than the start and goal. walking barbers step to a random neighbour
+    // every timestep (or stay when it is not open), patrolling ones go back and
+    // forth along a straight run of open cells
+    public BarberSource barberSource(int barbers, BarberPattern pattern) {
+        if (barbers <= 0)
+            throw new IllegalArgumentException("barbers must be at least 1, not " + barbers);
+        if (pattern == BarberPattern.PATROL)
+            return new Patrol(barbers);
+        return new RandomWalkBarberSource(sizeX, sizeY, this::isOpen, barbers, seed);
+    }
+
+    private boolean isOpen(int cell) {
+        return cell != start && cell != goal && !isWall(cell);
+    }
+
+    private int randomOpenCell(Random random) {
+        return RandomWalkBarberSource.randomOpenCell(sizeX * sizeY, this::isOpen, random);
+    }
+
+    // where a patrolling barber is follows from the timestep alone: it walks from the
+    // first cell of its run to the last and back, starting part way along
+    private final class Patrol implements BarberSource {
+        private final int[] first; // first cell of each barber's run
+        private final int[] step; // 1 for a run along y, sizeY along x
+        private final int[] length; // cells in the run
+        private final int[] phase;
+        private final int[] barbers;
+        private int timestep = -1;
+
+        Patrol(int count) {
+            Random random = new Random(seed);
+            first = new int[count];
+            step = new int[count];
+            length = new int[count];
+            phase = new int[count];
+            barbers = new int[count];
+            for (int i = 0; i < count; i++) {
+                int cell = randomOpenCell(random);
+                boolean alongY = random.nextBoolean();
+                int s = alongY ? 1 : sizeY;
+                int x = cell / sizeY;
+                int y = cell % sizeY;
+
+                int back = 0;
+                while (back < PATROL_REACH && (alongY ? y - back > 0 : x - back > 0) && isOpen(cell - (back + 1) * s))
+                    back++;
+                int forward = 0;
+                while (forward < PATROL_REACH && (alongY ? y + forward + 1 < sizeY : x + forward + 1 < sizeX)
+                        && isOpen(cell + (forward + 1) * s))
+                    forward++;
+
+                first[i] = cell - back * s;
+                step[i] = s;
+                length[i] = back + forward + 1;
+                phase[i] = random.nextInt(2 * length[i]);
+            }
+        }
+
+        @Override
+        public boolean advance() {
+            timestep++;
+            for (int i = 0; i < barbers.length; i++) {
+                if (length[i] == 1) {
+                    barbers[i] = first[i];
+                    continue;
+                }
+                int period = 2 * (length[i] - 1);
+                int at = (int) (((long) timestep + phase[i]) % period);
+                if (at >= length[i])
+                    at = period - at;
+                barbers[i] = first[i] + at * step[i];
+            }
+            return true;
+        }
+
+        @Override
+        public int count() {
+            return barbers.length;
+        }
+
+        @Override
+        public int cell(int i) {
+            return barbers[i];
+        }
+
+        // the next timestep
+        @Override
+        public long offset() {
+            return timestep + 1;
+        }
+
+        @Override
+        public void seek(long offset, int timestep, int[] barbers) {
+            this.timestep = (int) offset - 1;
+        }
+    }
+
+    // formats records straight into a byte buffer, as the files can run to gigabytes
+    private static final class LineWriter {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[1 << 16];
+        private int position;
+
+        LineWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        // 'type a b'
+        void record(char type, int a, int b) throws IOException {
+            reserve();
+            buffer[position++] = (byte) type;
+            buffer[position++] = ' ';
+            number(a);
+            buffer[position++] = ' ';
+            number(b);
+            buffer[position++] = '\n';
+        }
+
+        // 'timestep y x'
+        void barber(int timestep, int y, int x) throws IOException {
+            reserve();
+            number(timestep);
+            buffer[position++] = ' ';
+            number(y);
+            buffer[position++] = ' ';
+            number(x);
+            buffer[position++] = '\n';
+        }
+
+        void end(String last) throws IOException {
+            reserve();
+            for (int i = 0; i < last.length(); i++)
+                buffer[position++] = (byte) last.charAt(i);
+            buffer[position++] = '\n';
+            out.write(buffer, 0, position);
+            position = 0;
+            out.flush();
+        }
+
+        // room for a record of three ints or the last line
+        private void reserve() throws IOException {
+            if (position > buffer.length - 40) {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+        }
+
+        private void number(int value) {
+            int digits = 1;
+            for (int v = value; v >= 10; v /= 10)
+                digits++;
+            position += digits;
+            for (int i = position - 1; i >= position - digits; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+    }
+}
@@ -0,0 +1,4 @@
+// how the walls of a generated map are laid out, see MapGenerator
+public enum MapLayout {
+    MAZE, OPEN, ROOMS, CORRIDORS
+}
@@ -0,0 +1,246 @@
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// reads map and barber files by memory mapping them and parsing the bytes in
+// place, straight into int arrays. nothing is allocated per record, and a file
+// that does not parse is reported with its line number as a MapFormatException
+public final class MapLoader {
+    private static final long CHUNK_SIZE = 1L << 30; // bytes mapped at a time
+
+    private MapLoader() {
+    }
+
+    // map file records: 'M sizeY sizeX', 'S y x', 'G y x', 'W y x', 'C y x cost' for a
+    // cell that costs more than 1 to step into, and 'E' to end
+    public static MapData loadMap(String path) throws IOException {
+        try (Tokenizer in = new Tokenizer(path)) {
+            int sizeX = -1;
+            int sizeY = -1;
+            int start = -1;
+            int goal = -1;
+            int[] walls = new int[64];
+            int wallCount = 0;
+            int[] costCells = new int[16];
+            int[] costs = new int[16];
+            int costCount = 0;
+
+            while (in.skipWhitespace()) {
+                int type = in.readRecordType();
+                if (type == 'E')
+                    break;
+
+                switch (type) {
+                    case 'M':
+                        sizeY = in.readInt();
+                        sizeX = in.readInt();
+                        if (sizeX <= 0 || sizeY <= 0)
+                            throw in.error("map size must be positive");
+                        if ((long) sizeX * sizeY > Integer.MAX_VALUE)
+                            throw in.error("map is too large");
+                        break;
+                    case 'S':
+                        start = in.readCell(sizeX, sizeY);
+                        break;
+                    case 'G':
+                        goal = in.readCell(sizeX, sizeY);
+                        break;
+                    case 'W':
+                        if (wallCount == walls.length)
+                            walls = Arrays.copyOf(walls, wallCount * 2);
+                        walls[wallCount++] = in.readCell(sizeX, sizeY);
+                        break;
+                    case 'C':
+                        if (costCount == costs.length) {
+                            costCells = Arrays.copyOf(costCells, costCount * 2);
+                            costs = Arrays.copyOf(costs, costCount * 2);
+                        }
+                        costCells[costCount] = in.readCell(sizeX, sizeY);
+                        costs[costCount] = in.readInt();
+                        if (costs[costCount] < 1 || costs[costCount] > OccupancyGrid.MAX_COST)
+                            throw in.error("cost must be from 1 to " + OccupancyGrid.MAX_COST);
+                        costCount++;
+                        break;
+                    default:
+                        throw in.error("unknown record type '" + (char) type + "'");
+                }
+            }
+
+            if (sizeX < 0)
+                throw in.error("no map size (M) record");
+            if (start < 0)
+                throw in.error("no start (S) record");
+            if (goal < 0)
+                throw in.error("no goal (G) record");
+            return new MapData(sizeX, sizeY, start, goal, Arrays.copyOf(walls, wallCount),
+                    Arrays.copyOf(costCells, costCount), Arrays.copyOf(costs, costCount));
+        }
+    }
+
+    // barber file records: 'timestep y x', until a timestep of -1 or the end of the file
+    public static BarberSchedule loadBarbers(String path, int sizeX, int sizeY) throws IOException {
+        try (Tokenizer in = new Tokenizer(path)) {
+            int[] timesteps = new int[1024];
+            int[] cells = new int[1024];
+            int count = 0;
+            int last = -1;
+
+            while (in.skipWhitespace()) {
+                int timestep = in.readInt();
+                if (timestep == -1)
+                    break;
+                if (timestep < 0)
+                    throw in.error("negative timestep " + timestep);
+
+                if (count == cells.length) {
+                    timesteps = Arrays.copyOf(timesteps, count * 2);
+                    cells = Arrays.copyOf(cells, count * 2);
+                }
+                timesteps[count] = timestep;
+                cells[count] = in.readCell(sizeX, sizeY);
+                count++;
+                last = Math.max(last, timestep);
+            }
+
+            // counting sort by timestep, keeping file order within a timestep
+            int[] offsets = new int[last + 2];
+            for (int i = 0; i < count; i++)
+                offsets[timesteps[i] + 1]++;
+            for (int t = 0; t <= last; t++)
+                offsets[t + 1] += offsets[t];
+
+            int[] next = Arrays.copyOf(offsets, last + 1);
+            int[] grouped = new int[count];
+            for (int i = 0; i < count; i++)
+                grouped[next[timesteps[i]]++] = cells[i];
+            return new ArrayBarberSchedule(offsets, grouped);
+        }
+    }
+
+    // whitespace separated tokens of a memory mapped file, tracking the line number
+    private static final class Tokenizer implements AutoCloseable {
+        private final String path;
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer buffer;
+        private long bufferStart;
+        private int line = 1;
+
+        Tokenizer(String path) throws IOException {
+            this.path = path;
+            try {
+                this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                throw new FileNotFoundException("file not found: " + path);
+            }
+            this.size = channel.size();
+            map(0);
+        }
+
+        private void map(long position) throws IOException {
+            bufferStart = position;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, size - position));
+        }
+
+        // next byte without consuming it, -1 at the end of the file
+        private int peek() throws IOException {
+            if (!buffer.hasRemaining()) {
+                long position = bufferStart + buffer.limit();
+                if (position >= size)
+                    return -1;
+                map(position);
+            }
+            return buffer.get(buffer.position());
+        }
+
+        private void advance() {
+            buffer.position(buffer.position() + 1);
+        }
+
+        private static boolean isWhitespace(int c) {
+            return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+        }
+
+        // skip to the next token, returns false at the end of the file
+        boolean skipWhitespace() throws IOException {
+            int c;
+            while (isWhitespace(c = peek())) {
+                if (c == '\n')
+                    line++;
+                advance();
+            }
+            return c != -1;
+        }
+
+        // a record type is a single character token
+        int readRecordType() throws IOException {
+            int type = peek();
+            advance();
+            int c = peek();
+            if (c != -1 && !isWhitespace(c))
+                throw error("unknown record type starting with '" + (char) type + "'");
+            return type;
+        }
+
+        // the numbers of a record are on its line, so a line that ends early is
+        // reported as that line rather than as the next record failing to parse
+        int readInt() throws IOException {
+            int c = peek();
+            while (c == ' ' || c == '\t' || c == '\r') {
+                advance();
+                c = peek();
+            }
+            if (c == -1)
+                throw error("unexpected end of file, expected a number");
+            if (c == '\n')
+                throw error("line ends early, expected a number");
+
+            boolean negative = peek() == '-';
+            if (negative)
+                advance();
+
+            c = peek();
+            if (c < '0' || c > '9')
+                throw error("expected a number");
+
+            long value = 0;
+            do {
+                value = value * 10 + (c - '0');
+                if (value > Integer.MAX_VALUE)
+                    throw error("number is too large");
+                advance();
+                c = peek();
+            } while (c >= '0' && c <= '9');
+
+            if (c != -1 && !isWhitespace(c))
+                throw error("expected a number");
+            return (int) (negative ? -value : value);
+        }
+
+        // a 'y x' pair, returned as a grid index
+        int readCell(int sizeX, int sizeY) throws IOException {
+            if (sizeX < 0)
+                throw error("the map size (M) must come before any cell");
+
+            int y = readInt();
+            int x = readInt();
+            if (x < 0 || x >= sizeX || y < 0 || y >= sizeY)
+                throw error("cell " + y + " " + x + " is outside the map (M " + sizeY + " " + sizeX + ")");
+            return x * sizeY + y;
+        }
+
+        MapFormatException error(String message) {
+            return new MapFormatException(path, line, message);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+// immutable copy of a map's walls, terrain costs and barber schedule. nothing
+// changes after construction, so one snapshot can be searched by many threads at once
+public final class MapSnapshot implements Grid {
+    private final int sizeX;
+    private final int sizeY;
+    private final long[] walls; // bit per cell
+    private final byte[] costs; // cost - 1 per cell, null when every cell costs 1
+    private final int[][] barbersAt; // sorted barber cells per timestep
+    private final int start;
+    private final int goal;
+
+    private MapSnapshot(int sizeX, int sizeY, long[] walls, byte[] costs, int[][] barbersAt, int start, int goal) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.walls = walls;
+        this.costs = costs;
+        this.barbersAt = barbersAt;
+        this.start = start;
+        this.goal = goal;
+    }
+
+    // copy the walls, start and goal out of an occupancy grid, and the barber
+    // positions out of a barber schedule, which may be null
+    public static MapSnapshot of(OccupancyGrid grid, BarberSchedule barbers) {
+        int sizeX = grid.getSizeX();
+        int sizeY = grid.getSizeY();
+
+        long[] walls = new long[(sizeX * sizeY + 63) / 64];
+        byte[] costs = null;
+        for (int index = 0; index < sizeX * sizeY; index++) {
+            if (grid.isWall(index))
+                walls[index >>> 6] |= 1L << index;
+
+            int cost = grid.getTerrainCost(index);
+            if (cost > 1) {
+                if (costs == null)
+                    costs = new byte[sizeX * sizeY];
+                costs[index] = (byte) (cost - 1);
+            }
+        }
+
+        if (barbers == null)
+            barbers = BarberSchedule.EMPTY;
+        int[][] barbersAt = new int[barbers.getLastTimestep() + 1][];
+        for (int t = 0; t < barbersAt.length; t++) {
+            int[] at = new int[barbers.count(t)];
+            for (int i = 0; i < at.length; i++)
+                at[i] = barbers.cell(t, i);
+            Arrays.sort(at);
+            barbersAt[t] = at;
+        }
+
+        return new MapSnapshot(sizeX, sizeY, walls, costs, barbersAt, grid.getStart(), grid.getGoal());
+    }
+
+    // load a map file and its barber file (see MapLoader for the formats), or null
+    // for no barbers
+    public static MapSnapshot load(String mapPath, String barberPath) throws IOException {
+        MapData data = MapLoader.loadMap(mapPath);
+        OccupancyGrid grid = new OccupancyGrid(data.getSizeX(), data.getSizeY());
+        grid.setStart(data.getStart());
+        grid.setGoal(data.getGoal());
+        for (int i = 0; i < data.getWallCount(); i++)
+            grid.setWall(data.getWall(i), true);
+        for (int i = 0; i < data.getCostCount(); i++)
+            grid.setCost(data.getCostCell(i), data.getCost(i));
+
+        BarberSchedule barbers = null;
+        if (barberPath != null)
+            barbers = MapLoader.loadBarbers(barberPath, data.getSizeX(), data.getSizeY());
+        return of(grid, barbers);
+    }
+
+    // load a binary map file made by MapConverter, see BinaryMap
+    public static MapSnapshot loadBinary(String path) throws IOException {
+        return LevelMap.fromBinaryFile(path).snapshot();
+    }
+
+    @Override
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    @Override
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    // the map file's start cell, or -1
+    public int getStart() {
+        return start;
+    }
+
+    // the map file's goal cell, or -1
+    public int getGoal() {
+        return goal;
+    }
+
+    // last timestep of the barber schedule, -1 when there are no barbers
+    public int getLastTimestep() {
+        return barbersAt.length - 1;
+    }
+
+    // the fewest timesteps the schedule repeats after when it is played over and
+    // over: the smallest p dividing its length where every timestep has the same
+    // barbers as the one p later. 0 when there are no barbers
+    public int getPeriod() {
+        int length = barbersAt.length;
+        for (int p = 1; p < length; p++) {
+            if (length % p != 0)
+                continue;
+            int t = 0;
+            while (t + p < length && Arrays.equals(barbersAt[t], barbersAt[t + p]))
+                t++;
+            if (t + p == length)
+                return p;
+        }
+        return length;
+    }
+
+    public boolean isWall(int index) {
+        return (walls[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public boolean hasBarber(int index, int timestep) {
+        return timestep >= 0 && timestep < barbersAt.length && Arrays.binarySearch(barbersAt[timestep], index) >= 0;
+    }
+
+    @Override
+    public int getCost(int index) {
+        return costs == null ? 1 : (costs[index] & 0xFF) + 1;
+    }
+
+    @Override
+    public boolean hasCosts() {
+        return costs != null;
+    }
+
+    @Override
+    public boolean isTraversable(int index, int timestep) {
+        return !isWall(index) && !hasBarber(index, timestep);
+    }
+}
@@ -0,0 +1,10 @@
+// where SearchMetrics are sent: after every timestep, and once when the run is over
+public interface MetricsSink {
+
+    // a timestep is over, metrics' last* getters hold its values
+    void timestep(SearchMetrics metrics);
+
+    // the run is over, the histograms hold every timestep
+    default void finish(SearchMetrics metrics) {
+    }
+}
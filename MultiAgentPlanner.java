@@ -0,0 +1,147 @@
+// prioritized cooperative planning for many agents on one MapSnapshot.
+// every agent first gets an independent shortest path, solved in parallel by a
+// BatchPlanner since they do not depend on each other. then, in agent order, a path
+// that does not collide with anything already reserved is accepted as is, and only
+// the agents whose path conflicts are planned again with a space-time search
+// around the reservations of the agents before them.
+// until an agent is planned it holds its current cell for the next timestep, so
+// the first move of every plan is collision free even if a later agent has to wait
+public class MultiAgentPlanner implements AutoCloseable {
+    private static final int[] NO_STEPS = new int[0];
+    private static final int EXPANSION_LIMIT = 20000; // per cooperative search
+
+    private final MapSnapshot map;
+    private final BatchPlanner batch;
+    private final SpaceTimePlanner cooperative;
+    private final ReservationTable reservations;
+
+    private long planningNanos;
+    private int conflicts;
+    private int conflictsResolved;
+    private int plannedIndependently;
+
+    public MultiAgentPlanner(MapSnapshot map, int threads) {
+        this.map = map;
+        this.batch = new BatchPlanner(map, threads);
+        this.cooperative = new SpaceTimePlanner(map);
+        this.reservations = new ReservationTable(map.getSizeX() * map.getSizeY());
+        cooperative.setExpansionLimit(EXPANSION_LIMIT);
+    }
+
+    public MultiAgentPlanner(MapSnapshot map) {
+        this(map, Runtime.getRuntime().availableProcessors());
+    }
+
+    // positions are the agents' cells at the end of timestep - 1, no two the same.
+    // returns every agent's trajectory from timestep on (the cell at the end of
+    // each timestep, ending on its goal), an empty one for agents already on their
+    // goal, or null for agents that have to wait where they are
+    public int[][] plan(int[] positions, int[] goals, int timestep) {
+        long begin = System.nanoTime();
+        int agents = positions.length;
+        int[][] paths = new int[agents][];
+
+        int[] queries = new int[agents * 3];
+        for (int i = 0; i < agents; i++) {
+            queries[3 * i] = positions[i];
+            queries[3 * i + 1] = goals[i];
+            queries[3 * i + 2] = timestep;
+        }
+        int[][] independent = batch.solve(queries);
+
+        reservations.clear();
+        for (int i = 0; i < agents; i++) {
+            reservations.reserve(positions[i], timestep - 1, i);
+            reservations.reserve(positions[i], timestep, i);
+            if (positions[i] == goals[i]) {
+                reservations.park(goals[i], timestep, i);
+                paths[i] = NO_STEPS;
+            }
+        }
+
+        cooperative.setReservations(reservations, 0);
+        for (int i = 0; i < agents; i++) {
+            if (paths[i] != null)
+                continue;
+
+            int[] path = independent[i];
+            if (path == null) {
+                // the goal cannot be reached even alone
+                reservations.park(positions[i], timestep, i);
+                continue;
+            }
+
+            if (isFree(path, positions[i], timestep, i)) {
+                plannedIndependently++;
+            } else {
+                conflicts++;
+                cooperative.setReservations(reservations, i);
+                path = null;
+                if (cooperative.plan(positions[i], goals[i], timestep)) {
+                    path = new int[cooperative.getPathLength()];
+                    for (int k = 0; k < path.length; k++)
+                        path[k] = cooperative.getPathStep(k);
+                    conflictsResolved++;
+                }
+            }
+
+            if (path == null) {
+                reservations.park(positions[i], timestep, i);
+                continue;
+            }
+
+            for (int k = 0; k < path.length; k++)
+                reservations.reserve(path[k], timestep + k, i);
+            reservations.park(path[path.length - 1], timestep + path.length - 1, i);
+            paths[i] = path;
+        }
+
+        planningNanos += System.nanoTime() - begin;
+        return paths;
+    }
+
+    // can the agent follow the path from its position without running into a
+    // barber or into what other agents already reserved
+    private boolean isFree(int[] path, int position, int timestep, int agent) {
+        int from = position;
+        for (int k = 0; k < path.length; k++) {
+            int t = timestep + k;
+            int cell = path[k];
+            if (!reservations.canMove(from, cell, t, agent))
+                return false;
+            if (k < path.length - 1 && map.hasBarber(cell, t))
+                return false;
+            from = cell;
+        }
+        return reservations.canStayFrom(from, timestep + path.length - 1, agent);
+    }
+
+    // total time spent in plan()
+    public long getPlanningNanos() {
+        return planningNanos;
+    }
+
+    // agents whose independent path collided with an earlier agent
+    public int getConflicts() {
+        return conflicts;
+    }
+
+    // conflicts that a cooperative search found a way around
+    public int getConflictsResolved() {
+        return conflictsResolved;
+    }
+
+    // agents whose independent path could be used unchanged
+    public int getPlannedIndependently() {
+        return plannedIndependently;
+    }
+
+    public MapSnapshot getMap() {
+        return map;
+    }
+
+    @Override
+    public void close() {
+        batch.close();
+    }
+}
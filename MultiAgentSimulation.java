@@ -0,0 +1,89 @@
+// moves many agents towards their goals on a MapSnapshot, one cell per timestep.
+// all agents are planned together with a MultiAgentPlanner and follow their
+// trajectories, which never share a cell or swap, until an agent is left waiting
+// without one; then all of them are planned again from where they are. planning
+// every timestep instead can livelock: an agent waiting for the cell of one planned
+// after it keeps waiting when that one's plan starts with waiting too
+public class MultiAgentSimulation implements AutoCloseable {
+    private final MultiAgentPlanner planner;
+    private final int[] positions;
+    private final int[] goals;
+    private int[][] paths; // trajectories of the last plan, null before the first
+    private int plannedAt; // timestep the trajectories start at
+    private int timestep;
+    private int arrived;
+
+    public MultiAgentSimulation(MapSnapshot map, int[] starts, int[] goals, int threads) {
+        if (starts.length != goals.length)
+            throw new IllegalArgumentException("every agent needs a start and a goal");
+        this.planner = new MultiAgentPlanner(map, threads);
+        this.positions = starts.clone();
+        this.goals = goals.clone();
+        countArrived();
+    }
+
+    // plan and move every agent by one timestep, returns false once all agents arrived
+    public boolean step() {
+        if (isFinished())
+            return false;
+
+        if (needsPlan()) {
+            paths = planner.plan(positions, goals, timestep);
+            plannedAt = timestep;
+        }
+        int k = timestep - plannedAt;
+        for (int i = 0; i < positions.length; i++) {
+            if (paths[i] != null && k < paths[i].length)
+                positions[i] = paths[i][k];
+        }
+
+        timestep++;
+        countArrived();
+        return true;
+    }
+
+    // an agent is away from its goal without a trajectory to it. trajectories end on
+    // the goal, so only an agent the last plan found none for is
+    private boolean needsPlan() {
+        if (paths == null)
+            return true;
+        for (int i = 0; i < positions.length; i++) {
+            if (paths[i] == null && positions[i] != goals[i])
+                return true;
+        }
+        return false;
+    }
+
+    private void countArrived() {
+        arrived = 0;
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] == goals[i])
+                arrived++;
+        }
+    }
+
+    public boolean isFinished() {
+        return arrived == positions.length;
+    }
+
+    public int getTimestep() {
+        return timestep;
+    }
+
+    public int getArrived() {
+        return arrived;
+    }
+
+    public int getPosition(int agent) {
+        return positions[agent];
+    }
+
+    public MultiAgentPlanner getPlanner() {
+        return planner;
+    }
+
+    @Override
+    public void close() {
+        planner.close();
+    }
+}
@@ -0,0 +1,190 @@
+// the map's cells as bit layers: walls, barbers, the agent and the displayed path
+// each take one bit per cell in a long[], so a cell costs a few bits instead of a
+// Cell object. every row starts on a new word, so a row can be scanned 64 cells
+// at a time (see blockedWord), and the padding bits past the end of a row are set
+// in the wall layer so they are never open.
+// cells are addressed by grid index (x * sizeY + y) like everywhere else. the
+// agent's own cell does not block, since the agent is the one planning.
+// a cell can cost more than 1 to step into (terrain, see setCost). costs are kept a
+// byte per cell, and only once a cell costs more than 1.
+// cells close to a barber can be marked dangerous (see DangerZones): a danger bit
+// blocks the cell like a barber does, and a danger cost is added to its terrain cost
+public final class OccupancyGrid implements Grid {
+    public static final int MAX_COST = 256;
+
+    private final int sizeX;
+    private final int sizeY;
+    private final int wordsPerRow;
+    private final long[] walls;
+    private final long[] barbers;
+    private final long[] agents;
+    private final long[] path;
+    private final long[] danger;
+    private byte[] costs; // cost - 1 per cell, null while every cell costs 1
+    private int[] dangerCosts; // null until a danger cost is added
+    private int start = -1;
+    private int goal = -1;
+
+    public OccupancyGrid(int sizeX, int sizeY) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.wordsPerRow = (sizeY + 63) >>> 6;
+
+        int words = sizeX * wordsPerRow;
+        this.walls = new long[words];
+        this.barbers = new long[words];
+        this.agents = new long[words];
+        this.path = new long[words];
+        this.danger = new long[words];
+
+        // padding past the last column of every row
+        if ((sizeY & 63) != 0) {
+            long padding = -1L << sizeY;
+            for (int x = 0; x < sizeX; x++)
+                walls[x * wordsPerRow + wordsPerRow - 1] = padding;
+        }
+    }
+
+    @Override
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    @Override
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    // the map's start cell (shown as X), or -1
+    public int getStart() {
+        return start;
+    }
+
+    public void setStart(int start) {
+        this.start = start;
+    }
+
+    // the map's goal cell (shown as G), or -1
+    public int getGoal() {
+        return goal;
+    }
+
+    public void setGoal(int goal) {
+        this.goal = goal;
+    }
+
+    // word holding the cell's bit
+    private int word(int index) {
+        return (index / sizeY) * wordsPerRow + ((index % sizeY) >>> 6);
+    }
+
+    // index % sizeY selects the bit, shifts only use its low 6 bits
+    private long bit(int index) {
+        return 1L << (index % sizeY);
+    }
+
+    public boolean isWall(int index) {
+        return (walls[word(index)] & bit(index)) != 0;
+    }
+
+    public boolean hasBarber(int index) {
+        return (barbers[word(index)] & bit(index)) != 0;
+    }
+
+    public boolean hasAgent(int index) {
+        return (agents[word(index)] & bit(index)) != 0;
+    }
+
+    public boolean isPath(int index) {
+        return (path[word(index)] & bit(index)) != 0;
+    }
+
+    public boolean isDanger(int index) {
+        return (danger[word(index)] & bit(index)) != 0;
+    }
+
+    public void setWall(int index, boolean wall) {
+        set(walls, index, wall);
+    }
+
+    public void setBarber(int index, boolean barber) {
+        set(barbers, index, barber);
+    }
+
+    public void setAgent(int index, boolean agent) {
+        set(agents, index, agent);
+    }
+
+    public void setPath(int index, boolean onPath) {
+        set(path, index, onPath);
+    }
+
+    public void setDanger(int index, boolean inDanger) {
+        set(danger, index, inDanger);
+    }
+
+    @Override
+    public int getCost(int index) {
+        int cost = getTerrainCost(index);
+        return dangerCosts == null ? cost : cost + dangerCosts[index];
+    }
+
+    // true once a cell has been given a terrain or danger cost
+    @Override
+    public boolean hasCosts() {
+        return costs != null || dangerCosts != null;
+    }
+
+    // cost of stepping into the cell without its danger cost
+    public int getTerrainCost(int index) {
+        return costs == null ? 1 : (costs[index] & 0xFF) + 1;
+    }
+
+    // add to (or with a negative amount take from) the cell's danger cost
+    public void addDangerCost(int index, int amount) {
+        if (dangerCosts == null)
+            dangerCosts = new int[sizeX * sizeY];
+        dangerCosts[index] += amount;
+    }
+
+    // cost of stepping into the cell, from 1 up to MAX_COST
+    public void setCost(int index, int cost) {
+        if (cost < 1 || cost > MAX_COST)
+            throw new IllegalArgumentException("cost must be from 1 to " + MAX_COST + ", not " + cost);
+        if (cost == getTerrainCost(index))
+            return;
+        if (costs == null)
+            costs = new byte[sizeX * sizeY];
+        costs[index] = (byte) (cost - 1);
+    }
+
+    private void set(long[] layer, int index, boolean value) {
+        if (value)
+            layer[word(index)] |= bit(index);
+        else
+            layer[word(index)] &= ~bit(index);
+    }
+
+    // true when there is no wall, barber or danger on the cell, whatever the timestep
+    @Override
+    public boolean isTraversable(int index, int timestep) {
+        int x = index / sizeY;
+        int y = index - x * sizeY;
+        int word = x * wordsPerRow + (y >>> 6);
+        return ((walls[word] | barbers[word] | danger[word]) & (1L << y)) == 0;
+    }
+
+    // walls, barbers and danger of cells y = 64 * w up to 64 * w + 63 of row x, one bit per
+    // cell (bit y % 64). cells past the end of the row are set, rows outside the
+    // map (or words outside the row) are all set
+    public long blockedWord(int x, int w) {
+        if (x < 0 || x >= sizeX || w < 0 || w >= wordsPerRow)
+            return -1L;
+        int word = x * wordsPerRow + w;
+        return walls[word] | barbers[word] | danger[word];
+    }
+
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+}
@@ -0,0 +1,235 @@
+import java.util.Arrays;
+
+// bounded least recently used cache of paths, keyed by start and goal, that stays
+// exact while the grid changes. the cached path of cost C and any cheaper one only
+// cross cells c with manhattan(start, c) + manhattan(c, goal) <= C, so a change to
+// a cell outside that ellipse (see cellChanged) can neither block the cached path
+// nor open a cheaper one, and the entry is only dropped once a cell inside it
+// changes. every later step of a path lies on the same ellipse or inside it, so a
+// search starting partway along the newest entry's path (Scandro following it) is
+// answered from the rest of that path.
+// only paths that were found are kept, "no path" can change anywhere.
+// entries are slots in preallocated arrays, chained per hash bucket and linked in
+// order of use, so lookups and inserts allocate nothing once the paths' arrays
+// have grown to fit
+public class PathCache {
+    public static final int NONE = -1;
+
+    private final Grid grid;
+    private final int sizeY;
+    private final int capacity;
+    private final int[] starts;
+    private final int[] goals;
+    private final int[][] paths;
+    private final int[] lengths;
+    private final long[] costs;
+
+    private final int[] buckets; // first entry of each hash bucket
+    private final int[] chain; // next entry in the same bucket
+    private final int[] newer; // order of use, newest first
+    private final int[] older;
+    private int newest = NONE;
+    private int oldest = NONE;
+    private final int[] free; // slots of dropped entries
+    private int freeCount;
+    private int size;
+    private int offset; // where the last hit starts on its entry's path
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public PathCache(Grid grid, int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be at least 1");
+        this.grid = grid;
+        this.sizeY = grid.getSizeY();
+        this.capacity = capacity;
+        this.starts = new int[capacity];
+        this.goals = new int[capacity];
+        this.paths = new int[capacity][];
+        this.lengths = new int[capacity];
+        this.costs = new long[capacity];
+        this.buckets = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+        this.chain = new int[capacity];
+        this.newer = new int[capacity];
+        this.older = new int[capacity];
+        this.free = new int[capacity];
+        Arrays.fill(buckets, NONE);
+    }
+
+    // the entry whose path answers the query, or NONE. its steps from getOffset() on
+    // are the path from start. a hit becomes the most recently used entry
+    public int lookup(int start, int goal) {
+        int e = find(start, goal);
+        offset = 0;
+        if (e == NONE && newest != NONE && goals[newest] == goal) {
+            for (int i = 0; i < lengths[newest] - 1; i++) {
+                if (paths[newest][i] == start) {
+                    e = newest;
+                    offset = i + 1;
+                    break;
+                }
+            }
+        }
+
+        if (e == NONE) {
+            misses++;
+            return NONE;
+        }
+        hits++;
+        unlink(e);
+        linkNewest(e);
+        return e;
+    }
+
+    // store the path of planner's last search, replacing the entry for the same start
+    // and goal or else evicting the least recently used entry when the cache is full.
+    // returns the entry
+    public int put(int start, int goal, Planner planner) {
+        int e = find(start, goal);
+        if (e != NONE) {
+            unlink(e);
+        } else {
+            if (freeCount > 0) {
+                e = free[--freeCount];
+            } else if (size < capacity) {
+                e = size++;
+            } else {
+                e = oldest;
+                unlink(e);
+                removeFromBucket(e);
+                evictions++;
+            }
+            addToBucket(e, start, goal);
+        }
+
+        int length = planner.getPathLength();
+        if (paths[e] == null || paths[e].length < length)
+            paths[e] = new int[Math.max(length, 16)];
+        long cost = 0;
+        for (int i = 0; i < length; i++) {
+            paths[e][i] = planner.getPathStep(i);
+            cost += grid.getCost(paths[e][i]);
+        }
+        lengths[e] = length;
+        costs[e] = cost;
+
+        linkNewest(e);
+        return e;
+    }
+
+    // a cell's occupant or cost changed, drop every entry it could change the path of.
+    // the cache must be told about every change, like an incremental planner
+    public void cellChanged(int index) {
+        int x = index / sizeY;
+        int y = index % sizeY;
+        for (int e = newest; e != NONE;) {
+            int next = older[e];
+            if (distance(starts[e], x, y) + distance(goals[e], x, y) <= costs[e]) {
+                unlink(e);
+                removeFromBucket(e);
+                free[freeCount++] = e;
+            }
+            e = next;
+        }
+    }
+
+    private int distance(int cell, int x, int y) {
+        return Math.abs(cell / sizeY - x) + Math.abs(cell % sizeY - y);
+    }
+
+    // drop every entry, the counters are kept
+    public void clear() {
+        Arrays.fill(buckets, NONE);
+        newest = NONE;
+        oldest = NONE;
+        size = 0;
+        freeCount = 0;
+    }
+
+    // steps of the last hit's path that lie before its start, 0 unless it started
+    // partway along a cached path
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLength(int entry) {
+        return lengths[entry];
+    }
+
+    public int getStep(int entry, int i) {
+        return paths[entry][i];
+    }
+
+    // entries held, dropped ones not counted
+    public int getSize() {
+        return size - freeCount;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    private int find(int start, int goal) {
+        for (int e = buckets[bucket(start, goal)]; e != NONE; e = chain[e]) {
+            if (starts[e] == start && goals[e] == goal)
+                return e;
+        }
+        return NONE;
+    }
+
+    private int bucket(int start, int goal) {
+        long h = ((long) start << 32 | goal & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (buckets.length - 1);
+    }
+
+    private void addToBucket(int e, int start, int goal) {
+        starts[e] = start;
+        goals[e] = goal;
+        int b = bucket(start, goal);
+        chain[e] = buckets[b];
+        buckets[b] = e;
+    }
+
+    private void removeFromBucket(int e) {
+        int b = bucket(starts[e], goals[e]);
+        if (buckets[b] == e) {
+            buckets[b] = chain[e];
+            return;
+        }
+        int previous = buckets[b];
+        while (chain[previous] != e)
+            previous = chain[previous];
+        chain[previous] = chain[e];
+    }
+
+    private void linkNewest(int e) {
+        newer[e] = NONE;
+        older[e] = newest;
+        if (newest != NONE)
+            newer[newest] = e;
+        newest = e;
+        if (oldest == NONE)
+            oldest = e;
+    }
+
+    private void unlink(int e) {
+        if (newer[e] != NONE)
+            older[newer[e]] = older[e];
+        else
+            newest = older[e];
+        if (older[e] != NONE)
+            newer[older[e]] = newer[e];
+        else
+            oldest = newer[e];
+    }
+}
@@ -0,0 +1,130 @@
+import java.util.Random;
+
+// the path finder for code that embeds it, eg. a long running service: build a
+// MapSnapshot once (MapSnapshot.load, loadBinary, or MapSnapshot.of an
+// OccupancyGrid filled in by hand), make a PathFinder on it and ask it for as many
+// paths as needed. nothing is printed and errors are thrown, never exited on.
+// the planner and its search buffers are made once, with the PathFinder, and
+// reused by every query, so once warmed up (see warmUp) findPath into a caller's
+// array allocates nothing and runs at the same speed query after query.
+// a PathFinder is for one thread at a time, any number of them can share a snapshot.
+// cells are grid indices (x * sizeY + y)
+public final class PathFinder {
+    private static final double DEFAULT_EPSILON = 0.5;
+
+    private final MapSnapshot map;
+    private final SearchMode mode;
+    private final Planner planner;
+
+    public PathFinder(MapSnapshot map) {
+        this(map, SearchMode.ASTAR);
+    }
+
+    public PathFinder(MapSnapshot map, SearchMode mode) {
+        this(map, mode, DEFAULT_EPSILON);
+    }
+
+    // paths of the weighted and focal modes cost at most (1 + epsilon) times the
+    // cheapest. space_time grows its buffers as needed, so it only stops allocating
+    // once warmed up on paths as long as the real ones. the incremental, jps and hpa
+    // modes follow a grid that changes every timestep and can't search a snapshot
+    public PathFinder(MapSnapshot map, SearchMode mode, double epsilon) {
+        if (!(epsilon >= 0))
+            throw new IllegalArgumentException("epsilon must be at least 0, not " + epsilon);
+        this.map = map;
+        this.mode = mode;
+
+        switch (mode) {
+            case ASTAR:
+                planner = new SearchEngine(map);
+                break;
+            case WEIGHTED:
+                SearchEngine weighted = new SearchEngine(map);
+                weighted.setWeight(1 + epsilon);
+                planner = weighted;
+                break;
+            case FOCAL:
+                planner = new FocalSearch(map, epsilon);
+                break;
+            case BIDIRECTIONAL:
+                planner = new BidirectionalSearch(map);
+                break;
+            case SPACE_TIME:
+                planner = new SpaceTimePlanner(map);
+                break;
+            default:
+                throw new IllegalArgumentException("the " + mode.toString().toLowerCase()
+                        + " search mode can't search a map snapshot");
+        }
+    }
+
+    public MapSnapshot getMap() {
+        return map;
+    }
+
+    public SearchMode getSearchMode() {
+        return mode;
+    }
+
+    // the path from start to goal with the barbers of the given timestep in the way
+    // (space_time: with each step dodging the barbers of its own timestep), as the
+    // steps after the start up to and including the goal, or null when there is none
+    public int[] findPath(int start, int goal, int timestep) {
+        if (!search(start, goal, timestep))
+            return null;
+
+        int[] path = new int[planner.getPathLength()];
+        for (int i = 0; i < path.length; i++)
+            path[i] = planner.getPathStep(i);
+        return path;
+    }
+
+    // the same path written into the given array, without allocating. returns its
+    // length, or -1 when there is no path. a longer path than the array holds has
+    // only its first path.length steps written, its whole length is still returned
+    public int findPath(int start, int goal, int timestep, int[] path) {
+        if (!search(start, goal, timestep))
+            return -1;
+
+        int length = planner.getPathLength();
+        for (int i = 0; i < length && i < path.length; i++)
+            path[i] = planner.getPathStep(i);
+        return length;
+    }
+
+    // cells expanded by the last search, 0 for a mode that does not count them
+    public int getNodesExpanded() {
+        return planner.getNodesExpanded();
+    }
+
+    // run searches between random open cells so the JIT compiles the search before
+    // the first real query, and a service answers its first requests as fast as its
+    // later ones. the same seed always runs the same searches
+    public void warmUp(int searches, long seed) {
+        int cells = map.getSizeX() * map.getSizeY();
+        int[] open = new int[Math.min(cells, 1024)];
+        int openCount = 0;
+        Random random = new Random(seed);
+        for (int tries = 0; tries < 16 * open.length && openCount < open.length; tries++) {
+            int cell = random.nextInt(cells);
+            if (map.isTraversable(cell, 0))
+                open[openCount++] = cell;
+        }
+        if (openCount < 2)
+            return;
+
+        for (int i = 0; i < searches; i++)
+            planner.search(open[random.nextInt(openCount)], open[random.nextInt(openCount)], 0);
+    }
+
+    private boolean search(int start, int goal, int timestep) {
+        int cells = map.getSizeX() * map.getSizeY();
+        if (start < 0 || start >= cells)
+            throw new IllegalArgumentException("start " + start + " is not a cell of the map");
+        if (goal < 0 || goal >= cells)
+            throw new IllegalArgumentException("goal " + goal + " is not a cell of the map");
+        if (timestep < 0)
+            throw new IllegalArgumentException("timestep must be at least 0, not " + timestep);
+        return planner.search(start, goal, timestep);
+    }
+}
@@ -0,0 +1,37 @@
+// a path finder that LevelMap can use to plan Scandro's route.
+// cells are grid indices (x * sizeY + y)
+public interface Planner {
+
+    // search from start to goal on the map at the given timestep, returns true if a
+    // path was found. the first step of the path is where Scandro should be at the
+    // end of that timestep
+    boolean search(int start, int goal, int timestep);
+
+    // number of steps in the last path found
+    int getPathLength();
+
+    // grid index of the i'th step of the last path (0 is the first step after the start)
+    int getPathStep(int i);
+
+    // called whenever the occupant of a cell changes between searches
+    default void cellChanged(int index) {
+    }
+
+    // cells taken off the open list and expanded by the last search, 0 when the
+    // planner does not count them
+    default int getNodesExpanded() {
+        return 0;
+    }
+
+    // most cells on the open list at once during the last search
+    default int getOpenListPeak() {
+        return 0;
+    }
+
+    // times the last search found a cheaper path to a cell it had already queued and
+    // queued it again at the lower cost. that is a decrease-key on the open list,
+    // except in FocalSearch, which has no closed list and so can reopen a cell
+    default int getDecreaseKeys() {
+        return 0;
+    }
+}
@@ -0,0 +1,156 @@
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+// generates barbers forever: each one starts on a random open cell and every
+// timestep steps to a random neighbour (or stays when that is a wall or the
+// map's start or goal). the same seed always gives the same barbers. a walk can't
+// be worked out from the timestep alone, so the offset is the state of the random
+// numbers, and seeking carries on from it and the barbers' cells at that timestep
+public class RandomWalkBarberSource implements BarberSource {
+    private static final int RANDOM_TRIES = 64;
+
+    private final int sizeX;
+    private final int sizeY;
+    private final IntPredicate open;
+    private final int[] barbers;
+    private final WalkRandom random;
+    private int timestep = -1;
+
+    public RandomWalkBarberSource(MapSnapshot map, int barbers, long seed) {
+        this(map.getSizeX(), map.getSizeY(),
+                cell -> !map.isWall(cell) && cell != map.getStart() && cell != map.getGoal(), barbers, seed);
+    }
+
+    // barbers on a sizeX by sizeY map that only start on and step onto the cells
+    // open accepts
+    public RandomWalkBarberSource(int sizeX, int sizeY, IntPredicate open, int barbers, long seed) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.open = open;
+        this.barbers = new int[barbers];
+        this.random = new WalkRandom(seed);
+        for (int i = 0; i < barbers; i++)
+            this.barbers[i] = randomOpenCell(sizeX * sizeY, open, random);
+    }
+
+    // a random cell open accepts. a few random tries nearly always find one, only
+    // when they don't are the open cells counted, to pick one of them or to fail
+    // when there are none
+    static int randomOpenCell(int size, IntPredicate open, Random random) {
+        for (int i = 0; i < RANDOM_TRIES; i++) {
+            int cell = random.nextInt(size);
+            if (open.test(cell))
+                return cell;
+        }
+
+        int count = 0;
+        for (int cell = 0; cell < size; cell++) {
+            if (open.test(cell))
+                count++;
+        }
+        if (count == 0)
+            throw new IllegalArgumentException("there is no open cell to put a barber on");
+
+        int skip = random.nextInt(count);
+        for (int cell = 0;; cell++) {
+            if (open.test(cell) && skip-- == 0)
+                return cell;
+        }
+    }
+
+    @Override
+    public boolean advance() {
+        // timestep 0 is the starting positions
+        timestep++;
+        if (timestep == 0)
+            return true;
+
+        for (int i = 0; i < barbers.length; i++) {
+            int x = barbers[i] / sizeY;
+            int y = barbers[i] % sizeY;
+            switch (random.nextInt(4)) {
+                case 0:
+                    y++;
+                    break;
+                case 1:
+                    y--;
+                    break;
+                case 2:
+                    x++;
+                    break;
+                default:
+                    x--;
+                    break;
+            }
+
+            if (x >= 0 && x < sizeX && y >= 0 && y < sizeY && open.test(x * sizeY + y))
+                barbers[i] = x * sizeY + y;
+        }
+        return true;
+    }
+
+    @Override
+    public int count() {
+        return barbers.length;
+    }
+
+    @Override
+    public int cell(int i) {
+        return barbers[i];
+    }
+
+    // the state of the random numbers the next timestep's steps are drawn from
+    @Override
+    public long offset() {
+        return random.getState();
+    }
+
+    @Override
+    public int[] barbers() {
+        return barbers.clone();
+    }
+
+    @Override
+    public void seek(long offset, int timestep, int[] barbers) {
+        if (barbers == null || barbers.length != this.barbers.length)
+            throw new IllegalArgumentException("a random walk carries on from the cells of its "
+                    + this.barbers.length + " barbers");
+        random.setState(offset);
+        System.arraycopy(barbers, 0, this.barbers, 0, barbers.length);
+        this.timestep = timestep;
+    }
+
+    // java.util.Random's generator with its 48 bit state readable, so a checkpoint
+    // can keep it. the same seed gives the same numbers as Random
+    static final class WalkRandom extends Random {
+        private static final long serialVersionUID = 1L;
+        private static final long MULTIPLIER = 0x5DEECE66DL;
+        private static final long ADDEND = 0xBL;
+        private static final long MASK = (1L << 48) - 1;
+
+        private long state; // set by Random's constructor through setSeed
+
+        WalkRandom(long seed) {
+            super(seed);
+        }
+
+        @Override
+        public synchronized void setSeed(long seed) {
+            state = (seed ^ MULTIPLIER) & MASK;
+        }
+
+        long getState() {
+            return state;
+        }
+
+        void setState(long state) {
+            this.state = state & MASK;
+        }
+
+        @Override
+        protected int next(int bits) {
+            state = (state * MULTIPLIER + ADDEND) & MASK;
+            return (int) (state >>> (48 - bits));
+        }
+    }
+}
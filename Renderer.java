@@ -0,0 +1,19 @@
+// draws the map after every timestep of LevelMap.run, see LevelMap.setRenderer
+public interface Renderer {
+    // draws nothing, for runs where only the result (or the metrics) matter
+    Renderer HEADLESS = new Renderer() {
+        @Override
+        public void frame(LevelMap map, int timestep) {
+        }
+
+        @Override
+        public void message(String text) {
+        }
+    };
+
+    // the map at the end of the timestep, every cell as LevelMap.display shows it
+    void frame(LevelMap map, int timestep);
+
+    // a line of text between frames, eg. NO PATH when Scandro is stuck
+    void message(String text);
+}
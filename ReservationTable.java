@@ -0,0 +1,144 @@
+import java.util.Arrays;
+
+// space-time reservations shared by cooperatively planned agents. an agent either
+// reserves a cell for one timestep while passing through, or parks on a cell from
+// a timestep onward (once it reached its goal or cannot move).
+// clear() is O(1) for the per-cell data, which is generation stamped
+public class ReservationTable {
+    public static final int NONE = -1;
+    private static final long EMPTY_KEY = -1L;
+
+    private final int cellCount;
+
+    // open addressing table from packed (timestep, cell) to agent
+    private long[] keys = new long[1024];
+    private int[] agents = new int[1024];
+    private int size;
+
+    private final int[] parkedAgent;
+    private final int[] parkedFrom;
+    private final int[] parkedStamp;
+    private final int[] lastUse; // last timestep anyone was reserved on the cell
+    private final int[] lastUseStamp;
+    private int generation = 1;
+    private int lastTimestep = -1;
+
+    public ReservationTable(int cellCount) {
+        this.cellCount = cellCount;
+        this.parkedAgent = new int[cellCount];
+        this.parkedFrom = new int[cellCount];
+        this.parkedStamp = new int[cellCount];
+        this.lastUse = new int[cellCount];
+        this.lastUseStamp = new int[cellCount];
+        Arrays.fill(keys, EMPTY_KEY);
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        size = 0;
+        lastTimestep = -1;
+
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(parkedStamp, 0);
+            Arrays.fill(lastUseStamp, 0);
+            generation = 1;
+        }
+    }
+
+    // last timestep that has a reservation or the start of a parking, -1 when empty
+    public int getLastTimestep() {
+        return lastTimestep;
+    }
+
+    public void reserve(int cell, int timestep, int agent) {
+        if (size * 2 >= keys.length)
+            grow();
+        if (insert(pack(cell, timestep), agent))
+            size++;
+
+        if (lastUseStamp[cell] != generation || lastUse[cell] < timestep) {
+            lastUse[cell] = timestep;
+            lastUseStamp[cell] = generation;
+        }
+        lastTimestep = Math.max(lastTimestep, timestep);
+    }
+
+    // the agent stays on cell from the given timestep onward
+    public void park(int cell, int from, int agent) {
+        parkedAgent[cell] = agent;
+        parkedFrom[cell] = from;
+        parkedStamp[cell] = generation;
+        lastTimestep = Math.max(lastTimestep, from);
+    }
+
+    // agent on the cell at the timestep, or NONE
+    public int occupant(int cell, int timestep) {
+        long key = pack(cell, timestep);
+        for (int i = slot(key);; i = (i + 1) & (keys.length - 1)) {
+            if (keys[i] == key)
+                return agents[i];
+            if (keys[i] == EMPTY_KEY)
+                break;
+        }
+
+        if (parkedStamp[cell] == generation && parkedFrom[cell] <= timestep)
+            return parkedAgent[cell];
+        return NONE;
+    }
+
+    // can the agent step from one cell to another (or wait when they are the same)
+    // arriving at the timestep, without landing on or swapping with another agent
+    public boolean canMove(int from, int to, int timestep, int agent) {
+        int other = occupant(to, timestep);
+        if (other != NONE && other != agent)
+            return false;
+
+        if (from != to) {
+            other = occupant(to, timestep - 1);
+            if (other != NONE && other != agent && occupant(from, timestep) == other)
+                return false;
+        }
+        return true;
+    }
+
+    // can the agent stop on the cell for good from the timestep, without anyone
+    // else passing through it later
+    public boolean canStayFrom(int cell, int timestep, int agent) {
+        if (parkedStamp[cell] == generation && parkedAgent[cell] != agent)
+            return false;
+        return lastUseStamp[cell] != generation || lastUse[cell] < timestep;
+    }
+
+    private long pack(int cell, int timestep) {
+        return (long) (timestep + 1) * cellCount + cell;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (keys.length - 1);
+    }
+
+    // returns false when the key was already there and only its agent was replaced
+    private boolean insert(long key, int agent) {
+        int i = slot(key);
+        while (keys[i] != EMPTY_KEY && keys[i] != key)
+            i = (i + 1) & (keys.length - 1);
+        boolean added = keys[i] == EMPTY_KEY;
+        keys[i] = key;
+        agents[i] = agent;
+        return added;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldAgents = agents;
+        keys = new long[oldKeys.length * 2];
+        agents = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY_KEY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY)
+                insert(oldKeys[i], oldAgents[i]);
+        }
+    }
+}
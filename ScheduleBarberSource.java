@@ -0,0 +1,54 @@
+// streams a BarberSchedule that is already in memory (or memory mapped) one
+// timestep at a time, once or starting over from timestep 0 after its last one
+public class ScheduleBarberSource implements BarberSource {
+    private final BarberSchedule schedule;
+    private final int length; // timesteps of one round of the schedule, 0 when it is played once
+    private int timestep = -1;
+
+    public ScheduleBarberSource(BarberSchedule schedule, boolean repeat) {
+        this.schedule = schedule;
+        this.length = repeat ? schedule.getLastTimestep() + 1 : 0;
+    }
+
+    public ScheduleBarberSource(BarberSchedule schedule) {
+        this(schedule, false);
+    }
+
+    @Override
+    public boolean advance() {
+        if (length > 0) {
+            timestep++;
+            return true;
+        }
+        if (timestep > schedule.getLastTimestep())
+            return false;
+        timestep++;
+        return timestep <= schedule.getLastTimestep();
+    }
+
+    @Override
+    public int count() {
+        return schedule.count(scheduled());
+    }
+
+    @Override
+    public int cell(int i) {
+        return schedule.cell(scheduled(), i);
+    }
+
+    // the timestep of the schedule the current one plays
+    private int scheduled() {
+        return length > 0 ? timestep % length : timestep;
+    }
+
+    // the next timestep
+    @Override
+    public long offset() {
+        return timestep + 1;
+    }
+
+    @Override
+    public void seek(long offset, int timestep, int[] barbers) {
+        this.timestep = (int) offset - 1;
+    }
+}
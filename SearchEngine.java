@@ -0,0 +1,201 @@
+import java.util.Arrays;
+
+// A* over the grid using primitive arrays indexed by x * sizeY + y.
+// all buffers are allocated once and reused between searches, so a search does
+// not allocate anything per node.
+// every search gets a new generation number, and per-cell data is only valid
+// when the cell's stamp equals the current generation (or minus it, once the
+// cell is closed), so nothing has to be cleared between searches. a search keeps
+// 12 bytes per cell here and 4 in the open list, plus 16 per cell on the open list
+// and 4 per step of the path at their longest so far.
+// a step costs what the cell stepped into costs (see Grid.getCost). with a weight
+// w > 1 (weighted A*) the heuristic counts w times over, which heads for the goal
+// more greedily and expands far fewer cells on open or costly terrain, and the path
+// found is at most w times longer than the shortest. the weight is kept in 64ths so
+// keys stay integers: f is then 64 * g + weight * h, which is a long.
+// g is an int, and a search whose path costs more than Integer.MAX_VALUE throws
+// an ArithmeticException
+public class SearchEngine implements Planner {
+    private static final int NO_PARENT = -1;
+    private static final int WEIGHT_SCALE = 64;
+
+    private final int sizeX;
+    private final int sizeY;
+    private final Grid grid;
+    private Heuristic heuristic; // null for manhattan distance
+    private int weight = WEIGHT_SCALE; // in 64ths
+
+    private final int[] g;
+    private final int[] parent;
+    private final int[] visited; // generation in which g and parent were last written, negated once closed
+    private int generation;
+    private final IndexedMinHeap openList;
+    private int nodesExpanded;
+    private int decreaseKeys;
+    private int timestep;
+
+    // last path found, from the first step after the start up to and including the goal
+    private int[] path = new int[16];
+    private int pathLength;
+
+    public SearchEngine(Grid grid) {
+        this.sizeX = grid.getSizeX();
+        this.sizeY = grid.getSizeY();
+        this.grid = grid;
+
+        int size = sizeX * sizeY;
+        this.g = new int[size];
+        this.parent = new int[size];
+        this.visited = new int[size];
+        this.generation = 0;
+        this.openList = new IndexedMinHeap(size);
+    }
+
+    @Override
+    public boolean search(int start, int goal, int timestep) {
+        nextGeneration();
+        openList.clear();
+        pathLength = 0;
+        nodesExpanded = 0;
+        decreaseKeys = 0;
+        this.timestep = timestep;
+
+        int goalX = goal / sizeY;
+        int goalY = goal % sizeY;
+
+        int hStart = heuristic(start, start / sizeY, start % sizeY, goal, goalX, goalY);
+        g[start] = 0;
+        parent[start] = NO_PARENT;
+        visited[start] = generation;
+        openList.insertOrUpdate(start, key(0, hStart), hStart);
+
+        while (!openList.isEmpty()) {
+
+            // pop node with lowest f off the open list "q"
+            int q = openList.poll();
+            visited[q] = -generation;
+            nodesExpanded++;
+
+            int qX = q / sizeY;
+            int qY = q % sizeY;
+
+            // check q's 4 successors: up, down, right, left
+            if ((qY + 1 < sizeY && expand(q, qX, qY + 1, goal, goalX, goalY))
+                    || (qY - 1 >= 0 && expand(q, qX, qY - 1, goal, goalX, goalY))
+                    || (qX + 1 < sizeX && expand(q, qX + 1, qY, goal, goalX, goalY))
+                    || (qX - 1 >= 0 && expand(q, qX - 1, qY, goal, goalX, goalY))) {
+                buildPath(start, goal);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // check a successor of q, returns true once the destination has been reached
+    private boolean expand(int q, int x, int y, int goal, int goalX, int goalY) {
+        int next = x * sizeY + y;
+
+        // if it is the destination
+        if (next == goal) {
+            parent[next] = q;
+            return true;
+        }
+
+        // if it is on the closed list or is blocked by wall/barber, nothing needs to be done
+        if (visited[next] == -generation || !grid.isTraversable(next, timestep))
+            return false;
+
+        int gNew = Math.addExact(g[q], grid.getCost(next));
+
+        // only keep the successor if it is new or reaches the cell cheaper than before
+        if (visited[next] == generation) {
+            if (g[next] <= gNew)
+                return false;
+            decreaseKeys++;
+        }
+
+        int hNew = heuristic(next, x, y, goal, goalX, goalY);
+        g[next] = gNew;
+        parent[next] = q;
+        visited[next] = generation;
+        openList.insertOrUpdate(next, key(gNew, hNew), hNew);
+        return false;
+    }
+
+    // invalidate all per-cell data from the previous search in O(1)
+    private void nextGeneration() {
+        generation++;
+
+        // stamps only need clearing when the counter wraps around
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            generation = 1;
+        }
+    }
+
+    private int heuristic(int index, int x, int y, int goal, int goalX, int goalY) {
+        if (heuristic != null)
+            return heuristic.estimate(index, goal);
+        return Math.abs(x - goalX) + Math.abs(y - goalY);
+    }
+
+    // f with the heuristic weighted, plain g + h when it is not
+    private long key(int g, int h) {
+        if (weight == WEIGHT_SCALE)
+            return (long) g + h;
+        return (long) g * WEIGHT_SCALE + (long) weight * h;
+    }
+
+    // weighted A*: count the heuristic weight times over, for paths at most weight
+    // times the shortest. rounded down to 64ths, 1 for plain A*
+    public void setWeight(double weight) {
+        if (!(weight >= 1))
+            throw new IllegalArgumentException("weight must be at least 1, not " + weight);
+        this.weight = (int) Math.min(Math.floor(weight * WEIGHT_SCALE), Integer.MAX_VALUE / 4);
+    }
+
+    // estimate the distance to the goal with a precomputed heuristic instead of the
+    // manhattan distance, or null to go back to manhattan
+    public void setHeuristic(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    // walk the parents back from the goal and store the path in start -> goal order
+    private void buildPath(int start, int goal) {
+        int length = 0;
+        for (int c = goal; c != start; c = parent[c])
+            length++;
+
+        pathLength = length;
+        if (path.length < length)
+            path = new int[Math.max(length, path.length * 2)];
+        for (int c = goal; c != start; c = parent[c])
+            path[--length] = c;
+    }
+
+    @Override
+    public int getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    @Override
+    public int getOpenListPeak() {
+        return openList.getPeakSize();
+    }
+
+    @Override
+    public int getDecreaseKeys() {
+        return decreaseKeys;
+    }
+
+    @Override
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    @Override
+    public int getPathStep(int i) {
+        return path[i];
+    }
+}
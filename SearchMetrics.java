@@ -0,0 +1,213 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// counters and histograms of how the planner and the simulation loop behave: per
+// search the nodes expanded, the open list's peak size, the decrease-keys, the
+// path length and the time taken, and per timestep the time spent clearing the last
+// path, placing the barbers and printing the map.
+// LevelMap only records into a SearchMetrics when one is set (see
+// LevelMap.setMetrics), so without one the loop does no timing and pays a null
+// check per timestep. after every timestep the sinks are given the metrics.
+// the values are recorded by the simulation's thread; a JMX client reading them
+// from another thread may see one timestep's values only partly recorded
+public class SearchMetrics implements SearchMetricsMXBean {
+    private final List<MetricsSink> sinks = new ArrayList<>();
+
+    private long timesteps;
+    private long searches;
+    private long pathsFound;
+    private final Histogram nodesExpanded = new Histogram();
+    private final Histogram openListPeak = new Histogram();
+    private final Histogram decreaseKeys = new Histogram();
+    private final Histogram pathLength = new Histogram();
+    private final Histogram searchNanos = new Histogram();
+    private final Histogram resetNanos = new Histogram();
+    private final Histogram barberNanos = new Histogram();
+    private final Histogram printNanos = new Histogram();
+
+    // values of the timestep being recorded, then of the last one finished
+    private int lastTimestep;
+    private boolean lastFound;
+    private int lastNodesExpanded;
+    private int lastOpenListPeak;
+    private int lastDecreaseKeys;
+    private int lastPathLength;
+    private long lastSearchNanos;
+    private long lastResetNanos;
+    private long lastBarberNanos;
+    private long lastPrintNanos;
+
+    public void addSink(MetricsSink sink) {
+        sinks.add(sink);
+    }
+
+    // the planner's last search, which took nanos
+    public void recordSearch(Planner planner, boolean found, long nanos) {
+        searches++;
+        lastFound = found;
+        lastNodesExpanded = planner.getNodesExpanded();
+        lastOpenListPeak = planner.getOpenListPeak();
+        lastDecreaseKeys = planner.getDecreaseKeys();
+        lastPathLength = found ? planner.getPathLength() : 0;
+        lastSearchNanos = nanos;
+
+        if (found)
+            pathsFound++;
+        nodesExpanded.record(lastNodesExpanded);
+        openListPeak.record(lastOpenListPeak);
+        decreaseKeys.record(lastDecreaseKeys);
+        pathLength.record(lastPathLength);
+        searchNanos.record(nanos);
+    }
+
+    public void recordReset(long nanos) {
+        lastResetNanos = nanos;
+        resetNanos.record(nanos);
+    }
+
+    public void recordBarbers(long nanos) {
+        lastBarberNanos = nanos;
+        barberNanos.record(nanos);
+    }
+
+    public void recordPrint(long nanos) {
+        lastPrintNanos = nanos;
+        printNanos.record(nanos);
+    }
+
+    // the timestep's values are all recorded, hand them to the sinks
+    public void endTimestep(int timestep) {
+        timesteps++;
+        lastTimestep = timestep;
+        for (MetricsSink sink : sinks)
+            sink.timestep(this);
+    }
+
+    // the run is over, called by whoever runs the simulation
+    public void finish() {
+        for (MetricsSink sink : sinks)
+            sink.finish(this);
+    }
+
+    // the totals, one line per measurement
+    public String summary() {
+        StringBuilder s = new StringBuilder();
+        s.append(String.format("timesteps: %d, searches: %d, paths found: %d%n", timesteps, searches, pathsFound));
+        appendLine(s, "nodes expanded", nodesExpanded, 1);
+        appendLine(s, "open list peak", openListPeak, 1);
+        appendLine(s, "decrease-keys", decreaseKeys, 1);
+        appendLine(s, "path length", pathLength, 1);
+        appendLine(s, "search us", searchNanos, 1000);
+        appendLine(s, "reset us", resetNanos, 1000);
+        appendLine(s, "barbers us", barberNanos, 1000);
+        appendLine(s, "print us", printNanos, 1000);
+        return s.toString();
+    }
+
+    private static void appendLine(StringBuilder s, String name, Histogram h, int unit) {
+        s.append(String.format("%-15s mean %10.1f  p50 %8d  p99 %8d  max %8d%n", name + ":", h.getMean() / unit,
+                h.getPercentile(0.5) / unit, h.getPercentile(0.99) / unit, h.getMax() / unit));
+    }
+
+    public int getLastTimestep() {
+        return lastTimestep;
+    }
+
+    public boolean isLastFound() {
+        return lastFound;
+    }
+
+    public int getLastNodesExpanded() {
+        return lastNodesExpanded;
+    }
+
+    public int getLastOpenListPeak() {
+        return lastOpenListPeak;
+    }
+
+    public int getLastDecreaseKeys() {
+        return lastDecreaseKeys;
+    }
+
+    public int getLastPathLength() {
+        return lastPathLength;
+    }
+
+    public long getLastSearchNanos() {
+        return lastSearchNanos;
+    }
+
+    public long getLastResetNanos() {
+        return lastResetNanos;
+    }
+
+    public long getLastBarberNanos() {
+        return lastBarberNanos;
+    }
+
+    public long getLastPrintNanos() {
+        return lastPrintNanos;
+    }
+
+    // SearchMetricsMXBean
+
+    @Override
+    public long getTimesteps() {
+        return timesteps;
+    }
+
+    @Override
+    public long getSearches() {
+        return searches;
+    }
+
+    @Override
+    public long getPathsFound() {
+        return pathsFound;
+    }
+
+    @Override
+    public double getMeanNodesExpanded() {
+        return nodesExpanded.getMean();
+    }
+
+    @Override
+    public long getMaxOpenListPeak() {
+        return openListPeak.getMax();
+    }
+
+    @Override
+    public long getDecreaseKeys() {
+        return decreaseKeys.getSum();
+    }
+
+    @Override
+    public double getMeanPathLength() {
+        return pathLength.getMean();
+    }
+
+    @Override
+    public double getMeanSearchMicros() {
+        return searchNanos.getMean() / 1000;
+    }
+
+    @Override
+    public long getP99SearchMicros() {
+        return searchNanos.getPercentile(0.99) / 1000;
+    }
+
+    @Override
+    public double getMeanResetMicros() {
+        return resetNanos.getMean() / 1000;
+    }
+
+    @Override
+    public double getMeanBarberMicros() {
+        return barberNanos.getMean() / 1000;
+    }
+
+    @Override
+    public double getMeanPrintMicros() {
+        return printNanos.getMean() / 1000;
+    }
+}
@@ -0,0 +1,27 @@
+// the totals of a SearchMetrics as seen over JMX (eg. in jconsole), see JmxMetricsSink
+public interface SearchMetricsMXBean {
+
+    long getTimesteps();
+
+    long getSearches();
+
+    long getPathsFound();
+
+    double getMeanNodesExpanded();
+
+    long getMaxOpenListPeak();
+
+    long getDecreaseKeys();
+
+    double getMeanPathLength();
+
+    double getMeanSearchMicros();
+
+    long getP99SearchMicros();
+
+    double getMeanResetMicros();
+
+    double getMeanBarberMicros();
+
+    double getMeanPrintMicros();
+}
@@ -0,0 +1,17 @@
+public enum SearchMode {
+    ASTAR,
+    INCREMENTAL,
+    SPACE_TIME,
+    JPS,
+    HPA,
+    BIDIRECTIONAL,
+    WEIGHTED,
+    FOCAL;
+
+    // astar, weighted and focal step around costly cells (terrain and soft danger
+    // zones). the others count every step as 1, and their planners refuse maps with
+    // costs rather than walk straight through them
+    public boolean usesCosts() {
+        return this == ASTAR || this == WEIGHTED || this == FOCAL;
+    }
+}
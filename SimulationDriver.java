@@ -0,0 +1,219 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// runs many long simulations at once, one per thread up to the number of cores,
+// with nothing drawn. every interval timesteps a run writes a Checkpoint to
+// <checkpoint directory>/<run name>.ckpt, and a run whose checkpoint file is already
+// there carries on from it, so a stopped driver can be started again where it was.
+// the barbers are read one timestep at a time, so a run holds no more than its
+// map and the current timestep however long it goes on. a run ends when Scandro
+// reaches the goal, when no path is found or at maxTimesteps.
+// at every checkpoint a run prints its timesteps per second since the last one,
+// and the driver prints each run's total and all of them together at the end
+public class SimulationDriver {
+    private final Path checkpoints;
+    private final int interval;
+    private final int maxTimesteps;
+    private final PrintStream out;
+
+    public SimulationDriver(Path checkpoints, int interval, int maxTimesteps, PrintStream out) {
+        if (interval <= 0)
+            throw new IllegalArgumentException("checkpoint interval must be at least 1, not " + interval);
+        this.checkpoints = checkpoints;
+        this.interval = interval;
+        this.maxTimesteps = maxTimesteps;
+        this.out = out;
+    }
+
+    private static final String USAGE =
+            "You must provide the checkpoint directory, the timesteps between checkpoints, the most\n" +
+            "timesteps to run and one or more runs as args. a run is a map name (eg. cup, for\n" +
+            "InputFiles/mapcup.txt and InputFiles/barbercup.txt), a binary map file made by MapConverter,\n" +
+            "or a generated map as layout:size:seed:barbers[:walk|patrol] (see MapGenerator)\n" +
+            "eg. '$ java SimulationDriver checkpoints 10000 1000000 cup maze:2048:1:100 rooms:2048:2:500:patrol'";
+
+    public static void main(String[] args) {
+
+        if (args.length < 4) {
+            System.out.println("ERROR: " + USAGE);
+            return;
+        }
+
+        List<String> runs = new ArrayList<>();
+        for (int i = 3; i < args.length; i++)
+            runs.add(args[i]);
+
+        SimulationDriver driver;
+        try {
+            driver = new SimulationDriver(Paths.get(args[0]), wholeNumber(args[1], "the timesteps between checkpoints"),
+                    wholeNumber(args[2], "the most timesteps"), System.out);
+        } catch (IllegalArgumentException e) {
+            System.out.println("ERROR: " + e.getMessage() + "\n" + USAGE);
+            return;
+        }
+
+        try {
+            Files.createDirectories(driver.checkpoints);
+            driver.runAll(runs, Runtime.getRuntime().availableProcessors());
+        } catch (IOException e) {
+            System.out.println("ERROR: " + e.getMessage());
+        }
+    }
+
+    private static int wholeNumber(String arg, String name) {
+        try {
+            return Integer.parseInt(arg);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number, not " + arg);
+        }
+    }
+
+    // how one run went
+    public static final class Result {
+        private final String name;
+        private final int timesteps;
+        private final long nanos;
+        private final String outcome;
+
+        Result(String name, int timesteps, long nanos, String outcome) {
+            this.name = name;
+            this.timesteps = timesteps;
+            this.nanos = nanos;
+            this.outcome = outcome;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // timesteps run this time, not counting the ones before the checkpoint it
+        // started from
+        public int getTimesteps() {
+            return timesteps;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        // "goal", "no path" or "timestep limit"
+        public String getOutcome() {
+            return outcome;
+        }
+    }
+
+    // run every run on up to threads threads, returns how each went (null for a
+    // run that failed, which is printed)
+    public List<Result> runAll(List<String> runs, int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, runs.size())));
+        long begin = System.nanoTime();
+        List<Result> results = new ArrayList<>();
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (String run : runs)
+                futures.add(pool.submit(() -> run(run)));
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause()
+                            : e.getCause();
+                    out.println(runs.get(i) + ": ERROR: " + cause.getMessage());
+                    results.add(null);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long timesteps = 0;
+        for (Result result : results) {
+            if (result == null)
+                continue;
+            timesteps += result.getTimesteps();
+            out.printf("%s: %s, %d timesteps in %.1f s, %.0f timesteps/s%n", result.getName(), result.getOutcome(),
+                    result.getTimesteps(), result.getNanos() / 1e9, rate(result.getTimesteps(), result.getNanos()));
+        }
+        out.printf("all runs: %d timesteps in %.1f s, %.0f timesteps/s%n", timesteps, elapsed / 1e9,
+                rate(timesteps, elapsed));
+        return results;
+    }
+
+    // run one simulation from its checkpoint (or the start) until it ends
+    public Result run(String name) throws IOException {
+        LevelMap map = open(name);
+        map.setRenderer(Renderer.HEADLESS);
+
+        Path file = checkpoints.resolve(name.replaceAll("[^A-Za-z0-9._-]", "_") + ".ckpt");
+        Checkpoint checkpoint = Checkpoint.read(file);
+        if (checkpoint != null) {
+            checkpoint.restore(map);
+            out.println(name + ": resuming at timestep " + checkpoint.getTimestep());
+        } else {
+            map.begin();
+        }
+
+        try {
+            int first = map.getTimestep();
+            long begin = System.nanoTime();
+            long windowBegin = begin;
+            int windowFirst = first;
+            while (map.getTimestep() < maxTimesteps && map.step()) {
+                if (map.getTimestep() % interval != 0)
+                    continue;
+
+                Checkpoint.of(map).write(file);
+                long now = System.nanoTime();
+                out.printf("%s: timestep %d, %.0f timesteps/s%n", name, map.getTimestep(),
+                        rate(map.getTimestep() - windowFirst, now - windowBegin));
+                windowBegin = now;
+                windowFirst = map.getTimestep();
+            }
+            long elapsed = System.nanoTime() - begin;
+            Checkpoint.of(map).write(file);
+
+            String outcome = map.isPathNotFound() ? "no path" : map.isFinished() ? "goal" : "timestep limit";
+            return new Result(name, map.getTimestep() - first, elapsed, outcome);
+        } finally {
+            map.getBarberSource().close();
+        }
+    }
+
+    private static double rate(long timesteps, long nanos) {
+        return nanos == 0 ? 0 : timesteps / (nanos / 1e9);
+    }
+
+    // a map name, binary map file or layout:size:seed:barbers[:pattern], see main
+    private static LevelMap open(String name) throws IOException {
+        if (name.endsWith(".bin"))
+            return LevelMap.fromBinaryFile(name);
+
+        String[] generated = name.split(":");
+        if (generated.length == 4 || generated.length == 5) {
+            int size = Integer.parseInt(generated[1]);
+            MapGenerator generator = new MapGenerator(MapLayout.valueOf(generated[0].toUpperCase()), size, size,
+                    Long.parseLong(generated[2]));
+            BarberPattern pattern = generated.length == 5 ? BarberPattern.valueOf(generated[4].toUpperCase())
+                    : BarberPattern.WALK;
+            return LevelMap.fromGenerator(generator, Integer.parseInt(generated[3]), pattern);
+        }
+
+        LevelMap map = LevelMap.fromFile(astar.mapPath(name));
+        map.setBarberSource(new FileTailBarberSource(astar.barberPath(name), map.getSizeX(), map.getSizeY(), 10));
+        return map;
+    }
+}
@@ -0,0 +1,373 @@
+import java.util.Arrays;
+
+// space-time A* over (x, y, t) states. plans against the whole barber schedule
+// in one search, so Scandro can wait or detour for barbers that have not moved
+// there yet instead of replanning greedily every step.
+// the returned trajectory is followed until the goal, and is only planned again
+// if Scandro ends up somewhere the trajectory did not expect.
+// a state (cell, t) means Scandro stands on cell at the end of timestep t, which
+// must not be a wall or hold a barber at timestep t (the goal is always allowed),
+// nor be within the danger radius of a barber at timestep t when one is set.
+// with a ReservationTable the cells and moves other agents reserved are avoided
+// too, which is how MultiAgentPlanner plans agents cooperatively
+public class SpaceTimePlanner implements Planner {
+    private static final int NONE = -1;
+    private static final long EMPTY_KEY = -1L;
+
+    private final int sizeX;
+    private final int sizeY;
+    private final MapSnapshot map;
+    private int period; // 0 when the schedule is not periodic
+    private int horizon; // last timestep where anything but a repeating schedule can still change
+    private int dangerRadius; // cells this close to a barber are blocked, 0 for only its own
+
+    private ReservationTable reservations;
+    private int agent;
+    private int expansionLimit; // 0 for no limit
+
+    // states, grown as needed and reused between searches
+    private int[] stateCell = new int[1024];
+    private int[] stateTime = new int[1024];
+    private int[] stateG = new int[1024];
+    private int[] stateParent = new int[1024];
+    private boolean[] stateClosed = new boolean[1024];
+    private int stateCount;
+
+    // open addressing table from packed (cell, time key) to state id
+    private long[] tableKeys = new long[2048];
+    private int[] tableIds = new int[2048];
+
+    // binary heap of state ids, ordered by f then h (duplicates are skipped when popped)
+    private int[] heapIds = new int[1024];
+    private int[] heapF = new int[1024];
+    private int[] heapH = new int[1024];
+    private int heapSize;
+
+    // last trajectory, trajectory[i] is Scandro's cell at the end of timestep plannedAt + i
+    private int[] trajectory = new int[64];
+    private int trajectoryLength;
+    private int plannedFrom = NONE; // start cell of the trajectory
+    private int plannedAt;
+    private int plannedGoal = NONE;
+    private int offset; // how far along the trajectory the current timestep is
+
+    public SpaceTimePlanner(MapSnapshot map) {
+        if (map.hasCosts())
+            throw new IllegalArgumentException(
+                    "space-time search counts every step as 1, the map has cells that cost more");
+        this.sizeX = map.getSizeX();
+        this.sizeY = map.getSizeY();
+        this.map = map;
+    }
+
+    // treat the schedule as repeating every period timesteps forever (0 for played
+    // once), so states that are the same (x, y, t mod period) are only searched once.
+    // the barbers of timestep t are then those of t mod period
+    public void setPeriod(int period) {
+        if (period < 0)
+            throw new IllegalArgumentException("period must be at least 0, not " + period);
+        this.period = period;
+        this.plannedGoal = NONE;
+    }
+
+    // keep radius steps (manhattan distance, through walls) away from every barber at
+    // every timestep, like DangerZones does on the grid
+    public void setDangerRadius(int radius) {
+        if (radius < 0)
+            throw new IllegalArgumentException("radius must be at least 0, not " + radius);
+        this.dangerRadius = radius;
+        this.plannedGoal = NONE;
+    }
+
+    // avoid everything reserved in the table by agents other than this one
+    // (null to plan alone again)
+    public void setReservations(ReservationTable reservations, int agent) {
+        this.reservations = reservations;
+        this.agent = agent;
+        this.plannedGoal = NONE;
+    }
+
+    @Override
+    public boolean search(int start, int goal, int timestep) {
+
+        // keep following the trajectory while Scandro is where it expects him to be
+        if (goal == plannedGoal) {
+            int k = timestep - plannedAt;
+            if (k >= 0 && k < trajectoryLength && (k == 0 ? plannedFrom : trajectory[k - 1]) == start) {
+                offset = k;
+                return true;
+            }
+        }
+
+        if (!plan(start, goal, timestep))
+            return false;
+
+        plannedFrom = start;
+        plannedAt = timestep;
+        plannedGoal = goal;
+        return true;
+    }
+
+    // give up a search after this many states were expanded (0 for no limit). with
+    // reservations an unreachable goal is otherwise only proven after searching
+    // every cell at every timestep up to the horizon
+    public void setExpansionLimit(int expansionLimit) {
+        this.expansionLimit = expansionLimit;
+    }
+
+    // always plan a fresh trajectory, starting from start at the end of timestep - 1
+    public boolean plan(int start, int goal, int timestep) {
+        offset = 0;
+        trajectoryLength = 0;
+        plannedGoal = NONE;
+
+        horizon = period > 0 ? -1 : map.getLastTimestep();
+        if (reservations != null)
+            horizon = Math.max(horizon, reservations.getLastTimestep());
+
+        stateCount = 0;
+        heapSize = 0;
+        Arrays.fill(tableKeys, EMPTY_KEY);
+
+        int goalX = goal / sizeY;
+        int goalY = goal % sizeY;
+
+        // Scandro is on the start cell at the end of the previous timestep
+        int first = addState(start, timestep - 1, 0, NONE);
+        push(first, heuristic(start, goalX, goalY), heuristic(start, goalX, goalY));
+
+        int expanded = 0;
+        while (heapSize > 0) {
+            int f = heapF[0];
+            int q = pop();
+            if (stateClosed[q] || f != stateG[q] + heuristic(stateCell[q], goalX, goalY))
+                continue;
+            stateClosed[q] = true;
+            if (expansionLimit > 0 && ++expanded > expansionLimit)
+                return false;
+
+            int cell = stateCell[q];
+            int x = cell / sizeY;
+            int y = cell % sizeY;
+            int t = stateTime[q] + 1;
+            int g = stateG[q] + 1;
+
+            // successors: up, down, right, left, then waiting in place
+            if ((y + 1 < sizeY && visit(q, cell + 1, t, g, goal, goalX, goalY))
+                    || (y - 1 >= 0 && visit(q, cell - 1, t, g, goal, goalX, goalY))
+                    || (x + 1 < sizeX && visit(q, cell + sizeY, t, g, goal, goalX, goalY))
+                    || (x - 1 >= 0 && visit(q, cell - sizeY, t, g, goal, goalX, goalY))
+                    || visit(q, cell, t, g, goal, goalX, goalY)) {
+                buildTrajectory(stateCount - 1);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // generate the state (cell, t), returns true once it reaches the goal
+    private boolean visit(int parent, int cell, int t, int g, int goal, int goalX, int goalY) {
+        if (reservations != null && !reservations.canMove(stateCell[parent], cell, t, agent))
+            return false;
+
+        if (cell == goal) {
+            // other agents must not pass through the goal once this one waits on it
+            if (reservations != null && !reservations.canStayFrom(cell, t, agent))
+                return false;
+            addState(cell, t, g, parent);
+            return true;
+        }
+
+        if (isBlocked(cell, t))
+            return false;
+
+        int id = find(cell, t);
+        if (id == NONE) {
+            id = addState(cell, t, g, parent);
+        } else if (stateClosed[id] || stateG[id] <= g) {
+            return false;
+        } else {
+            stateG[id] = g;
+            stateTime[id] = t;
+            stateParent[id] = parent;
+        }
+
+        int h = heuristic(cell, goalX, goalY);
+        push(id, g + h, h);
+        return false;
+    }
+
+    private boolean isBlocked(int cell, int t) {
+        if (map.isWall(cell))
+            return true;
+        int barbersAt = period > 0 ? t % period : t;
+        if (dangerRadius == 0)
+            return map.hasBarber(cell, barbersAt);
+
+        // look for a barber in the diamond of cells within the radius
+        int cx = cell / sizeY;
+        int cy = cell % sizeY;
+        for (int x = Math.max(0, cx - dangerRadius); x <= Math.min(sizeX - 1, cx + dangerRadius); x++) {
+            int width = dangerRadius - Math.abs(x - cx);
+            for (int y = Math.max(0, cy - width); y <= Math.min(sizeY - 1, cy + width); y++) {
+                if (map.hasBarber(x * sizeY + y, barbersAt))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    // the timestep a state is stored under. after the schedule (and every
+    // reservation) ends the map does not change anymore, so all later times
+    // collapse into one. a repeating schedule never ends, so after the last
+    // reservation the times that are the same mod period collapse instead
+    private int timeKey(int t) {
+        if (period == 0)
+            return Math.min(t, horizon + 1);
+        return t <= horizon ? t : horizon + 1 + t % period;
+    }
+
+    private int heuristic(int cell, int goalX, int goalY) {
+        return Math.abs(cell / sizeY - goalX) + Math.abs(cell % sizeY - goalY);
+    }
+
+    private void buildTrajectory(int goalState) {
+        int length = 0;
+        for (int s = goalState; stateParent[s] != NONE; s = stateParent[s])
+            length++;
+
+        if (trajectory.length < length)
+            trajectory = new int[Math.max(length, trajectory.length * 2)];
+
+        trajectoryLength = length;
+        for (int s = goalState; stateParent[s] != NONE; s = stateParent[s])
+            trajectory[--length] = stateCell[s];
+    }
+
+    private int addState(int cell, int t, int g, int parent) {
+        if (stateCount == stateCell.length) {
+            int capacity = stateCount * 2;
+            stateCell = Arrays.copyOf(stateCell, capacity);
+            stateTime = Arrays.copyOf(stateTime, capacity);
+            stateG = Arrays.copyOf(stateG, capacity);
+            stateParent = Arrays.copyOf(stateParent, capacity);
+            stateClosed = Arrays.copyOf(stateClosed, capacity);
+        }
+
+        int id = stateCount++;
+        stateCell[id] = cell;
+        stateTime[id] = t;
+        stateG[id] = g;
+        stateParent[id] = parent;
+        stateClosed[id] = false;
+
+        if (stateCount * 2 > tableKeys.length)
+            growTable();
+        insert(pack(cell, t), id);
+        return id;
+    }
+
+    private long pack(int cell, int t) {
+        return (long) (timeKey(t) + 1) * sizeX * sizeY + cell;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (tableKeys.length - 1);
+    }
+
+    private int find(int cell, int t) {
+        long key = pack(cell, t);
+        for (int i = slot(key);; i = (i + 1) & (tableKeys.length - 1)) {
+            if (tableKeys[i] == key)
+                return tableIds[i];
+            if (tableKeys[i] == EMPTY_KEY)
+                return NONE;
+        }
+    }
+
+    private void insert(long key, int id) {
+        int i = slot(key);
+        while (tableKeys[i] != EMPTY_KEY && tableKeys[i] != key)
+            i = (i + 1) & (tableKeys.length - 1);
+        tableKeys[i] = key;
+        tableIds[i] = id;
+    }
+
+    private void growTable() {
+        long[] oldKeys = tableKeys;
+        int[] oldIds = tableIds;
+        tableKeys = new long[oldKeys.length * 2];
+        tableIds = new int[oldKeys.length * 2];
+        Arrays.fill(tableKeys, EMPTY_KEY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY)
+                insert(oldKeys[i], oldIds[i]);
+        }
+    }
+
+    private void push(int id, int f, int h) {
+        if (heapSize == heapIds.length) {
+            heapIds = Arrays.copyOf(heapIds, heapSize * 2);
+            heapF = Arrays.copyOf(heapF, heapSize * 2);
+            heapH = Arrays.copyOf(heapH, heapSize * 2);
+        }
+
+        int slot = heapSize++;
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!less(f, h, heapF[parent], heapH[parent]))
+                break;
+            heapIds[slot] = heapIds[parent];
+            heapF[slot] = heapF[parent];
+            heapH[slot] = heapH[parent];
+            slot = parent;
+        }
+        heapIds[slot] = id;
+        heapF[slot] = f;
+        heapH[slot] = h;
+    }
+
+    private int pop() {
+        int top = heapIds[0];
+        heapSize--;
+        int id = heapIds[heapSize];
+        int f = heapF[heapSize];
+        int h = heapH[heapSize];
+
+        int slot = 0;
+        int half = heapSize >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < heapSize && less(heapF[child + 1], heapH[child + 1], heapF[child], heapH[child]))
+                child++;
+            if (!less(heapF[child], heapH[child], f, h))
+                break;
+            heapIds[slot] = heapIds[child];
+            heapF[slot] = heapF[child];
+            heapH[slot] = heapH[child];
+            slot = child;
+        }
+        heapIds[slot] = id;
+        heapF[slot] = f;
+        heapH[slot] = h;
+        return top;
+    }
+
+    private static boolean less(int f, int h, int otherF, int otherH) {
+        if (f != otherF)
+            return f < otherF;
+        return h < otherH;
+    }
+
+    @Override
+    public int getPathLength() {
+        return trajectoryLength - offset;
+    }
+
+    @Override
+    public int getPathStep(int i) {
+        return trajectory[offset + i];
+    }
+}
@@ -1,27 +1,291 @@
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class astar {
+    private static final int PATH_CACHE_CAPACITY = 1024;
+    private static final double DEFAULT_EPSILON = 0.5;
+    private static final int SOFT_COST = 8; // extra cost one step past the danger radius
+    private static final int DEFAULT_LOOKAHEAD = 4;
+
+    private static final String USAGE =
+            "You must provide the map name as an arg: {cup, goaround, goaroundfake}\n" +
+            "optionally followed by the search mode: {astar, incremental, space_time, jps, hpa, bidirectional,\n" +
+            "weighted, focal}\n" +
+            "eg. '$ java astar cup' or '$ java astar cup incremental'\n" +
+            "a binary map file made by MapConverter can be given instead of the map name\n" +
+            "eg. '$ java astar cup.bin'\n" +
+            "add 'stream' after the search mode to read the barber file while the simulation runs,\n" +
+            "and 'cache' to reuse the paths of earlier timesteps when nothing changed around them\n" +
+            "eg. '$ java astar cup astar stream' or '$ java astar cup astar cache'\n" +
+            "'metrics' logs search and timestep metrics when the run is over, 'metrics=<file>'\n" +
+            "writes them to a csv file every timestep and 'jmx' shows them over JMX while it runs\n" +
+            "eg. '$ java astar cup astar metrics=cup.csv'\n" +
+            "'headless' draws nothing and 'diff' only the cells that changed each timestep\n" +
+            "eg. '$ java astar cup astar diff'\n" +
+            "paths of the weighted and focal modes cost at most 1 + epsilon times the cheapest,\n" +
+            "epsilon is 0.5 unless given, eg. '$ java astar cup focal epsilon=2'\n" +
+            "'danger=<r>' keeps Scandro r steps away from every barber, and 'soft=<r>' makes cells\n" +
+            "up to r steps away costlier, eg. '$ java astar cup astar danger=1 soft=3'\n" +
+            "'follow' keeps to the last path until a barber blocks one of its next 4 steps ('follow=<k>'\n" +
+            "for the next k) instead of searching every timestep, eg. '$ java astar cup astar follow=2'\n" +
+            "'repeat' starts the barber file over after its last timestep, eg. '$ java astar cup space_time repeat'";
+
     public static void main(String[] args) {
 
         if (args.length == 0) {
-            System.out.println(
-                    "ERROR: You must provide the map name as an arg: {cup, goaround, goaroundfake}\n" +
-                            "eg. '$ java astar cup'");
+            System.out.println("ERROR: " + USAGE);
+            return;
+        }
+
+        Options options = new Options();
+        boolean logMetrics = false;
+        List<String> csvFiles = new ArrayList<>();
+        boolean jmx = false;
+        try {
+            if (args.length > 1)
+                options.setMode(searchMode(args[1]));
+
+            for (int i = 2; i < args.length; i++) {
+                if (args[i].equals("stream")) {
+                    options.setStream(true);
+                } else if (args[i].equals("repeat")) {
+                    options.setRepeat(true);
+                } else if (args[i].equals("cache")) {
+                    options.setCache(true);
+                } else if (args[i].equals("metrics")) {
+                    logMetrics = true;
+                } else if (args[i].startsWith("metrics=")) {
+                    csvFiles.add(args[i].substring("metrics=".length()));
+                } else if (args[i].equals("jmx")) {
+                    jmx = true;
+                } else if (args[i].equals("headless")) {
+                    options.setRenderer(Renderer.HEADLESS);
+                } else if (args[i].equals("diff")) {
+                    options.setRenderer(new DiffRenderer(System.out));
+                } else if (args[i].startsWith("epsilon=")) {
+                    options.setEpsilon(number(args[i], "epsilon"));
+                } else if (args[i].startsWith("danger=")) {
+                    options.setDangerRadius(wholeNumber(args[i], "danger"));
+                } else if (args[i].startsWith("soft=")) {
+                    options.setSoftRadius(wholeNumber(args[i], "soft"));
+                } else if (args[i].equals("follow")) {
+                    options.setLookahead(DEFAULT_LOOKAHEAD);
+                } else if (args[i].startsWith("follow=")) {
+                    options.setLookahead(wholeNumber(args[i], "follow"));
+                } else {
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("ERROR: " + e.getMessage() + "\n" + USAGE);
+            return;
+        }
+
+        // the sinks are only made once every arg is known to be good, as a csv sink
+        // opens its file straight away
+        SearchMetrics metrics = null;
+        try {
+            if (logMetrics)
+                metrics = addSink(metrics, new LogMetricsSink());
+            for (String file : csvFiles)
+                metrics = addSink(metrics, new CsvMetricsSink(file));
+            if (jmx) {
+                if (metrics == null)
+                    metrics = new SearchMetrics();
+                metrics.addSink(new JmxMetricsSink(metrics, args[0]));
+            }
+        } catch (IOException e) {
+            System.out.println("ERROR: " + e.getMessage());
+            finish(metrics);
             return;
         }
+        options.setMetrics(metrics);
+
+        run(args[0], options);
+    }
+
+    private static SearchMode searchMode(String arg) {
+        try {
+            return SearchMode.valueOf(arg.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown search mode " + arg);
+        }
+    }
+
+    // the number after the = of name=<value>
+    private static double number(String arg, String name) {
+        String value = arg.substring(name.length() + 1);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number, not " + value);
+        }
+    }
+
+    private static int wholeNumber(String arg, String name) {
+        String value = arg.substring(name.length() + 1);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number, not " + value);
+        }
+    }
+
+    private static SearchMetrics addSink(SearchMetrics metrics, MetricsSink sink) {
+        if (metrics == null)
+            metrics = new SearchMetrics();
+        metrics.addSink(sink);
+        return metrics;
+    }
+
+    // how a run is set up, every setting starts at what '$ java astar <map>' uses
+    public static final class Options {
+        private SearchMode mode = SearchMode.ASTAR;
+        private boolean stream;
+        private boolean repeat;
+        private boolean cache;
+        private SearchMetrics metrics;
+        private Renderer renderer;
+        private double epsilon = DEFAULT_EPSILON;
+        private int dangerRadius;
+        private int softRadius;
+        private int lookahead;
+
+        // how Scandro's path is planned each timestep
+        public void setMode(SearchMode mode) {
+            this.mode = mode;
+        }
+
+        // read the barber file one timestep at a time while the simulation runs,
+        // instead of loading it first. a binary map has its barbers in it already
+        public void setStream(boolean stream) {
+            this.stream = stream;
+        }
+
+        // play the barbers over and over, starting from the first timestep of the
+        // barber file again after its last one. can't be streamed
+        public void setRepeat(boolean repeat) {
+            this.repeat = repeat;
+        }
+
+        // reuse earlier paths from a PathCache, and print its hit rate at the end
+        public void setCache(boolean cache) {
+            this.cache = cache;
+        }
 
-        run(args[0]);
+        // record every search and timestep into these metrics and finish them at
+        // the end, or null
+        public void setMetrics(SearchMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        // how the map is drawn each timestep, or null to print every frame in full
+        public void setRenderer(Renderer renderer) {
+            this.renderer = renderer;
+        }
+
+        // paths of the weighted and focal modes cost at most (1 + epsilon) times
+        // the cheapest
+        public void setEpsilon(double epsilon) {
+            if (!(epsilon >= 0))
+                throw new IllegalArgumentException("epsilon must be at least 0, not " + epsilon);
+            this.epsilon = epsilon;
+        }
+
+        // Scandro keeps this many steps away from every barber
+        public void setDangerRadius(int dangerRadius) {
+            if (dangerRadius < 0)
+                throw new IllegalArgumentException("danger must be at least 0, not " + dangerRadius);
+            this.dangerRadius = dangerRadius;
+        }
+
+        // cells up to this many steps away from a barber cost more to step into, or 0
+        public void setSoftRadius(int softRadius) {
+            if (softRadius < 0)
+                throw new IllegalArgumentException("soft must be at least 0, not " + softRadius);
+            this.softRadius = softRadius;
+        }
+
+        // follow the last path while this many of its next steps are open, or 0 to
+        // search every timestep
+        public void setLookahead(int lookahead) {
+            if (lookahead < 0)
+                throw new IllegalArgumentException("follow must be at least 0, not " + lookahead);
+            this.lookahead = lookahead;
+        }
+    }
+
+    public static void run(String name) {
+        run(name, new Options());
     }
 
     /**
      * 
-     * @param name the name of the files to read (eg. for mapcup.txt and
-     *             barbercup.txt, name=cup)
+     * @param name    the name of the files to read (eg. for mapcup.txt and
+     *                barbercup.txt, name=cup), or a binary map file made by
+     *                MapConverter (see BinaryMap)
+     * @param options how the run is set up
      */
-    public static void run(String name) {
+    public static void run(String name, Options options) {
+        LevelMap map;
+        BarberSource source = null;
+        try {
+            if (name.endsWith(".bin")) {
+                map = LevelMap.fromBinaryFile(name);
+            } else {
+                map = LevelMap.fromFile(mapPath(name));
+                if (options.stream) {
+                    source = new BufferedBarberSource(
+                            new FileTailBarberSource(barberPath(name), map.getSizeX(), map.getSizeY(), 10), 64);
+                    map.setBarberSource(source);
+                } else {
+                    map.addBarberFile(barberPath(name));
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("ERROR: " + e.getMessage());
+            finish(options.metrics);
+            return;
+        }
+
+        try {
+            map.setRepeatBarbers(options.repeat);
+            map.setEpsilon(options.epsilon);
+            map.setDangerZones(options.dangerRadius, options.softRadius, SOFT_COST);
+            map.setLookahead(options.lookahead);
+            map.setSearchMode(options.mode);
+        } catch (IllegalArgumentException e) {
+            System.out.println("ERROR: " + e.getMessage());
+            if (source != null)
+                source.close();
+            finish(options.metrics);
+            return;
+        }
+        if (options.cache)
+            map.setPathCache(PATH_CACHE_CAPACITY);
+        map.setMetrics(options.metrics);
+        map.setRenderer(options.renderer);
+
+        try {
+            map.run();
+            if (options.cache)
+                printCacheStats(map.getPathCache());
+        } catch (UncheckedIOException e) {
+            System.out.println("ERROR: " + e.getCause().getMessage());
+        } finally {
+            if (source != null)
+                source.close();
+            finish(options.metrics);
+        }
+    }
+
+    // the map file of a map name, eg. InputFiles/mapcup.txt for cup
+    static String mapPath(String name) {
         String directory = "InputFiles/";
         String mapPath = String.format("%smap%s.txt", directory, name);
-        String barberPath = String.format("%sbarber%s.txt", directory, name);
 
         // fix possible spelling mistake
         File mapFile = new File(mapPath);
@@ -33,9 +297,26 @@ public class astar {
 
             mapPath = String.format("%smap%s.txt", directory, name);
         }
+        return mapPath;
+    }
+
+    // the barber file of a map name, eg. InputFiles/barbercup.txt for cup
+    static String barberPath(String name) {
+        return String.format("%sbarber%s.txt", "InputFiles/", name);
+    }
+
+    private static void finish(SearchMetrics metrics) {
+        if (metrics == null)
+            return;
+        try {
+            metrics.finish();
+        } catch (UncheckedIOException e) {
+            System.out.println("ERROR: " + e.getCause().getMessage());
+        }
+    }
 
-        LevelMap map = LevelMap.fromFile(mapPath);
-        map.addBarberFile(barberPath);
-        map.run();
+    private static void printCacheStats(PathCache cache) {
+        System.out.println("path cache: " + cache.getHits() + " hits, " + cache.getMisses() + " misses, "
+                + cache.getEvictions() + " evictions");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+import benchmarks.Workload;
+
+// one timestep of the given number of agents moved together on a map with 10%
+// walls, each with a goal at most 20 cells away. they are planned cooperatively
+// (with a reservation table) when they start and whenever one is left without a
+// trajectory, and follow their trajectories in between. the agents start over
+// every STEPS timesteps. returns the agents arrived,
+// and counts the time the timestep spent planning and the conflicts it found and
+// resolved
+public final class AgentsWorkload implements Workload {
+    private static final int STEPS = 10;
+
+    private final MapSnapshot map;
+    private final int[] starts;
+    private final int[] goals;
+    private MultiAgentSimulation simulation;
+    // the planner's totals before the last step
+    private long planningNanos;
+    private long conflicts;
+    private long conflictsResolved;
+
+    public AgentsWorkload(int size, int agents) {
+        // distinct starts and goals get hard to find once agents fill the map
+        if (agents * 4 > size * size)
+            throw new IllegalArgumentException(agents + " agents don't fit on a " + size + "x" + size + " map");
+        OccupancyGrid grid = BenchmarkMaps.randomMap(size, size, 0.1, 42);
+        map = MapSnapshot.of(grid, null);
+        int[] queries = BenchmarkMaps.distinctQueries(grid, agents, 20, 7);
+        starts = new int[agents];
+        goals = new int[agents];
+        for (int i = 0; i < agents; i++) {
+            starts[i] = queries[2 * i];
+            goals[i] = queries[2 * i + 1];
+        }
+    }
+
+    @Override
+    public void prepare() {
+        if (simulation != null && simulation.getTimestep() < STEPS && !simulation.isFinished())
+            return;
+        close();
+        simulation = new MultiAgentSimulation(map, starts, goals, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public long run() {
+        MultiAgentPlanner planner = simulation.getPlanner();
+        planningNanos = planner.getPlanningNanos();
+        conflicts = planner.getConflicts();
+        conflictsResolved = planner.getConflictsResolved();
+        simulation.step();
+        return simulation.getArrived();
+    }
+
+    @Override
+    public long count(String quantity) {
+        MultiAgentPlanner planner = simulation.getPlanner();
+        switch (quantity) {
+            case "planningNanos":
+                return planner.getPlanningNanos() - planningNanos;
+            case "conflicts":
+                return planner.getConflicts() - conflicts;
+            case "conflictsResolved":
+                return planner.getConflictsResolved() - conflictsResolved;
+            default:
+                return 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (simulation != null)
+            simulation.close();
+    }
+}
@@ -0,0 +1,37 @@
+import benchmarks.Workload;
+
+import java.util.Random;
+
+// QUERIES random queries solved at once by a BatchPlanner with the given number of
+// threads on one snapshot of a map with 10% walls. returns the paths found
+public final class BatchWorkload implements Workload {
+    static final int QUERIES = 2000;
+
+    private final BatchPlanner planner;
+    private final int[] queries = new int[QUERIES * 3];
+
+    public BatchWorkload(int size, int threads) {
+        OccupancyGrid grid = BenchmarkMaps.randomMap(size, size, 0.1, 42);
+        Random random = new Random(5);
+        for (int q = 0; q < queries.length; q += 3) {
+            queries[q] = BenchmarkMaps.randomOpenCell(grid, random);
+            queries[q + 1] = BenchmarkMaps.randomOpenCell(grid, random);
+        }
+        planner = new BatchPlanner(MapSnapshot.of(grid, null), threads);
+    }
+
+    @Override
+    public long run() {
+        long found = 0;
+        for (int[] path : planner.solve(queries)) {
+            if (path != null)
+                found++;
+        }
+        return found;
+    }
+
+    @Override
+    public void close() {
+        planner.close();
+    }
+}
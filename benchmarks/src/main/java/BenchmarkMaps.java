@@ -0,0 +1,208 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+// synthetic maps, map files and queries the workloads share
+final class BenchmarkMaps {
+
+    private BenchmarkMaps() {
+    }
+
+    // map with walls placed at random with the given density
+    static OccupancyGrid randomMap(int sizeX, int sizeY, double wallDensity, long seed) {
+        Random random = new Random(seed);
+        OccupancyGrid grid = new OccupancyGrid(sizeX, sizeY);
+        for (int index = 0; index < sizeX * sizeY; index++) {
+            if (random.nextDouble() < wallDensity)
+                grid.setWall(index, true);
+        }
+        return grid;
+    }
+
+    // a maze with a single path between any two open cells: open cells at odd x and
+    // y, joined by a depth first walk that knocks down the wall between two cells
+    static OccupancyGrid mazeMap(int sizeX, int sizeY, long seed) {
+        Random random = new Random(seed);
+        OccupancyGrid grid = new OccupancyGrid(sizeX, sizeY);
+        for (int index = 0; index < sizeX * sizeY; index++)
+            grid.setWall(index, true);
+
+        int[] stack = new int[sizeX * sizeY];
+        int top = 0;
+        stack[top++] = sizeY + 1;
+        grid.setWall(sizeY + 1, false);
+        int[] directions = new int[4];
+        while (top > 0) {
+            int cell = stack[top - 1];
+            int x = cell / sizeY;
+            int y = cell % sizeY;
+
+            int count = 0;
+            if (y + 2 < sizeY - 1 && grid.isWall(cell + 2))
+                directions[count++] = 1;
+            if (y - 2 > 0 && grid.isWall(cell - 2))
+                directions[count++] = -1;
+            if (x + 2 < sizeX - 1 && grid.isWall(cell + 2 * sizeY))
+                directions[count++] = sizeY;
+            if (x - 2 > 0 && grid.isWall(cell - 2 * sizeY))
+                directions[count++] = -sizeY;
+            if (count == 0) {
+                top--;
+                continue;
+            }
+
+            int step = directions[random.nextInt(count)];
+            grid.setWall(cell + step, false);
+            grid.setWall(cell + 2 * step, false);
+            stack[top++] = cell + 2 * step;
+        }
+        return grid;
+    }
+
+    // rectangles of a tenth of the map across at most, costing 2 to 9 per step
+    static void addTerrain(OccupancyGrid grid, long seed) {
+        Random random = new Random(seed);
+        int sizeX = grid.getSizeX();
+        int sizeY = grid.getSizeY();
+        int patch = Math.max(1, Math.min(sizeX, sizeY) / 10);
+        for (int p = 0; p < sizeX * sizeY / (patch * patch) / 2; p++) {
+            int x0 = random.nextInt(sizeX);
+            int y0 = random.nextInt(sizeY);
+            int cost = 2 + random.nextInt(8);
+            for (int x = x0; x < Math.min(sizeX, x0 + 1 + random.nextInt(patch)); x++)
+                for (int y = y0; y < Math.min(sizeY, y0 + 1 + random.nextInt(patch)); y++)
+                    grid.setCost(x * sizeY + y, cost);
+        }
+    }
+
+    // write a square map file with walls at the given density, start and goal in
+    // opposite corners, and a barber file with about barberDensity * size * size
+    // barbers at random open cells over the given number of timesteps
+    static void writeMapFiles(Path mapFile, Path barberFile, int size, double wallDensity, double barberDensity,
+            int timesteps, long seed) throws IOException {
+        Random random = new Random(seed);
+        boolean[] wall = new boolean[size * size];
+
+        try (BufferedWriter writer = Files.newBufferedWriter(mapFile)) {
+            writer.write("M " + size + " " + size + "\n");
+            writer.write("S 0 0\n");
+            writer.write("G " + (size - 1) + " " + (size - 1) + "\n");
+            for (int i = 1; i < wall.length - 1; i++) {
+                if (random.nextDouble() < wallDensity) {
+                    wall[i] = true;
+                    writer.write("W " + i % size + " " + i / size + "\n");
+                }
+            }
+            writer.write("E\n");
+        }
+
+        int perTimestep = Math.max(1, (int) (barberDensity * size * size));
+        try (BufferedWriter writer = Files.newBufferedWriter(barberFile)) {
+            for (int t = 0; t < timesteps; t++) {
+                for (int b = 0; b < perTimestep; b++) {
+                    int i;
+                    do {
+                        i = random.nextInt(wall.length);
+                    } while (wall[i]);
+                    writer.write(t + " " + i % size + " " + i / size + "\n");
+                }
+            }
+            writer.write("-1\n");
+        }
+    }
+
+    static void deleteAll(Path directory) {
+        try {
+            for (Path file : Files.newDirectoryStream(directory))
+                Files.delete(file);
+            Files.delete(directory);
+        } catch (IOException e) {
+            // a temporary directory left behind
+        }
+    }
+
+    // count random pairs of open cells, stored as start, goal, start, goal...
+    static int[] openQueries(OccupancyGrid grid, int count, long seed) {
+        Random random = new Random(seed);
+        int[] queries = new int[count * 2];
+        for (int q = 0; q < queries.length; q++)
+            queries[q] = randomOpenCell(grid, random);
+        return queries;
+    }
+
+    // count pairs of open cells at most maxDistance apart, stored as start, goal, start, goal...
+    static int[] shortQueries(OccupancyGrid grid, int maxDistance, int count, long seed) {
+        Random random = new Random(seed);
+        int sizeX = grid.getSizeX();
+        int sizeY = grid.getSizeY();
+        int[] queries = new int[count * 2];
+
+        for (int q = 0; q < queries.length; q += 2) {
+            int x, y, goalX, goalY;
+            do {
+                x = random.nextInt(sizeX);
+                y = random.nextInt(sizeY);
+                goalX = Math.min(sizeX - 1, Math.max(0, x + random.nextInt(2 * maxDistance + 1) - maxDistance));
+                goalY = Math.min(sizeY - 1, Math.max(0, y + random.nextInt(2 * maxDistance + 1) - maxDistance));
+            } while (!grid.isTraversable(x * sizeY + y, 0) || !grid.isTraversable(goalX * sizeY + goalY, 0)
+                    || (x == goalX && y == goalY));
+
+            queries[q] = x * sizeY + y;
+            queries[q + 1] = goalX * sizeY + goalY;
+        }
+        return queries;
+    }
+
+    // like shortQueries, but no two queries share a start or a goal
+    static int[] distinctQueries(OccupancyGrid grid, int count, int maxDistance, long seed) {
+        int size = grid.getSizeX() * grid.getSizeY();
+        boolean[] usedStart = new boolean[size];
+        boolean[] usedGoal = new boolean[size];
+        int[] queries = new int[count * 2];
+        int found = 0;
+
+        for (long round = seed; found < count; round++) {
+            int[] candidates = shortQueries(grid, maxDistance, count, round);
+            for (int q = 0; q < candidates.length && found < count; q += 2) {
+                if (usedStart[candidates[q]] || usedGoal[candidates[q + 1]])
+                    continue;
+                usedStart[candidates[q]] = true;
+                usedGoal[candidates[q + 1]] = true;
+                queries[2 * found] = candidates[q];
+                queries[2 * found + 1] = candidates[q + 1];
+                found++;
+            }
+        }
+        return queries;
+    }
+
+    static int randomOpenCell(OccupancyGrid grid, Random random) {
+        int index;
+        do {
+            index = random.nextInt(grid.getSizeX() * grid.getSizeY());
+        } while (!grid.isTraversable(index, 0));
+        return index;
+    }
+
+    static int randomNeighbour(int index, int size, Random random) {
+        int x = index / size;
+        int y = index % size;
+        switch (random.nextInt(4)) {
+            case 0:
+                y = Math.min(size - 1, y + 1);
+                break;
+            case 1:
+                y = Math.max(0, y - 1);
+                break;
+            case 2:
+                x = Math.min(size - 1, x + 1);
+                break;
+            default:
+                x = Math.max(0, x - 1);
+                break;
+        }
+        return x * size + y;
+    }
+}
@@ -0,0 +1,54 @@
+import benchmarks.Workload;
+
+import java.util.Random;
+
+// A* with a PathCache of the given capacity (0 for none), asked the same ROUTES
+// routes every timestep on a map with 10% walls while barbers (one per thousand
+// cells) patrol back and forth over 8 cells. a route is only searched again once a
+// barber comes near enough to it to change it. each run is one timestep
+public final class CacheWorkload implements Workload {
+    static final int ROUTES = 50;
+    private static final int PATROL = 8;
+
+    private final OccupancyGrid grid;
+    private final Planner planner;
+    private final int[] queries = new int[2 * ROUTES];
+    private final int[] barbers;
+    private int timestep;
+
+    public CacheWorkload(int size, int capacity) {
+        grid = BenchmarkMaps.randomMap(size, size, 0.1, 42);
+        Random random = new Random(3);
+        for (int q = 0; q < queries.length; q++)
+            queries[q] = BenchmarkMaps.randomOpenCell(grid, random);
+        barbers = new int[Math.max(1, size * size / 1000)];
+        for (int i = 0; i < barbers.length; i++)
+            barbers[i] = random.nextInt(size) * size + random.nextInt(size - PATROL);
+
+        Planner engine = new SearchEngine(grid);
+        planner = capacity == 0 ? engine : new CachingPlanner(engine, new PathCache(grid, capacity));
+    }
+
+    @Override
+    public long run() {
+        int phase = timestep % (2 * PATROL);
+        int offset = phase < PATROL ? phase : 2 * PATROL - phase;
+        for (int i = 0; i < barbers.length; i++) {
+            grid.setBarber(barbers[i] + offset, true);
+            planner.cellChanged(barbers[i] + offset);
+        }
+
+        long length = 0;
+        for (int q = 0; q < queries.length; q += 2) {
+            if (planner.search(queries[q], queries[q + 1], timestep))
+                length += planner.getPathLength();
+        }
+
+        for (int i = 0; i < barbers.length; i++) {
+            grid.setBarber(barbers[i] + offset, false);
+            planner.cellChanged(barbers[i] + offset);
+        }
+        timestep++;
+        return length;
+    }
+}
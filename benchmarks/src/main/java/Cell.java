@@ -1,17 +1,16 @@
+// one cell of the Cell[][] LevelMap kept before OccupancyGrid, only here for
+// GridWorkload and LoadWorkload to measure the old map against
 public class Cell {
     protected int x;
     protected int y;
-    protected int f, g;
     private Entity occupant;
     private boolean isStart;
     private boolean isGoal;
     protected boolean isPath;
-    protected Cell parent;
 
     public Cell(int x, int y) {
         this.x = x;
         this.y = y;
-        this.f = -1;
         this.isStart = false;
         this.isGoal = false;
         occupant = Entity.EMPTY;
@@ -47,10 +46,6 @@ public class Cell {
         return this.occupant == Entity.EMPTY;
     }
 
-    public boolean hasParent() {
-        return this.parent != null;
-    }
-
     // how the cell is displayed in the console
     public String display() {
         String symbol = "";
@@ -88,9 +83,9 @@ public class Cell {
 
     @Override
     public String toString() {
-        return String.format("Cell at %d, %d with occupant: %s, isPath: %b, isGoal: %b, isStart: %b, hasParent: %b", x,
+        return String.format("Cell at %d, %d with occupant: %s, isPath: %b, isGoal: %b, isStart: %b", x,
                 y, occupant,
-                isPath, isGoal, isStart, hasParent());
+                isPath, isGoal, isStart);
     }
 
     @Override
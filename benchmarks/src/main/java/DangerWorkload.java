@@ -0,0 +1,74 @@
+import benchmarks.Workload;
+
+import java.util.Random;
+
+// one timestep of keeping the danger zones (radius 2, costlier up to 6 steps away)
+// of the given number of barbers up to date on a map with 5% walls, as half the
+// barbers take a random step: by moving only the zones of the barbers that moved,
+// or by taking every zone away and adding it back. returns the barbers that moved
+public final class DangerWorkload implements Workload {
+    private final int size;
+    private final OccupancyGrid grid;
+    private final Planner planner;
+    private final DangerZones zones;
+    private final boolean every;
+    private final Random random = new Random(3);
+    private final int[] barbers;
+    private final int[] next;
+
+    public DangerWorkload(int size, int barbers, String update) {
+        this.size = size;
+        grid = BenchmarkMaps.randomMap(size, size, 0.05, 42);
+        planner = new SearchEngine(grid);
+        zones = new DangerZones(grid, 2, 6, 8);
+        if (update.equals("every"))
+            every = true;
+        else if (update.equals("moved"))
+            every = false;
+        else
+            throw new IllegalArgumentException("unknown update " + update);
+
+        this.barbers = new int[barbers];
+        next = new int[barbers];
+        for (int i = 0; i < barbers; i++) {
+            // the zones already placed block cells, so only walls and barbers are skipped
+            do {
+                this.barbers[i] = random.nextInt(size * size);
+            } while (grid.isWall(this.barbers[i]) || grid.hasBarber(this.barbers[i]));
+            grid.setBarber(this.barbers[i], true);
+            zones.add(this.barbers[i], planner);
+        }
+    }
+
+    @Override
+    public long run() {
+        // half the barbers take a random step into an empty cell
+        int moved = 0;
+        for (int i = 0; i < barbers.length; i++) {
+            next[i] = barbers[i];
+            int cell = BenchmarkMaps.randomNeighbour(barbers[i], size, random);
+            if (random.nextBoolean() && !grid.isWall(cell) && !grid.hasBarber(cell)) {
+                grid.setBarber(barbers[i], false);
+                grid.setBarber(cell, true);
+                next[i] = cell;
+                moved++;
+            }
+        }
+
+        if (every) {
+            for (int i = 0; i < barbers.length; i++)
+                zones.remove(barbers[i], planner);
+            for (int i = 0; i < barbers.length; i++)
+                zones.add(next[i], planner);
+        } else {
+            for (int i = 0; i < barbers.length; i++) {
+                if (next[i] != barbers[i]) {
+                    zones.remove(barbers[i], planner);
+                    zones.add(next[i], planner);
+                }
+            }
+        }
+        System.arraycopy(next, 0, barbers, 0, barbers.length);
+        return moved;
+    }
+}
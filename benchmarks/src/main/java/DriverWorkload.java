@@ -0,0 +1,59 @@
+import benchmarks.Workload;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// the given number of simulations run at once by SimulationDriver (one thread
+// each), each on its own generated map of rooms with patrolling barbers (one per
+// 500 cells) for TIMESTEPS timesteps, writing a checkpoint every interval
+// timesteps (0 for never). every run starts from no checkpoints. returns the
+// timesteps run
+public final class DriverWorkload implements Workload {
+    static final int TIMESTEPS = 2000;
+
+    private final List<String> names = new ArrayList<>();
+    private final int runs;
+    private final int interval;
+    private final PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+    private Path checkpoints;
+
+    public DriverWorkload(int size, int runs, int interval) {
+        this.runs = runs;
+        this.interval = interval == 0 ? Integer.MAX_VALUE : interval;
+        int barbers = Math.max(1, size * size / 500);
+        for (int i = 0; i < runs; i++)
+            names.add("rooms:" + size + ":" + (42 + i) + ":" + barbers + ":patrol");
+    }
+
+    @Override
+    public void prepare() {
+        if (checkpoints != null)
+            BenchmarkMaps.deleteAll(checkpoints);
+        try {
+            checkpoints = Files.createTempDirectory("checkpoints");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long run() {
+        long total = 0;
+        for (SimulationDriver.Result result : new SimulationDriver(checkpoints, interval, TIMESTEPS, discard)
+                .runAll(names, runs))
+            total += result.getTimesteps();
+        return total;
+    }
+
+    @Override
+    public void close() {
+        if (checkpoints != null)
+            BenchmarkMaps.deleteAll(checkpoints);
+    }
+}
@@ -0,0 +1,41 @@
+import benchmarks.Workload;
+
+import java.util.Random;
+
+// one query after another from 1000 random queries to a PathFinder on a map with
+// 10% walls, as a service embedding it would ask them: returning each path in a
+// new array, or writing it into the caller's buffer. returns the path length
+public final class EmbedWorkload implements Workload {
+    private final PathFinder finder;
+    private final boolean buffered;
+    private final int[] queries = new int[1000 * 2];
+    private final int[] path;
+    private int next;
+
+    public EmbedWorkload(int size, String into) {
+        OccupancyGrid grid = BenchmarkMaps.randomMap(size, size, 0.1, 42);
+        Random random = new Random(5);
+        for (int q = 0; q < queries.length; q++)
+            queries[q] = BenchmarkMaps.randomOpenCell(grid, random);
+        path = new int[size * size];
+        finder = new PathFinder(MapSnapshot.of(grid, null));
+
+        if (into.equals("buffer"))
+            buffered = true;
+        else if (into.equals("array"))
+            buffered = false;
+        else
+            throw new IllegalArgumentException("unknown path destination " + into);
+    }
+
+    @Override
+    public long run() {
+        int start = queries[next];
+        int goal = queries[next + 1];
+        next = (next + 2) % queries.length;
+        if (buffered)
+            return finder.findPath(start, goal, 0, path);
+        int[] found = finder.findPath(start, goal, 0);
+        return found == null ? -1 : found.length;
+    }
+}
@@ -1,3 +1,4 @@
+// what a Cell held before OccupancyGrid, see Cell
 public enum Entity {
     SCANDRO,
     WALL,
@@ -0,0 +1,52 @@
+import benchmarks.Workload;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+// writing a generated map file of one layout (maze, open, rooms or corridors), or a
+// barber file of 1000 barbers walking or patrolling over 10,000 timesteps on a map
+// of rooms, into a stream that only counts the bytes. returns the bytes written
+public final class GenerateWorkload implements Workload {
+    private final MapGenerator generator;
+    private final BarberPattern pattern; // null for a map file
+    private final CountingStream out = new CountingStream();
+
+    public GenerateWorkload(int size, String file) {
+        if (file.equals("walk") || file.equals("patrol")) {
+            generator = new MapGenerator(MapLayout.ROOMS, size, size, 42);
+            pattern = BarberPattern.valueOf(file.toUpperCase());
+        } else {
+            generator = new MapGenerator(MapLayout.valueOf(file.toUpperCase()), size, size, 42);
+            pattern = null;
+        }
+    }
+
+    @Override
+    public long run() {
+        out.written = 0;
+        try {
+            if (pattern == null)
+                generator.writeMap(out);
+            else
+                generator.writeBarbers(out, 1000, 10_000, pattern);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.written;
+    }
+
+    private static final class CountingStream extends OutputStream {
+        long written;
+
+        @Override
+        public void write(int b) {
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            written += len;
+        }
+    }
+}
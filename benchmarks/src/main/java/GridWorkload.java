@@ -0,0 +1,80 @@
+import benchmarks.Workload;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// a map of the given size with 10% walls as a Cell[][] (what LevelMap held before
+// OccupancyGrid) and as an OccupancyGrid: building each, scanning every cell of
+// each, and the full sweep resetBoard() did over the Cell[][] and the search
+// arrays before the search data was generation stamped
+public final class GridWorkload implements Workload {
+    private final int size;
+    private final String operation;
+    private final Cell[][] cells;
+    private final OccupancyGrid grid;
+    private final int[] f;
+    private final int[] g;
+    private final int[] parent;
+
+    public GridWorkload(int size, String operation) {
+        this.size = size;
+        this.operation = operation;
+        cells = randomCells(size, size, 0.1, 42);
+        grid = BenchmarkMaps.randomMap(size, size, 0.1, 42);
+        f = new int[size * size];
+        g = new int[size * size];
+        parent = new int[size * size];
+    }
+
+    @Override
+    public long run() {
+        switch (operation) {
+            case "cellsBuild":
+                return randomCells(size, size, 0.1, 42).length;
+            case "gridBuild":
+                return BenchmarkMaps.randomMap(size, size, 0.1, 42).getWordsPerRow();
+            case "cellsScan":
+                long open = 0;
+                for (int i = 0; i < size; i++) {
+                    for (int j = 0; j < size; j++) {
+                        if (cells[i][j].isTraversable())
+                            open++;
+                    }
+                }
+                return open;
+            case "gridScan":
+                open = 0;
+                for (int x = 0; x < size; x++) {
+                    for (int w = 0; w < grid.getWordsPerRow(); w++)
+                        open += Long.bitCount(~grid.blockedWord(x, w));
+                }
+                return open;
+            case "sweep":
+                for (int i = 0; i < size; i++) {
+                    for (int j = 0; j < size; j++) {
+                        cells[i][j].isPath = false;
+                    }
+                }
+                Arrays.fill(f, -1);
+                Arrays.fill(g, -1);
+                Arrays.fill(parent, -1);
+                return f.length;
+            default:
+                throw new IllegalArgumentException("unknown operation " + operation);
+        }
+    }
+
+    // the same map as BenchmarkMaps.randomMap, as the Cell[][] LevelMap used before OccupancyGrid
+    private static Cell[][] randomCells(int sizeX, int sizeY, double wallDensity, long seed) {
+        Random random = new Random(seed);
+        Cell[][] cells = new Cell[sizeX][sizeY];
+        for (int i = 0; i < sizeX; i++) {
+            for (int j = 0; j < sizeY; j++) {
+                cells[i][j] = new Cell(i, j);
+                if (random.nextDouble() < wallDensity)
+                    cells[i][j].setOccupant(Entity.WALL);
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,52 @@
+import benchmarks.Workload;
+
+// one A* query after another from QUERIES random queries on a maze or a random map
+// with 30% walls, estimating the distance to the goal with the manhattan distance,
+// a goal distance field or 4 or 16 landmarks. the queries all have different
+// goals, so the goal distance field is rebuilt for every query. returns the cells
+// expanded, and counts the bytes per cell of the heuristic's distance tables
+public final class HeuristicWorkload implements Workload {
+    private static final int QUERIES = 100;
+
+    private final SearchEngine engine;
+    private final int[] queries;
+    private final int bytesPerCell;
+    private int next;
+
+    public HeuristicWorkload(int size, String map, String heuristic) {
+        OccupancyGrid grid = map.equals("maze") ? BenchmarkMaps.mazeMap(size, size, 42)
+                : BenchmarkMaps.randomMap(size, size, 0.3, 42);
+        queries = BenchmarkMaps.openQueries(grid, QUERIES, 5);
+        engine = new SearchEngine(grid);
+
+        switch (heuristic) {
+            case "manhattan":
+                bytesPerCell = 0;
+                break;
+            case "goalDistance":
+                engine.setHeuristic(new GoalDistanceHeuristic(grid));
+                bytesPerCell = Character.BYTES;
+                break;
+            case "landmarks4":
+            case "landmarks16":
+                LandmarkHeuristic landmarks = new LandmarkHeuristic(grid, heuristic.equals("landmarks4") ? 4 : 16);
+                engine.setHeuristic(landmarks);
+                bytesPerCell = Character.BYTES * landmarks.getLandmarkCount();
+                break;
+            default:
+                throw new IllegalArgumentException("unknown heuristic " + heuristic);
+        }
+    }
+
+    @Override
+    public long run() {
+        engine.search(queries[next], queries[next + 1], 0);
+        next = (next + 2) % queries.length;
+        return engine.getNodesExpanded();
+    }
+
+    @Override
+    public long count(String quantity) {
+        return quantity.equals("bytesPerCell") ? bytesPerCell : 0;
+    }
+}
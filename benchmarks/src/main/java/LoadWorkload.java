@@ -0,0 +1,149 @@
+import benchmarks.Workload;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+// loading a synthetic map file and its barber file (2 * size timesteps, fewer once
+// it would hold more than MAX_BARBER_RECORDS barbers) with the Scanner based parsing
+// LevelMap.fromFile and addBarberFile did before MapLoader, with MapLoader, and
+// starting a LevelMap from the text files against a binary map file, which reads
+// its barbers later. counts the bytes of the files read
+public final class LoadWorkload implements Workload {
+    private static final long MAX_BARBER_RECORDS = 4_000_000;
+
+    private final Path directory;
+    private final String mapPath;
+    private final String barberPath;
+    private final String binaryPath;
+    private final int size;
+    private final String load;
+    private final long bytes;
+
+    public LoadWorkload(int size, double wallDensity, double barberDensity, String load) throws IOException {
+        this.size = size;
+        this.load = load;
+        directory = Files.createTempDirectory("astar-load");
+        mapPath = directory.resolve("map.txt").toString();
+        barberPath = directory.resolve("barber.txt").toString();
+        binaryPath = directory.resolve("map.bin").toString();
+        int perTimestep = Math.max(1, (int) (barberDensity * size * size));
+        BenchmarkMaps.writeMapFiles(Path.of(mapPath), Path.of(barberPath), size, wallDensity, barberDensity,
+                (int) Math.max(1, Math.min(2L * size, MAX_BARBER_RECORDS / perTimestep)), 42);
+        BinaryMap.convert(mapPath, barberPath, binaryPath);
+        bytes = bytesRead();
+    }
+
+    // the files the load reads. the binary map is counted whole, though only its
+    // walls are read up front
+    private long bytesRead() throws IOException {
+        switch (load) {
+            case "scannerMap":
+            case "mapLoaderMap":
+                return Files.size(Path.of(mapPath));
+            case "scannerBarbers":
+            case "mapLoaderBarbers":
+                return Files.size(Path.of(barberPath));
+            case "levelMapText":
+                return Files.size(Path.of(mapPath)) + Files.size(Path.of(barberPath));
+            case "levelMapBinary":
+                return Files.size(Path.of(binaryPath));
+            default:
+                throw new IllegalArgumentException("unknown load " + load);
+        }
+    }
+
+    @Override
+    public long run() {
+        try {
+            switch (load) {
+                case "scannerMap":
+                    return scannerMap(mapPath).size();
+                case "mapLoaderMap":
+                    return MapLoader.loadMap(mapPath).getWallCount();
+                case "scannerBarbers":
+                    return scannerBarbers(barberPath).size();
+                case "mapLoaderBarbers":
+                    return MapLoader.loadBarbers(barberPath, size, size).getLastTimestep();
+                case "levelMapText":
+                    LevelMap map = LevelMap.fromFile(mapPath);
+                    map.addBarberFile(barberPath);
+                    return map.getSizeX();
+                case "levelMapBinary":
+                    return LevelMap.fromBinaryFile(binaryPath).getSizeX();
+                default:
+                    throw new IllegalArgumentException("unknown load " + load);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long count(String quantity) {
+        return quantity.equals("bytes") ? bytes : 0;
+    }
+
+    @Override
+    public void close() {
+        BenchmarkMaps.deleteAll(directory);
+    }
+
+    // the map file parsing LevelMap.fromFile did before MapLoader
+    private static List<Cell> scannerMap(String path) {
+        List<Cell> walls = new ArrayList<Cell>();
+        try (Scanner sc = new Scanner(new File(path))) {
+            String c;
+            while (sc.hasNextLine()) {
+                c = sc.next();
+                if (c.equals("M")) {
+                    sc.nextInt();
+                    sc.nextInt();
+                } else if (c.equals("S") || c.equals("G")) {
+                    int y = sc.nextInt();
+                    int x = sc.nextInt();
+                    walls.add(new Cell(x, y));
+                } else if (c.equals("W")) {
+                    int y = sc.nextInt();
+                    int x = sc.nextInt();
+                    Cell cell = new Cell(x, y);
+                    cell.setOccupant(Entity.WALL);
+                    walls.add(cell);
+                } else if (c.equals("E")) {
+                    break;
+                }
+            }
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+        return walls;
+    }
+
+    // the barber file parsing LevelMap.addBarberFile did before MapLoader
+    private static Map<Integer, List<Cell>> scannerBarbers(String path) {
+        Map<Integer, List<Cell>> barbers = new HashMap<Integer, List<Cell>>();
+        try (Scanner sc = new Scanner(new File(path))) {
+            while (sc.hasNextLine()) {
+                int timestep = sc.nextInt();
+                if (timestep == -1)
+                    break;
+                int y = sc.nextInt();
+                int x = sc.nextInt();
+                Cell barber = new Cell(x, y);
+                barber.setOccupant(Entity.BARBER);
+                barbers.computeIfAbsent(timestep, t -> new ArrayList<Cell>()).add(barber);
+            }
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+        return barbers;
+    }
+}
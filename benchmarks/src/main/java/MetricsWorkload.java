@@ -0,0 +1,61 @@
+import benchmarks.Workload;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// short A* searches (goal at most 20 cells away, where recording costs the most
+// next to the search) with no metrics, recorded into SearchMetrics' histograms,
+// and also written as a csv line per search
+public final class MetricsWorkload implements Workload {
+    private final SearchEngine engine;
+    private final int[] queries;
+    private final SearchMetrics metrics; // null for none
+    private final Path csv;
+    private int next;
+
+    public MetricsWorkload(int size, String sink) throws IOException {
+        OccupancyGrid grid = BenchmarkMaps.randomMap(size, size, 0.1, 42);
+        engine = new SearchEngine(grid);
+        queries = BenchmarkMaps.shortQueries(grid, 20, 1000, 7);
+
+        csv = Files.createTempFile("metrics", ".csv");
+        switch (sink) {
+            case "none":
+                metrics = null;
+                break;
+            case "histograms":
+                metrics = new SearchMetrics();
+                break;
+            case "csv":
+                metrics = new SearchMetrics();
+                metrics.addSink(new CsvMetricsSink(csv.toString()));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown sink " + sink);
+        }
+    }
+
+    @Override
+    public long run() {
+        long begin = System.nanoTime();
+        boolean found = engine.search(queries[next], queries[next + 1], 0);
+        if (metrics != null) {
+            metrics.recordSearch(engine, found, System.nanoTime() - begin);
+            metrics.endTimestep((int) metrics.getTimesteps());
+        }
+        next = (next + 2) % queries.length;
+        return engine.getPathLength();
+    }
+
+    @Override
+    public void close() {
+        if (metrics != null)
+            metrics.finish();
+        try {
+            Files.deleteIfExists(csv);
+        } catch (IOException e) {
+            // a temporary file left behind
+        }
+    }
+}
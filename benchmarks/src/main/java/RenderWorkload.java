@@ -0,0 +1,108 @@
+import benchmarks.Workload;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// a whole run of a synthetic map (5% walls, barbers on 1% of the cells) drawn cell
+// by cell as LevelMap used to, by BufferedRenderer, by DiffRenderer or not at all.
+// the output goes to a file through a PrintStream set up like System.out (a 128
+// byte buffer, flushed at every line), so every write is a system call as it is
+// on the console. returns the bytes written
+public final class RenderWorkload implements Workload {
+    private final Path directory;
+    private final String mapPath;
+    private final String barberPath;
+    private final String renderer;
+    private final FileOutputStream output;
+    private final PrintStream console;
+    private LevelMap map;
+
+    public RenderWorkload(int size, String renderer) throws IOException {
+        this.renderer = renderer;
+        directory = Files.createTempDirectory("astar-render");
+        mapPath = directory.resolve("map.txt").toString();
+        barberPath = directory.resolve("barber.txt").toString();
+        BenchmarkMaps.writeMapFiles(Path.of(mapPath), Path.of(barberPath), size, 0.05, 0.01, 2 * size, 42);
+        output = new FileOutputStream(directory.resolve("output.txt").toFile());
+        console = new PrintStream(new BufferedOutputStream(output, 128), true);
+    }
+
+    @Override
+    public void prepare() {
+        try {
+            output.getChannel().truncate(0);
+            map = LevelMap.fromFile(mapPath);
+            map.addBarberFile(barberPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        switch (renderer) {
+            case "perCell":
+                map.setRenderer(new PerCellRenderer(console));
+                break;
+            case "buffered":
+                map.setRenderer(new BufferedRenderer(console));
+                break;
+            case "diff":
+                map.setRenderer(new DiffRenderer(console));
+                break;
+            case "headless":
+                map.setRenderer(Renderer.HEADLESS);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown renderer " + renderer);
+        }
+    }
+
+    @Override
+    public long run() {
+        map.run();
+        try {
+            return output.getChannel().size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        console.close();
+        BenchmarkMaps.deleteAll(directory);
+    }
+
+    // how LevelMap.print drew a frame before the renderers: a print call per cell
+    private static final class PerCellRenderer implements Renderer {
+        private final PrintStream out;
+
+        PerCellRenderer(PrintStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void frame(LevelMap map, int timestep) {
+            int sizeX = map.getSizeX();
+            int sizeY = map.getSizeY();
+            out.println("Step: " + timestep);
+            out.println("-".repeat(sizeY * 2 + 3));
+            for (int i = 0; i < sizeX; i++) {
+                out.print("| ");
+                for (int j = 0; j < sizeY; j++) {
+                    out.print(map.display(i * sizeY + j) + " ");
+                }
+                out.println("|");
+            }
+            out.println("-".repeat(sizeY * 2 + 3) + "\n\n");
+        }
+
+        @Override
+        public void message(String text) {
+            out.println(text);
+        }
+    }
+}
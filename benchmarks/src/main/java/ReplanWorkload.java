@@ -0,0 +1,62 @@
+import benchmarks.Workload;
+
+import java.util.Random;
+
+// one timestep of Scandro crossing a map with 5% walls from corner to corner while
+// barbers (one per 100 cells across) take a random step each: the barbers move,
+// then the path is planned again by a full A* search or by the incremental D* Lite
+// planner, and Scandro takes its first step. he starts over from his corner once
+// he reached the goal or is shut in. returns the path length
+public final class ReplanWorkload implements Workload {
+    private final int size;
+    private final OccupancyGrid grid;
+    private final Planner planner;
+    private final Random random = new Random(3);
+    private final int[] barbers;
+    private final int goal;
+    private int start;
+    private int timestep;
+
+    public ReplanWorkload(int size, String planner) {
+        this.size = size;
+        grid = BenchmarkMaps.randomMap(size, size, 0.05, 42);
+        goal = size * size - 1;
+        grid.setWall(0, false);
+        grid.setWall(goal, false);
+
+        if (planner.equals("astar"))
+            this.planner = new SearchEngine(grid);
+        else if (planner.equals("incremental"))
+            this.planner = new IncrementalPlanner(grid);
+        else
+            throw new IllegalArgumentException("unknown planner " + planner);
+
+        barbers = new int[Math.max(1, size / 100)];
+        for (int i = 0; i < barbers.length; i++) {
+            barbers[i] = BenchmarkMaps.randomOpenCell(grid, random);
+            grid.setBarber(barbers[i], true);
+        }
+    }
+
+    @Override
+    public long run() {
+        // every barber takes a random step into an empty cell
+        for (int i = 0; i < barbers.length; i++) {
+            int next = BenchmarkMaps.randomNeighbour(barbers[i], size, random);
+            if (next == start || next == goal || !grid.isTraversable(next, 0))
+                continue;
+            grid.setBarber(barbers[i], false);
+            planner.cellChanged(barbers[i]);
+            grid.setBarber(next, true);
+            planner.cellChanged(next);
+            barbers[i] = next;
+        }
+
+        if (!planner.search(start, goal, timestep++)) {
+            start = 0;
+            return 0;
+        }
+        start = planner.getPathStep(0) == goal ? 0 : planner.getPathStep(0);
+        return planner.getPathLength();
+    }
+}
@@ -0,0 +1,76 @@
+import benchmarks.Workload;
+
+// one query after another from QUERIES random queries, in one search mode on one
+// kind of map: random (walls at the given density, 0 for an open map), maze, or
+// terrain (random walls with patches costing 2 to 9 per step, for the astar,
+// weighted and focal modes only). bidirectionalParallel runs the two sides of
+// bidirectional A* on two threads, and hpa builds its clusters before the first
+// query. returns the cells expanded
+public final class SearchWorkload implements Workload {
+    private static final int QUERIES = 100;
+
+    private final Planner planner;
+    private final int[] queries;
+    private int next;
+
+    public SearchWorkload(int size, String map, double wallDensity, String mode, double epsilon) {
+        OccupancyGrid grid;
+        switch (map) {
+            case "random":
+                grid = BenchmarkMaps.randomMap(size, size, wallDensity, 42);
+                break;
+            case "maze":
+                grid = BenchmarkMaps.mazeMap(size, size, 42);
+                break;
+            case "terrain":
+                grid = BenchmarkMaps.randomMap(size, size, wallDensity, 42);
+                BenchmarkMaps.addTerrain(grid, 42);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown map " + map);
+        }
+        queries = BenchmarkMaps.openQueries(grid, QUERIES, 5);
+
+        switch (mode) {
+            case "astar":
+                planner = new SearchEngine(grid);
+                break;
+            case "jps":
+                planner = new JumpPointSearch(grid);
+                break;
+            case "hpa":
+                planner = new HierarchicalPlanner(grid);
+                planner.search(queries[0], queries[1], 0); // computes every cluster's distances
+                break;
+            case "bidirectional":
+                planner = new BidirectionalSearch(grid);
+                break;
+            case "bidirectionalParallel":
+                planner = new BidirectionalSearch(grid, true);
+                break;
+            case "weighted":
+                SearchEngine weighted = new SearchEngine(grid);
+                weighted.setWeight(1 + epsilon);
+                planner = weighted;
+                break;
+            case "focal":
+                planner = new FocalSearch(grid, epsilon);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown search mode " + mode);
+        }
+    }
+
+    @Override
+    public long run() {
+        planner.search(queries[next], queries[next + 1], 0);
+        next = (next + 2) % queries.length;
+        return planner.getNodesExpanded();
+    }
+
+    @Override
+    public void close() {
+        if (planner instanceof BidirectionalSearch)
+            ((BidirectionalSearch) planner).close();
+    }
+}
@@ -0,0 +1,31 @@
+import benchmarks.Workload;
+
+// a whole headless run across a generated map of corridors with walking barbers
+// (on the given share of the cells), searching every timestep (lookahead 0) or following the
+// last path and only searching once one of its next lookahead steps is blocked.
+// returns the timesteps the run took
+public final class SimulationWorkload implements Workload {
+    private final MapGenerator generator;
+    private final int barbers;
+    private final int lookahead;
+    private LevelMap map;
+
+    public SimulationWorkload(int size, double barberDensity, int lookahead) {
+        generator = new MapGenerator(MapLayout.CORRIDORS, size, size, 42);
+        barbers = Math.max(1, (int) (barberDensity * size * size));
+        this.lookahead = lookahead;
+    }
+
+    @Override
+    public void prepare() {
+        map = LevelMap.fromGenerator(generator, barbers, BarberPattern.WALK);
+        map.setLookahead(lookahead);
+        map.setRenderer(Renderer.HEADLESS);
+    }
+
+    @Override
+    public long run() {
+        map.run();
+        return map.getTimestep();
+    }
+}
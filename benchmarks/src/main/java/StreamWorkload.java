@@ -0,0 +1,77 @@
+import benchmarks.Workload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// pulling TIMESTEPS timesteps of barbers (on a thousandth of the cells) for a map
+// of the given size from each kind of BarberSource: a schedule loaded first, a
+// barber file being tailed, the same behind a BufferedBarberSource, and a random
+// walk generator
+public final class StreamWorkload implements Workload {
+    static final int TIMESTEPS = 1000;
+
+    private final Path directory;
+    private final String barberPath;
+    private final int size;
+    private final String source;
+    private BarberSchedule schedule;
+    private BarberSource walk;
+
+    public StreamWorkload(int size, String source) throws IOException {
+        this.size = size;
+        this.source = source;
+        directory = Files.createTempDirectory("astar-stream");
+        barberPath = directory.resolve("barber.txt").toString();
+        BenchmarkMaps.writeMapFiles(directory.resolve("map.txt"), Path.of(barberPath), size, 0.1, 0.001, TIMESTEPS,
+                42);
+
+        if (source.equals("schedule"))
+            schedule = MapLoader.loadBarbers(barberPath, size, size);
+        if (source.equals("randomWalk")) {
+            MapSnapshot map = MapSnapshot.of(BenchmarkMaps.randomMap(size, size, 0.1, 42), null);
+            walk = new BufferedBarberSource(new RandomWalkBarberSource(map, Math.max(1, size * size / 1000), 42), 64);
+        }
+    }
+
+    // every timestep of the file, or the next TIMESTEPS of the random walk
+    @Override
+    public long run() {
+        if (walk != null)
+            return drain(walk);
+
+        try (BarberSource barbers = open()) {
+            return drain(barbers);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BarberSource open() throws IOException {
+        switch (source) {
+            case "schedule":
+                return new ScheduleBarberSource(schedule);
+            case "tail":
+                return new FileTailBarberSource(barberPath, size, size, 10);
+            case "bufferedTail":
+                return new BufferedBarberSource(new FileTailBarberSource(barberPath, size, size, 10), 64);
+            default:
+                throw new IllegalArgumentException("unknown barber source " + source);
+        }
+    }
+
+    private static long drain(BarberSource source) {
+        long barbers = 0;
+        for (int t = 0; t < TIMESTEPS && source.advance(); t++)
+            barbers += source.count();
+        return barbers;
+    }
+
+    @Override
+    public void close() {
+        if (walk != null)
+            walk.close();
+        BenchmarkMaps.deleteAll(directory);
+    }
+}
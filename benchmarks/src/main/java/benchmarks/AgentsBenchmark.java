@@ -0,0 +1,92 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// time per timestep for 1 to 10,000 cooperatively planned agents, with the part
+// of it spent planning and the conflicts found and resolved per timestep (see
+// AgentsWorkload)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgentsBenchmark {
+
+    @Param({ "1000" })
+    public int size;
+
+    @Param({ "1", "10", "100", "1000", "10000" })
+    public int agents;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() {
+        workload = Workloads.create("AgentsWorkload", size, agents);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        workload.prepare();
+    }
+
+    @TearDown
+    public void tearDown() {
+        workload.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        private long timesteps;
+        private long planningNanos;
+        private long conflicts;
+        private long conflictsResolved;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            timesteps = 0;
+            planningNanos = 0;
+            conflicts = 0;
+            conflictsResolved = 0;
+        }
+
+        public double planningMillis() {
+            return timesteps == 0 ? 0 : planningNanos / 1e6 / timesteps;
+        }
+
+        public double conflicts() {
+            return timesteps == 0 ? 0 : (double) conflicts / timesteps;
+        }
+
+        public double conflictsResolved() {
+            return timesteps == 0 ? 0 : (double) conflictsResolved / timesteps;
+        }
+    }
+
+    @Benchmark
+    public long timestep(Counters counters) {
+        long arrived = workload.run();
+        counters.timesteps++;
+        counters.planningNanos += workload.count("planningNanos");
+        counters.conflicts += workload.count("conflicts");
+        counters.conflictsResolved += workload.count("conflictsResolved");
+        return arrived;
+    }
+}
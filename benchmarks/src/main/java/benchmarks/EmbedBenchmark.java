@@ -0,0 +1,59 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// what a service embedding a PathFinder sees (see EmbedWorkload): query returns the
+// time per query once warmed up, and with -prof gc the bytes allocated per query
+// returning a new array against writing into the caller's buffer. coldQueries is
+// the time of the first 100 queries in a fresh JVM, with no warmup
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmbedBenchmark {
+
+    @Param({ "1000" })
+    public int size;
+
+    @Param({ "array", "buffer" })
+    public String into;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() {
+        workload = Workloads.create("EmbedWorkload", size, into);
+    }
+
+    @Benchmark
+    public long query() {
+        return workload.run();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(5)
+    public long coldQueries() {
+        long length = 0;
+        for (int q = 0; q < 100; q++)
+            length += workload.run();
+        return length;
+    }
+}
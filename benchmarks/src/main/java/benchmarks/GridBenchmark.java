@@ -0,0 +1,45 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// building and scanning a map as a Cell[][] against the bit packed OccupancyGrid,
+// and the old full-grid reset sweep (see GridWorkload). run with -prof gc for the
+// bytes each layout allocates
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class GridBenchmark {
+
+    @Param({ "256", "1024", "4096" })
+    public int size;
+
+    @Param({ "cellsBuild", "gridBuild", "cellsScan", "gridScan", "sweep" })
+    public String operation;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() {
+        workload = Workloads.create("GridWorkload", size, operation);
+    }
+
+    @Benchmark
+    public long grid() {
+        return workload.run();
+    }
+}
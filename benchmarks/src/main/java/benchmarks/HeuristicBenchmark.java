@@ -0,0 +1,77 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// time and cells expanded per A* query with the manhattan distance, the goal
+// distance field and landmark heuristics, and the bytes per cell each heuristic
+// keeps (see HeuristicWorkload)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeuristicBenchmark {
+
+    @Param({ "1000" })
+    public int size;
+
+    @Param({ "maze", "random" })
+    public String map;
+
+    @Param({ "manhattan", "goalDistance", "landmarks4", "landmarks16" })
+    public String heuristic;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() {
+        workload = Workloads.create("HeuristicWorkload", size, map, heuristic);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        private long queries;
+        private long expanded;
+        private long bytesPerCell;
+
+        @Setup(Level.Iteration)
+        public void reset(HeuristicBenchmark benchmark) {
+            queries = 0;
+            expanded = 0;
+            bytesPerCell = benchmark.workload.count("bytesPerCell");
+        }
+
+        // per query
+        public double nodesExpanded() {
+            return queries == 0 ? 0 : (double) expanded / queries;
+        }
+
+        public long bytesPerCell() {
+            return bytesPerCell;
+        }
+    }
+
+    @Benchmark
+    public long query(Counters counters) {
+        long expanded = workload.run();
+        counters.queries++;
+        counters.expanded += expanded;
+        return expanded;
+    }
+}
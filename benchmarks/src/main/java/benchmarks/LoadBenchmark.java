@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// time to parse a synthetic map and barber file, and the MB/s read: the Scanner
+// based parsing the loader replaced against MapLoader, and a LevelMap started from
+// the text files against one from a binary map file (see LoadWorkload)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+
+    @Param({ "10", "256", "1024", "4096" })
+    public int size;
+
+    @Param({ "0.1", "0.25" })
+    public double wallDensity;
+
+    @Param({ "0.01", "0.05" })
+    public double barberDensity;
+
+    @Param({ "scannerMap", "mapLoaderMap", "scannerBarbers", "mapLoaderBarbers", "levelMapText", "levelMapBinary" })
+    public String load;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() {
+        workload = Workloads.create("LoadWorkload", size, wallDensity, barberDensity, load);
+    }
+
+    @TearDown
+    public void tearDown() {
+        workload.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        private long bytes;
+        private long nanos;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            nanos = 0;
+        }
+
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1e3 / nanos;
+        }
+    }
+
+    @Benchmark
+    public long load(Counters counters) {
+        long begin = System.nanoTime();
+        long result = workload.run();
+        counters.nanos += System.nanoTime() - begin;
+        counters.bytes += workload.count("bytes");
+        return result;
+    }
+}
@@ -0,0 +1,149 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// time and cells expanded per random query of every search mode that plans on a
+// fixed grid, on random maps of growing wall density (0 is an open map) and on a
+// maze, and of the modes that use step costs on costly terrain (see
+// SearchWorkload). epsilon only changes the weighted and focal modes
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    @State(Scope.Thread)
+    public static class Uniform {
+        @Param({ "10", "100", "1000", "4096" })
+        public int size;
+
+        @Param({ "0", "0.1", "0.3" })
+        public double wallDensity;
+
+        @Param({ "astar", "jps", "hpa", "bidirectional", "bidirectionalParallel", "weighted", "focal" })
+        public String mode;
+
+        @Param({ "0.5" })
+        public double epsilon;
+
+        private Workload workload;
+
+        @Setup
+        public void setUp() {
+            workload = Workloads.create("SearchWorkload", size, "random", wallDensity, mode, epsilon);
+        }
+
+        @TearDown
+        public void tearDown() {
+            workload.close();
+        }
+    }
+
+    // a maze has no wall density to vary
+    @State(Scope.Thread)
+    public static class Maze {
+        @Param({ "10", "100", "1000", "4096" })
+        public int size;
+
+        @Param({ "astar", "jps", "hpa", "bidirectional", "bidirectionalParallel", "weighted", "focal" })
+        public String mode;
+
+        @Param({ "0.5" })
+        public double epsilon;
+
+        private Workload workload;
+
+        @Setup
+        public void setUp() {
+            workload = Workloads.create("SearchWorkload", size, "maze", 0.0, mode, epsilon);
+        }
+
+        @TearDown
+        public void tearDown() {
+            workload.close();
+        }
+    }
+
+    // the other modes count every step as 1 and refuse a map with costs
+    @State(Scope.Thread)
+    public static class Terrain {
+        @Param({ "10", "100", "1000", "4096" })
+        public int size;
+
+        @Param({ "0.1", "0.3" })
+        public double wallDensity;
+
+        @Param({ "astar", "weighted", "focal" })
+        public String mode;
+
+        @Param({ "0.5" })
+        public double epsilon;
+
+        private Workload workload;
+
+        @Setup
+        public void setUp() {
+            workload = Workloads.create("SearchWorkload", size, "terrain", wallDensity, mode, epsilon);
+        }
+
+        @TearDown
+        public void tearDown() {
+            workload.close();
+        }
+    }
+
+    // cells expanded per query, reported next to the time
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Expansions {
+        private long queries;
+        private long expanded;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            queries = 0;
+            expanded = 0;
+        }
+
+        public double nodesExpanded() {
+            return queries == 0 ? 0 : (double) expanded / queries;
+        }
+
+        long add(long nodes) {
+            queries++;
+            expanded += nodes;
+            return nodes;
+        }
+    }
+
+    @Benchmark
+    public long query(Uniform state, Expansions counters) {
+        return counters.add(state.workload.run());
+    }
+
+    @Benchmark
+    public long mazeQuery(Maze state, Expansions counters) {
+        return counters.add(state.workload.run());
+    }
+
+    @Benchmark
+    public long terrainQuery(Terrain state, Expansions counters) {
+        return counters.add(state.workload.run());
+    }
+}
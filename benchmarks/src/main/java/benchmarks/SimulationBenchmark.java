@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// time of a whole headless run on a generated map, and the timesteps per second it
+// ran, searching every timestep against following the last path with 1, 4 and 16
+// steps checked ahead (see SimulationWorkload). generating the map is left out of
+// the time. a whole run on 1024x1024 already takes about half a minute, so 4096 is
+// left to -p size=4096
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+
+    @Param({ "10", "64", "256", "1024" })
+    public int size;
+
+    @Param({ "0.002", "0.01" })
+    public double barberDensity;
+
+    @Param({ "0", "1", "4", "16" })
+    public int lookahead;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() {
+        workload = Workloads.create("SimulationWorkload", size, barberDensity, lookahead);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        workload.prepare();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        private long timesteps;
+        private long nanos;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            timesteps = 0;
+            nanos = 0;
+        }
+
+        public double timestepsPerSecond() {
+            return nanos == 0 ? 0 : timesteps * 1e9 / nanos;
+        }
+    }
+
+    @Benchmark
+    public long run(Counters counters) {
+        long begin = System.nanoTime();
+        long timesteps = workload.run();
+        counters.nanos += System.nanoTime() - begin;
+        counters.timesteps += timesteps;
+        return timesteps;
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// time per timestep of pulling barbers from each kind of BarberSource (see
+// StreamWorkload), with -prof gc for the bytes allocated per timestep
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamBenchmark {
+
+    @Param({ "1024" })
+    public int size;
+
+    @Param({ "schedule", "tail", "bufferedTail", "randomWalk" })
+    public String source;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() {
+        workload = Workloads.create("StreamWorkload", size, source);
+    }
+
+    @TearDown
+    public void tearDown() {
+        workload.close();
+    }
+
+    // StreamWorkload.TIMESTEPS timesteps
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public long timestep() {
+        return workload.run();
+    }
+}
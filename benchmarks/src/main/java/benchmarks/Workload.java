@@ -0,0 +1,29 @@
+package benchmarks;
+
+// the operation a benchmark measures. the path finder is in the default package,
+// which JMH does not allow benchmarks in and a named package can't import from, so
+// each area's operations are written in a default package class implementing this
+// (eg. SearchWorkload for SearchBenchmark) and made by name, see Workloads
+public interface Workload extends AutoCloseable {
+
+    // called before every run outside the measured time when the benchmark asks
+    // for it, eg. to load a fresh map for a whole simulation
+    default void prepare() {
+    }
+
+    // the measured operation. returns a value for the benchmark to hand back to
+    // JMH, so the work can't be optimized away
+    long run();
+
+    // how much the last run() did of a quantity the benchmark reports next to the
+    // time with its AuxCounters, eg. "bytes" read, or how much the workload holds
+    // of one, eg. "bytesPerCell" of a heuristic's tables. 0 for one it does not count
+    default long count(String quantity) {
+        return 0;
+    }
+
+    // delete temporary files and stop threads
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,27 @@
+package benchmarks;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+// makes the default package workloads, see Workload
+final class Workloads {
+
+    private Workloads() {
+    }
+
+    // a new instance of the named default package class, from the constructor
+    // taking as many arguments as given (JMH params are ints, doubles and strings)
+    static Workload create(String name, Object... args) {
+        try {
+            for (Constructor<?> constructor : Class.forName(name).getDeclaredConstructors()) {
+                if (constructor.getParameterCount() == args.length)
+                    return (Workload) constructor.newInstance(args);
+            }
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("could not set up " + name, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("could not set up " + name, e);
+        }
+        throw new IllegalStateException(name + " has no constructor taking " + args.length + " arguments");
+    }
+}
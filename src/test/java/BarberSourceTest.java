@@ -0,0 +1,130 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// a barber source seeked to an offset taken at some timestep gives the same barbers
+// from then on as the source it was taken from, and walking barbers need somewhere
+// to start
+class BarberSourceTest {
+
+    @Test
+    void randomWalkNeedsAnOpenCell() {
+        OccupancyGrid grid = new OccupancyGrid(5, 4);
+        for (int index = 0; index < 20; index++)
+            grid.setWall(index, true);
+        MapSnapshot map = MapSnapshot.of(grid, null);
+        assertThrows(IllegalArgumentException.class, () -> new RandomWalkBarberSource(map, 1, 7).close());
+
+        grid.setWall(7, false);
+        grid.setWall(11, false);
+        try (BarberSource source = new RandomWalkBarberSource(MapSnapshot.of(grid, null), 3, 7)) {
+            for (int t = 0; t < 10; t++) {
+                source.advance();
+                for (int i = 0; i < source.count(); i++)
+                    assertTrue(source.cell(i) == 7 || source.cell(i) == 11, "timestep " + t);
+            }
+        }
+    }
+
+    @Test
+    void randomWalkSeeks() {
+        MapSnapshot map = MapSnapshot.of(Grids.random(20, 30, 0.2, new Random(13)), null);
+        assertSeeks(() -> new RandomWalkBarberSource(map, 10, 7));
+    }
+
+    @Test
+    void bufferedSeeks() {
+        MapSnapshot map = MapSnapshot.of(Grids.random(20, 30, 0.2, new Random(13)), null);
+        assertSeeks(() -> new BufferedBarberSource(new RandomWalkBarberSource(map, 10, 7), 4));
+    }
+
+    @Test
+    void repeatedScheduleStartsOver() {
+        BarberSchedule schedule = new ArrayBarberSchedule(new int[] { 0, 1, 3, 4 }, new int[] { 5, 6, 7, 8 });
+        try (BarberSource source = new ScheduleBarberSource(schedule, true)) {
+            for (int t = 0; t < 10; t++) {
+                assertTrue(source.advance(), "timestep " + t);
+                assertEquals(schedule.count(t % 3), source.count(), "timestep " + t);
+                assertEquals(schedule.cell(t % 3, 0), source.cell(0), "timestep " + t);
+            }
+        }
+        assertSeeks(() -> new ScheduleBarberSource(schedule, true));
+    }
+
+    @Test
+    void generatedSeeks() {
+        MapGenerator generator = new MapGenerator(MapLayout.ROOMS, 40, 40, 3);
+        for (BarberPattern pattern : BarberPattern.values())
+            assertSeeks(() -> generator.barberSource(10, pattern));
+    }
+
+    @Test
+    void fileTailSeeks(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("barbers.txt");
+        StringBuilder lines = new StringBuilder();
+        for (int t = 0; t < 40; t++)
+            lines.append(t).append(' ').append(t % 7).append(' ').append(t % 5).append('\n');
+        Files.writeString(file, lines.append("-1\n"));
+        assertSeeks(() -> {
+            try {
+                return new FileTailBarberSource(file.toString(), 5, 7, 10);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // lines are counted from the offset a source was seeked to, also when it had
+    // read further before
+    @Test
+    void fileTailCountsLinesFromTheSeek(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("barbers.txt");
+        Files.writeString(file, "0 1 1\n1 2 2\n2 3 3\n3 1 1\n4 4\n-1\n");
+        try (FileTailBarberSource source = new FileTailBarberSource(file.toString(), 5, 5, 10)) {
+            source.advance();
+            long offset = source.offset();
+            source.advance();
+            source.advance();
+
+            source.seek(offset, 0, null);
+            source.advance();
+            source.advance();
+            UncheckedIOException e = assertThrows(UncheckedIOException.class, source::advance);
+            assertEquals(4, ((MapFormatException) e.getCause()).getLine(), e.getMessage());
+        }
+    }
+
+    private static void assertSeeks(Supplier<BarberSource> sources) {
+        for (int taken = 0; taken < 30; taken += 7) {
+            try (BarberSource first = sources.get(); BarberSource resumed = sources.get()) {
+                for (int t = 0; t <= taken; t++)
+                    first.advance();
+                resumed.seek(first.offset(), taken, first.barbers());
+
+                for (int t = taken + 1; t < 40; t++) {
+                    String at = "taken at " + taken + ", timestep " + t;
+                    assertEquals(first.advance(), resumed.advance(), at);
+                    assertArrayEquals(cells(first), cells(resumed), at);
+                }
+            }
+        }
+    }
+
+    private static int[] cells(BarberSource source) {
+        int[] cells = new int[source.count()];
+        for (int i = 0; i < cells.length; i++)
+            cells[i] = source.cell(i);
+        return cells;
+    }
+}
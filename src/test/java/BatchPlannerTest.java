@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// BatchPlanner finds the same paths on one thread as on several, each of them a
+// valid path on the snapshot at its query's timestep, and null for a goal that
+// can't be reached
+class BatchPlannerTest {
+
+    @Test
+    void sameValidPathsOnAnyNumberOfThreads() {
+        Random random = new Random(5);
+        for (int m = 0; m < 20; m++) {
+            OccupancyGrid grid = Grids.random(5 + random.nextInt(30), 5 + random.nextInt(30),
+                    random.nextDouble() * 0.3, random);
+            MapSnapshot map = MapSnapshot.of(grid,
+                    SpaceTimePlannerTest.randomWalks(grid, 1 + random.nextInt(10), 1 + random.nextInt(20), random));
+            int size = grid.getSizeX() * grid.getSizeY();
+            int[] queries = new int[3 * (1 + random.nextInt(300))];
+            for (int q = 0; q < queries.length; q += 3) {
+                queries[q] = random.nextInt(size);
+                queries[q + 1] = random.nextInt(size);
+                queries[q + 2] = random.nextInt(map.getLastTimestep() + 2);
+            }
+
+            int[][] expected;
+            try (BatchPlanner planner = new BatchPlanner(map, 1)) {
+                expected = planner.solve(queries);
+            }
+            for (int q = 0; q < expected.length; q++) {
+                if (expected[q] != null)
+                    PlannerAssertions.assertValidPath(map, expected[q], queries[3 * q], queries[3 * q + 1],
+                            queries[3 * q + 2], "map " + m + ", query " + q);
+            }
+            for (int threads : new int[] { 2, 4, 8 }) {
+                try (BatchPlanner planner = new BatchPlanner(map, threads)) {
+                    int[][] paths = planner.solve(queries);
+                    for (int q = 0; q < expected.length; q++)
+                        assertArrayEquals(expected[q], paths[q],
+                                "map " + m + ", query " + q + " on " + threads + " threads");
+                }
+            }
+        }
+    }
+
+    @Test
+    void unreachableGoal() {
+        // the goal at (3, 3) is walled in on all four sides
+        OccupancyGrid grid = new OccupancyGrid(7, 7);
+        for (int wall : new int[] { 2 * 7 + 3, 4 * 7 + 3, 3 * 7 + 2, 3 * 7 + 4 })
+            grid.setWall(wall, true);
+        MapSnapshot map = MapSnapshot.of(grid, null);
+
+        try (BatchPlanner planner = new BatchPlanner(map, 2)) {
+            int[][] paths = planner.solve(new int[] { 0, 3 * 7 + 3, 0, 0, 48, 0 });
+            assertNull(paths[0]);
+            assertNotNull(paths[1]);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// BidirectionalSearch, sequential and parallel, finds paths as short as SearchEngine's
+class BidirectionalSearchTest {
+
+    @Test
+    void sequentialSameLengthsAsAStar() {
+        assertSameLengths(false);
+    }
+
+    @Test
+    void parallelSameLengthsAsAStar() {
+        assertSameLengths(true);
+    }
+
+    private static void assertSameLengths(boolean parallel) {
+        Random random = new Random(17);
+        for (int m = 0; m < 200; m++) {
+            int sizeX = 1 + random.nextInt(80);
+            int sizeY = 1 + random.nextInt(80);
+            OccupancyGrid grid = Grids.random(sizeX, sizeY, random.nextDouble() * 0.45, random);
+            for (int b = random.nextInt(1 + sizeX * sizeY / 20); b > 0; b--)
+                grid.setBarber(random.nextInt(sizeX * sizeY), true);
+
+            SearchEngine engine = new SearchEngine(grid);
+            try (BidirectionalSearch planner = new BidirectionalSearch(grid, parallel)) {
+                for (int q = 0; q < 10; q++) {
+                    int start = random.nextInt(sizeX * sizeY);
+                    int goal = random.nextInt(sizeX * sizeY);
+                    if (start == goal)
+                        continue;
+
+                    String query = "map " + m + ", " + start + " -> " + goal;
+                    boolean found = engine.search(start, goal, 0);
+                    assertEquals(found, planner.search(start, goal, 0), query);
+                    if (found) {
+                        assertEquals(engine.getPathLength(), planner.getPathLength(), query);
+                        PlannerAssertions.assertValidPath(grid, planner, start, goal, 0, query);
+                    }
+                }
+            }
+        }
+    }
+}
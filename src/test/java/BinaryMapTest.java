@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// a map and barber file converted into a binary map file load as the same map as
+// the text files: the same size, start, goal, walls, terrain costs and barbers, for
+// generated maps, the checked in maps and maps with terrain costs
+class BinaryMapTest {
+
+    @Test
+    void generatedMaps(@TempDir Path directory) throws IOException {
+        for (MapLayout layout : MapLayout.values()) {
+            MapGenerator generator = new MapGenerator(layout, 37, 23, 5);
+            Path map = directory.resolve(layout + "map.txt");
+            Path barbers = directory.resolve(layout + "barbers.txt");
+            try (OutputStream out = Files.newOutputStream(map)) {
+                generator.writeMap(out);
+            }
+            try (OutputStream out = Files.newOutputStream(barbers)) {
+                generator.writeBarbers(out, 20, 50, BarberPattern.WALK);
+            }
+
+            assertSameMap(MapSnapshot.load(map.toString(), barbers.toString()),
+                    convert(map, barbers, directory.resolve(layout + ".bin")));
+        }
+    }
+
+    @Test
+    void checkedInMaps(@TempDir Path directory) throws IOException {
+        for (String name : new String[] { "cup", "goaround", "goaroundfake" }) {
+            Path map = Path.of(astar.mapPath(name));
+            Path barbers = Path.of(astar.barberPath(name));
+            assertSameMap(MapSnapshot.load(map.toString(), barbers.toString()),
+                    convert(map, barbers, directory.resolve(name + ".bin")));
+        }
+    }
+
+    @Test
+    void keepsTerrainCosts(@TempDir Path directory) throws IOException {
+        Path map = directory.resolve("map.txt");
+        Path barbers = directory.resolve("barbers.txt");
+        Files.writeString(map, "M 7 5\nS 0 0\nG 6 4\nW 1 1\nW 2 3\nC 3 0 5\nC 4 2 256\nC 0 4 2\nE\n");
+        Files.writeString(barbers, "0 1 2\n1 2 2\n1 5 3\n-1\n");
+
+        MapSnapshot binary = convert(map, barbers, directory.resolve("map.bin"));
+        assertTrue(binary.hasCosts());
+        assertSameMap(MapSnapshot.load(map.toString(), barbers.toString()), binary);
+    }
+
+    // before the costs section, the header had 0 where it now counts the costs
+    @Test
+    void readsVersionOneFiles(@TempDir Path directory) throws IOException {
+        Path map = directory.resolve("map.txt");
+        Path barbers = directory.resolve("barbers.txt");
+        Path binary = directory.resolve("map.bin");
+        Files.writeString(map, "M 7 5\nS 0 0\nG 6 4\nW 1 1\nW 2 3\nE\n");
+        Files.writeString(barbers, "0 1 2\n1 2 2\n1 5 3\n-1\n");
+        BinaryMap.convert(map.toString(), barbers.toString(), binary.toString());
+        try (RandomAccessFile file = new RandomAccessFile(binary.toFile(), "rw")) {
+            file.seek(4);
+            file.writeInt(1);
+        }
+
+        assertSameMap(MapSnapshot.load(map.toString(), barbers.toString()), MapSnapshot.loadBinary(binary.toString()));
+    }
+
+    private static MapSnapshot convert(Path map, Path barbers, Path binary) throws IOException {
+        BinaryMap.convert(map.toString(), barbers.toString(), binary.toString());
+        return MapSnapshot.loadBinary(binary.toString());
+    }
+
+    private static void assertSameMap(MapSnapshot expected, MapSnapshot actual) {
+        assertEquals(expected.getSizeX(), actual.getSizeX());
+        assertEquals(expected.getSizeY(), actual.getSizeY());
+        assertEquals(expected.getStart(), actual.getStart());
+        assertEquals(expected.getGoal(), actual.getGoal());
+        assertEquals(expected.getLastTimestep(), actual.getLastTimestep());
+        for (int index = 0; index < expected.getSizeX() * expected.getSizeY(); index++) {
+            assertEquals(expected.isWall(index), actual.isWall(index), "wall at " + index);
+            assertEquals(expected.getCost(index), actual.getCost(index), "cost at " + index);
+            for (int t = 0; t <= expected.getLastTimestep(); t++)
+                assertEquals(expected.hasBarber(index, t), actual.hasBarber(index, t), "barber at " + index + ", " + t);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// weighted A* (SearchEngine with a weight of 1 + epsilon) and FocalSearch find a
+// path exactly when A* does, and it costs at most 1 + epsilon times the cheapest, on
+// maps where steps cost 1 to 9
+class BoundedSearchTest {
+    private static final double[] EPSILONS = { 0, 0.25, 0.5, 1, 3 };
+
+    @Test
+    void weightedWithinBound() {
+        assertWithinBound(false);
+    }
+
+    @Test
+    void focalWithinBound() {
+        assertWithinBound(true);
+    }
+
+    private static void assertWithinBound(boolean focal) {
+        Random random = new Random(20);
+        for (int m = 0; m < 100; m++) {
+            int sizeX = 1 + random.nextInt(60);
+            int sizeY = 1 + random.nextInt(60);
+            OccupancyGrid grid = Grids.random(sizeX, sizeY, random.nextDouble() * 0.35, random);
+            for (int index = 0; index < sizeX * sizeY; index++)
+                grid.setCost(index, 1 + random.nextInt(9));
+            SearchEngine engine = new SearchEngine(grid);
+
+            for (double epsilon : EPSILONS) {
+                Planner planner;
+                if (focal) {
+                    planner = new FocalSearch(grid, epsilon);
+                } else {
+                    SearchEngine weighted = new SearchEngine(grid);
+                    weighted.setWeight(1 + epsilon);
+                    planner = weighted;
+                }
+
+                for (int q = 0; q < 5; q++) {
+                    int start = random.nextInt(sizeX * sizeY);
+                    int goal = random.nextInt(sizeX * sizeY);
+                    if (start == goal)
+                        continue;
+
+                    String query = "map " + m + ", epsilon " + epsilon + ", " + start + " -> " + goal;
+                    boolean found = engine.search(start, goal, 0);
+                    assertEquals(found, planner.search(start, goal, 0), query);
+                    if (!found)
+                        continue;
+
+                    int cheapest = PlannerAssertions.assertValidPath(grid, engine, start, goal, 0, query);
+                    int cost = PlannerAssertions.assertValidPath(grid, planner, start, goal, 0, query);
+                    assertTrue(cost >= cheapest && cost <= (1 + epsilon) * cheapest,
+                            query + ": costs " + cost + ", the cheapest " + cheapest);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// a CachingPlanner's paths cost as little as SearchEngine's while barbers move,
+// Scandro follows the path and some queries come back, and the cache gets hits
+class CachingPlannerTest {
+
+    @Test
+    void sameCostsAsAStarWithMovingBarbers() {
+        Random random = new Random(15);
+        long hits = 0;
+        for (int m = 0; m < 100; m++) {
+            int sizeX = 2 + random.nextInt(39);
+            int sizeY = 2 + random.nextInt(39);
+            OccupancyGrid grid = Grids.random(sizeX, sizeY, random.nextDouble() * 0.3, random);
+            if (random.nextBoolean()) {
+                for (int index = 0; index < sizeX * sizeY; index++)
+                    grid.setCost(index, 1 + random.nextInt(4));
+            }
+            int[] barbers = new int[random.nextInt(1 + sizeX * sizeY / 50)];
+            for (int b = 0; b < barbers.length; b++) {
+                barbers[b] = random.nextInt(sizeX * sizeY);
+                grid.setBarber(barbers[b], true);
+            }
+
+            SearchEngine engine = new SearchEngine(grid);
+            PathCache cache = new PathCache(grid, 8);
+            CachingPlanner planner = new CachingPlanner(new SearchEngine(grid), cache);
+            int start = random.nextInt(sizeX * sizeY);
+            int goal = random.nextInt(sizeX * sizeY);
+            for (int t = 0; t < 40 && start != goal; t++) {
+                String query = "map " + m + " at timestep " + t + ", " + start + " -> " + goal;
+                boolean found = engine.search(start, goal, t);
+                assertEquals(found, planner.search(start, goal, t), query);
+                if (found) {
+                    int cheapest = PlannerAssertions.assertValidPath(grid, engine, start, goal, t, query);
+                    assertEquals(cheapest, PlannerAssertions.assertValidPath(grid, planner, start, goal, t, query),
+                            query);
+                    // now and then a new start, to ask routes that are cached again later
+                    start = random.nextInt(4) == 0 ? random.nextInt(sizeX * sizeY) : planner.getPathStep(0);
+                }
+
+                for (int b = 0; b < barbers.length; b++) {
+                    int next = Grids.randomNeighbour(grid, barbers[b], random);
+                    if (grid.isWall(next) || grid.hasBarber(next))
+                        continue;
+                    grid.setBarber(barbers[b], false);
+                    grid.setBarber(next, true);
+                    planner.cellChanged(barbers[b]);
+                    planner.cellChanged(next);
+                    barbers[b] = next;
+                }
+            }
+            hits += cache.getHits();
+        }
+        assertTrue(hits > 0, "the cache never hit");
+    }
+}
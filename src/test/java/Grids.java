@@ -0,0 +1,40 @@
+import java.util.Random;
+
+// random maps for the tests
+final class Grids {
+
+    private Grids() {
+    }
+
+    // walls placed at random with the given density
+    static OccupancyGrid random(int sizeX, int sizeY, double wallDensity, Random random) {
+        OccupancyGrid grid = new OccupancyGrid(sizeX, sizeY);
+        for (int index = 0; index < sizeX * sizeY; index++) {
+            if (random.nextDouble() < wallDensity)
+                grid.setWall(index, true);
+        }
+        return grid;
+    }
+
+    // one of the up to 4 cells next to index, chosen at random
+    static int randomNeighbour(Grid grid, int index, Random random) {
+        int sizeY = grid.getSizeY();
+        int x = index / sizeY;
+        int y = index % sizeY;
+        switch (random.nextInt(4)) {
+            case 0:
+                y = Math.min(sizeY - 1, y + 1);
+                break;
+            case 1:
+                y = Math.max(0, y - 1);
+                break;
+            case 2:
+                x = Math.min(grid.getSizeX() - 1, x + 1);
+                break;
+            default:
+                x = Math.max(0, x - 1);
+                break;
+        }
+        return x * sizeY + y;
+    }
+}
@@ -0,0 +1,46 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// HierarchicalPlanner finds a path exactly when SearchEngine does, goals on walls
+// included, and its paths are walkable and no shorter than SearchEngine's (they are
+// not always the shortest ones)
+class HierarchicalPlannerTest {
+
+    @Test
+    void findsAPathWhenAStarDoes() {
+        Random random = new Random(7);
+        for (int m = 0; m < 200; m++) {
+            int sizeX = 1 + random.nextInt(60);
+            int sizeY = 1 + random.nextInt(60);
+            OccupancyGrid grid = Grids.random(sizeX, sizeY, random.nextDouble() * 0.4, random);
+            SearchEngine engine = new SearchEngine(grid);
+            HierarchicalPlanner planner = new HierarchicalPlanner(grid, 2 + random.nextInt(12));
+
+            for (int t = 0; t < 10; t++) {
+                // barbers come and go between queries
+                for (int b = random.nextInt(1 + sizeX * sizeY / 20); b > 0; b--) {
+                    int cell = random.nextInt(sizeX * sizeY);
+                    grid.setBarber(cell, !grid.hasBarber(cell));
+                    planner.cellChanged(cell);
+                }
+
+                int start = random.nextInt(sizeX * sizeY);
+                int goal = random.nextInt(sizeX * sizeY);
+                if (start == goal || grid.isWall(start))
+                    continue;
+
+                String query = "map " + m + " at timestep " + t + ", " + start + " -> " + goal;
+                boolean found = engine.search(start, goal, t);
+                assertEquals(found, planner.search(start, goal, t), query);
+                if (found) {
+                    PlannerAssertions.assertValidPath(grid, planner, start, goal, t, query);
+                    assertTrue(planner.getPathLength() >= engine.getPathLength(), query);
+                }
+            }
+        }
+    }
+}
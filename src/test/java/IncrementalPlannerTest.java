@@ -0,0 +1,52 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// IncrementalPlanner finds paths as short as SearchEngine's while barbers move
+// around and Scandro walks along the path, as LevelMap uses it
+class IncrementalPlannerTest {
+
+    @Test
+    void sameLengthsAsAStarWithMovingBarbers() {
+        Random random = new Random(4);
+        for (int m = 0; m < 100; m++) {
+            int sizeX = 2 + random.nextInt(39);
+            int sizeY = 2 + random.nextInt(39);
+            OccupancyGrid grid = Grids.random(sizeX, sizeY, random.nextDouble() * 0.3, random);
+            int[] barbers = new int[random.nextInt(1 + sizeX * sizeY / 10)];
+            for (int b = 0; b < barbers.length; b++) {
+                barbers[b] = random.nextInt(sizeX * sizeY);
+                grid.setBarber(barbers[b], true);
+            }
+
+            SearchEngine engine = new SearchEngine(grid);
+            IncrementalPlanner planner = new IncrementalPlanner(grid);
+            int start = random.nextInt(sizeX * sizeY);
+            int goal = random.nextInt(sizeX * sizeY);
+            for (int t = 0; t < 30 && start != goal; t++) {
+                String query = "map " + m + " at timestep " + t + ", " + start + " -> " + goal;
+                boolean found = engine.search(start, goal, t);
+                assertEquals(found, planner.search(start, goal, t), query);
+                if (found) {
+                    assertEquals(engine.getPathLength(), planner.getPathLength(), query);
+                    PlannerAssertions.assertValidPath(grid, planner, start, goal, t, query);
+                    start = planner.getPathStep(0);
+                }
+
+                // every barber steps to a random neighbour that is not a wall or another barber
+                for (int b = 0; b < barbers.length; b++) {
+                    int next = Grids.randomNeighbour(grid, barbers[b], random);
+                    if (grid.isWall(next) || grid.hasBarber(next))
+                        continue;
+                    grid.setBarber(barbers[b], false);
+                    grid.setBarber(next, true);
+                    planner.cellChanged(barbers[b]);
+                    planner.cellChanged(next);
+                    barbers[b] = next;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// map and barber files that do not follow the format are reported as a
+// MapFormatException with the file, the line the problem is on and what it is
+class MapLoaderTest {
+
+    @Test
+    void badMapSize(@TempDir Path directory) throws IOException {
+        assertMapError(directory, "M 0 5\nS 0 0\nG 1 1\nE\n", 1, "map size must be positive");
+        assertMapError(directory, "M 7 five\nS 0 0\nG 1 1\nE\n", 1, "expected a number");
+        assertMapError(directory, "S 0 0\nM 7 5\nG 1 1\nE\n", 1, "the map size (M) must come before any cell");
+    }
+
+    @Test
+    void badCoordinate(@TempDir Path directory) throws IOException {
+        assertMapError(directory, "M 7 5\nS 0 0\nG 6 4\nW 2 5\nE\n", 4, "cell 2 5 is outside the map (M 7 5)");
+        assertMapError(directory, "M 7 5\nS 0 0\nG 6 4\nW -1 2\nE\n", 4, "cell -1 2 is outside the map (M 7 5)");
+        assertMapError(directory, "M 7 5\nS 0 0\nG 6 x4\nE\n", 3, "expected a number");
+        assertBarberError(directory, "0 1 1\n1 7 0\n-1\n", 2, "cell 7 0 is outside the map (M 7 5)");
+    }
+
+    @Test
+    void truncatedLine(@TempDir Path directory) throws IOException {
+        assertMapError(directory, "M 7 5\nS 0\nG 6 4\nE\n", 2, "line ends early, expected a number");
+        assertMapError(directory, "M 7 5\nS 0 0\nG 6 4\nC 3 3\nE\n", 4, "line ends early, expected a number");
+        assertMapError(directory, "M 7 5\nS 0 0\nG 6", 3, "unexpected end of file, expected a number");
+        assertBarberError(directory, "0 1 1\n1 2\n2 3 3\n-1\n", 2, "line ends early, expected a number");
+    }
+
+    private static void assertMapError(Path directory, String text, int line, String message) throws IOException {
+        Path map = directory.resolve("map.txt");
+        Files.writeString(map, text);
+        MapFormatException e = assertThrows(MapFormatException.class, () -> MapLoader.loadMap(map.toString()));
+        assertError(map, line, message, e);
+    }
+
+    private static void assertBarberError(Path directory, String text, int line, String message) throws IOException {
+        Path barbers = directory.resolve("barbers.txt");
+        Files.writeString(barbers, text);
+        MapFormatException e = assertThrows(MapFormatException.class,
+                () -> MapLoader.loadBarbers(barbers.toString(), 5, 7));
+        assertError(barbers, line, message, e);
+    }
+
+    private static void assertError(Path file, int line, String message, MapFormatException e) {
+        assertEquals(file.toString(), e.getPath());
+        assertEquals(line, e.getLine(), e.getMessage());
+        assertEquals(file + ":" + line + ": " + message, e.getMessage());
+    }
+}
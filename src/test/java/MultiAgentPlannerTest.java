@@ -0,0 +1,148 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// agents planned by MultiAgentPlanner and moved by MultiAgentSimulation never share
+// a cell or swap cells in a timestep, get past each other in a corridor with one
+// passing place, and the planner's counters add up to the agents it planned again
+class MultiAgentPlannerTest {
+
+    @Test
+    void noSharedOrSwappedCellsOnRandomMaps() {
+        Random random = new Random(3);
+        for (int m = 0; m < 100; m++) {
+            OccupancyGrid grid = Grids.random(4 + random.nextInt(12), 4 + random.nextInt(12),
+                    random.nextDouble() * 0.2, random);
+            int[] cells = openCells(grid, 2 + 2 * random.nextInt(10), random);
+            int[] starts = Arrays.copyOf(cells, cells.length / 2);
+            int[] goals = Arrays.copyOfRange(cells, cells.length / 2, cells.length / 2 * 2);
+            MapSnapshot map = MapSnapshot.of(grid, null);
+
+            try (MultiAgentSimulation simulation = new MultiAgentSimulation(map, starts, goals, 2)) {
+                int[] before = starts.clone();
+                for (int t = 0; t < 60 && simulation.step(); t++) {
+                    int[] after = positions(simulation, starts.length);
+                    assertMoves(map, before, after, "map " + m + " at timestep " + t);
+                    before = after;
+                }
+            }
+        }
+    }
+
+    @Test
+    void passInACorridor() {
+        // a corridor along x = 1 from (1, 0) to (1, 6), with a passing place at (0, 5).
+        // the agents start at either end, each heading for the other end
+        OccupancyGrid grid = new OccupancyGrid(3, 7);
+        for (int index = 0; index < 21; index++)
+            grid.setWall(index, index / 7 != 1 && index != 5);
+        MapSnapshot map = MapSnapshot.of(grid, null);
+        int[] starts = { 7, 13 };
+        int[] goals = { 13, 7 };
+
+        try (MultiAgentSimulation simulation = new MultiAgentSimulation(map, starts, goals, 1)) {
+            int[] before = starts.clone();
+            boolean passed = false;
+            for (int t = 0; t < 20 && simulation.step(); t++) {
+                int[] after = positions(simulation, 2);
+                assertMoves(map, before, after, "timestep " + t);
+                passed |= after[1] == 5;
+                before = after;
+            }
+
+            assertTrue(simulation.isFinished(), "both agents reach their goals");
+            assertTrue(passed, "the second agent steps aside into the passing place");
+            assertTrue(simulation.getPlanner().getConflictsResolved() > 0);
+        }
+    }
+
+    @Test
+    void conflictsCountTheAgentsPlannedAgain() {
+        Random random = new Random(9);
+        for (int m = 0; m < 50; m++) {
+            OccupancyGrid grid = Grids.random(6 + random.nextInt(10), 6 + random.nextInt(10),
+                    random.nextDouble() * 0.2, random);
+            MapSnapshot map = MapSnapshot.of(grid, null);
+            int[] cells = openCells(grid, 4 + 2 * random.nextInt(15), random);
+            int[] positions = Arrays.copyOf(cells, cells.length / 2);
+            int[] goals = Arrays.copyOfRange(cells, cells.length / 2, cells.length / 2 * 2);
+
+            try (MultiAgentPlanner planner = new MultiAgentPlanner(map, 1);
+                    BatchPlanner batch = new BatchPlanner(map, 1)) {
+                int[] queries = new int[positions.length * 3];
+                for (int i = 0; i < positions.length; i++) {
+                    queries[3 * i] = positions[i];
+                    queries[3 * i + 1] = goals[i];
+                }
+                int[][] independent = batch.solve(queries);
+                int[][] paths = planner.plan(positions, goals, 0);
+
+                // an agent was planned again when it has an independent path but did
+                // not keep it, and the plan found a way around the others when it has one
+                int replanned = 0;
+                int resolved = 0;
+                int kept = 0;
+                for (int i = 0; i < positions.length; i++) {
+                    if (positions[i] == goals[i] || independent[i] == null)
+                        continue;
+                    if (paths[i] != null && Arrays.equals(paths[i], independent[i])) {
+                        kept++;
+                    } else {
+                        replanned++;
+                        if (paths[i] != null)
+                            resolved++;
+                    }
+                }
+
+                String query = "map " + m;
+                assertEquals(replanned, planner.getConflicts(), query);
+                assertEquals(resolved, planner.getConflictsResolved(), query);
+                assertEquals(kept, planner.getPlannedIndependently(), query);
+            }
+        }
+    }
+
+    // every agent stayed or stepped to an open cell next to it, no two agents are
+    // on one cell, and no two agents swapped cells
+    private static void assertMoves(MapSnapshot map, int[] before, int[] after, String query) {
+        int sizeY = map.getSizeY();
+        for (int i = 0; i < after.length; i++) {
+            int distance = Math.abs(after[i] / sizeY - before[i] / sizeY) + Math.abs(after[i] % sizeY - before[i] % sizeY);
+            assertTrue(distance <= 1, query + ": agent " + i + " jumped");
+            assertTrue(!map.isWall(after[i]), query + ": agent " + i + " is in a wall");
+            for (int j = 0; j < i; j++) {
+                assertNotEquals(after[i], after[j], query + ": agents " + j + " and " + i + " share a cell");
+                assertTrue(after[i] != before[j] || after[j] != before[i],
+                        query + ": agents " + j + " and " + i + " swapped cells");
+            }
+        }
+    }
+
+    private static int[] positions(MultiAgentSimulation simulation, int agents) {
+        int[] positions = new int[agents];
+        for (int i = 0; i < agents; i++)
+            positions[i] = simulation.getPosition(i);
+        return positions;
+    }
+
+    // distinct open cells, fewer when the map has fewer
+    private static int[] openCells(OccupancyGrid grid, int count, Random random) {
+        int size = grid.getSizeX() * grid.getSizeY();
+        int[] cells = new int[count];
+        boolean[] taken = new boolean[size];
+        int found = 0;
+        for (int tries = 0; found < count && tries < size * 10; tries++) {
+            int cell = random.nextInt(size);
+            if (!grid.isWall(cell) && !taken[cell]) {
+                taken[cell] = true;
+                cells[found++] = cell;
+            }
+        }
+        return Arrays.copyOf(cells, found);
+    }
+}
@@ -0,0 +1,36 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// checks on the paths planners find, shared by the planner tests
+final class PlannerAssertions {
+
+    private PlannerAssertions() {
+    }
+
+    // the last path of the planner goes from start to goal one step at a time, and
+    // only steps into traversable cells (and the goal, which is always enterable).
+    // returns what it costs
+    static int assertValidPath(Grid grid, Planner planner, int start, int goal, int timestep, String query) {
+        int[] path = new int[planner.getPathLength()];
+        for (int i = 0; i < path.length; i++)
+            path[i] = planner.getPathStep(i);
+        return assertValidPath(grid, path, start, goal, timestep, query);
+    }
+
+    // the same for a path given as its steps after the start
+    static int assertValidPath(Grid grid, int[] path, int start, int goal, int timestep, String query) {
+        int sizeY = grid.getSizeY();
+        int cost = 0;
+        int previous = start;
+        for (int i = 0; i < path.length; i++) {
+            int cell = path[i];
+            int distance = Math.abs(cell / sizeY - previous / sizeY) + Math.abs(cell % sizeY - previous % sizeY);
+            assertEquals(1, distance, query + ": step " + i + " is not next to the one before");
+            assertTrue(cell == goal || grid.isTraversable(cell, timestep), query + ": step " + i + " is blocked");
+            cost += grid.getCost(cell);
+            previous = cell;
+        }
+        assertEquals(goal, previous, query + ": the path does not end at the goal");
+        return cost;
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// the A* LevelMap ran before SearchEngine, kept for the tests to compare the
+// current planners against. it is the same search step for step, quirks included:
+// a successor is a new node whose f and g are never set (so after the start every
+// node on the open list has f -1 and they are taken first in first out), it
+// replaces the grid's node at its cell whenever the cell is not closed, removing
+// q takes the first node on the open list at q's cell, and the path is walked
+// back from the goal through the grid's nodes. nodes are indices into growing
+// arrays instead of Cell objects
+final class ReferenceAStar {
+    private static final int NONE = -1;
+
+    private final Grid grid;
+    private final int sizeX;
+    private final int sizeY;
+
+    // the nodes made so far
+    private int[] nodeCell = new int[64];
+    private int[] nodeF = new int[64];
+    private int[] nodeG = new int[64];
+    private int[] nodeParent = new int[64];
+    private int nodeCount;
+
+    ReferenceAStar(Grid grid) {
+        this.grid = grid;
+        this.sizeX = grid.getSizeX();
+        this.sizeY = grid.getSizeY();
+    }
+
+    // the steps from start to goal (goal included), or -1 when there is no path
+    int search(int start, int goal, int timestep) {
+        nodeCount = 0;
+
+        // resetBoard: every cell's node has f and g -1 and no parent
+        int[] cells = new int[sizeX * sizeY];
+        for (int i = 0; i < cells.length; i++)
+            cells[i] = node(i, -1, -1, NONE);
+
+        List<Integer> openList = new ArrayList<Integer>();
+        int current = cells[start];
+        nodeF[current] = 0;
+        openList.add(current);
+        boolean[] closedList = new boolean[sizeX * sizeY];
+
+        while (!openList.isEmpty()) {
+
+            // find node with lowest f in open list "q"
+            int q = openList.get(0);
+            for (int c : openList) {
+                if (nodeF[c] < nodeF[q])
+                    q = c;
+            }
+
+            // pop q off open list (List.remove went by Cell.equals, the first node at q's cell)
+            for (int i = 0; i < openList.size(); i++) {
+                if (nodeCell[openList.get(i)] == nodeCell[q]) {
+                    openList.remove(i);
+                    break;
+                }
+            }
+            int qCell = nodeCell[q];
+            closedList[qCell] = true;
+
+            int qX = qCell / sizeY;
+            int qY = qCell % sizeY;
+            int[][] successors = { { qX, qY + 1 }, { qX, qY - 1 }, { qX + 1, qY }, { qX - 1, qY } };
+            for (int[] successor : successors) {
+                int x = successor[0];
+                int y = successor[1];
+                if (x < 0 || x >= sizeX || y < 0 || y >= sizeY)
+                    continue;
+
+                // a new Cell: f -1 and g 0, which are never changed
+                int cell = x * sizeY + y;
+                int next = node(cell, -1, 0, q);
+                if (cell == goal) {
+                    cells[cell] = next;
+                    return pathLength(cells, goal);
+                }
+
+                // Scandro's cell is never traversable, it is occupied by Scandro
+                if (closedList[cell] || cell == start || !grid.isTraversable(cell, timestep))
+                    continue;
+
+                int gNew = nodeG[q] + 1;
+                int hNew = Math.abs(x - goal / sizeY) + Math.abs(y - goal % sizeY);
+                int fNew = gNew + hNew;
+                if (nodeF[cells[cell]] < fNew) {
+                    openList.add(next);
+                    cells[cell] = next;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // setPath: from the goal's node to its parent's cell, then on through the
+    // grid's node at each cell until one has no parent
+    private int pathLength(int[] cells, int goal) {
+        int length = 0;
+        int current = cells[goal];
+        while (nodeParent[current] != NONE) {
+            length++;
+            current = cells[nodeCell[nodeParent[current]]];
+        }
+        return length;
+    }
+
+    private int node(int cell, int f, int g, int parent) {
+        if (nodeCount == nodeCell.length) {
+            int capacity = nodeCount * 2;
+            nodeCell = Arrays.copyOf(nodeCell, capacity);
+            nodeF = Arrays.copyOf(nodeF, capacity);
+            nodeG = Arrays.copyOf(nodeG, capacity);
+            nodeParent = Arrays.copyOf(nodeParent, capacity);
+        }
+        nodeCell[nodeCount] = cell;
+        nodeF[nodeCount] = f;
+        nodeG[nodeCount] = g;
+        nodeParent[nodeCount] = parent;
+        return nodeCount++;
+    }
+}
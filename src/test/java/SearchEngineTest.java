@@ -0,0 +1,48 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// SearchEngine finds paths as long as the A* it replaced (ReferenceAStar) on the
+// maps in InputFiles at every timestep, and on random maps. the old search puts a
+// cell on the open list again every time it is reached, so the random maps are
+// kept small enough for it to finish
+class SearchEngineTest {
+
+    @Test
+    void sameLengthsOnInputFiles() throws IOException {
+        for (String name : new String[] { "cup", "goaround", "goaroundfake" }) {
+            MapSnapshot map = MapSnapshot.load(astar.mapPath(name), astar.barberPath(name));
+            SearchEngine engine = new SearchEngine(map);
+            ReferenceAStar reference = new ReferenceAStar(map);
+            for (int t = 0; t <= Math.max(0, map.getLastTimestep()); t++)
+                assertSameLength(reference, engine, map.getStart(), map.getGoal(), t, name + " at timestep " + t);
+        }
+    }
+
+    @Test
+    void sameLengthsOnRandomMaps() {
+        Random random = new Random(1);
+        for (int m = 0; m < 500; m++) {
+            OccupancyGrid grid = Grids.random(2 + random.nextInt(11), 2 + random.nextInt(11),
+                    random.nextDouble() * 0.4, random);
+            SearchEngine engine = new SearchEngine(grid);
+            ReferenceAStar reference = new ReferenceAStar(grid);
+            for (int q = 0; q < 10; q++) {
+                int start = random.nextInt(grid.getSizeX() * grid.getSizeY());
+                int goal = random.nextInt(grid.getSizeX() * grid.getSizeY());
+                if (start != goal)
+                    assertSameLength(reference, engine, start, goal, 0, "map " + m + ", " + start + " -> " + goal);
+            }
+        }
+    }
+
+    private static void assertSameLength(ReferenceAStar reference, SearchEngine engine, int start, int goal,
+            int timestep, String query) {
+        int expected = reference.search(start, goal, timestep);
+        int actual = engine.search(start, goal, timestep) ? engine.getPathLength() : -1;
+        assertEquals(expected, actual, query);
+    }
+}
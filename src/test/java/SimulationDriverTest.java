@@ -0,0 +1,51 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// a run stopped part way and carried on from its checkpoint ends where the same
+// run does when nothing stops it, with walking and patrolling barbers and a
+// barber file
+class SimulationDriverTest {
+    // each reaches the goal after timestep 121, the last one the runs are stopped at
+    private static final List<String> RUNS = List.of("rooms:64:3:40", "rooms:64:5:60:patrol", "goaround");
+
+    @Test
+    void resumedRunsMatchUninterruptedOnes(@TempDir Path directory) throws IOException {
+        Path uninterrupted = Files.createDirectory(directory.resolve("uninterrupted"));
+        Path resumed = Files.createDirectory(directory.resolve("resumed"));
+        int last = 300;
+
+        run(uninterrupted, last);
+        for (int stop : new int[] { 7, 50, 121 })
+            run(resumed, stop);
+        run(resumed, last);
+
+        for (String name : RUNS) {
+            Path file = Path.of(name.replace(':', '_') + ".ckpt");
+            Checkpoint expected = Checkpoint.read(uninterrupted.resolve(file));
+            Checkpoint actual = Checkpoint.read(resumed.resolve(file));
+            assertEquals(expected.getTimestep(), actual.getTimestep(), name);
+            assertEquals(expected.getScandro(), actual.getScandro(), name);
+            assertEquals(expected.getBarberOffset(), actual.getBarberOffset(), name);
+            assertArrayEquals(expected.getBarbers(), actual.getBarbers(), name);
+            assertEquals(expected.isPathNotFound(), actual.isPathNotFound(), name);
+        }
+    }
+
+    private static void run(Path checkpoints, int maxTimesteps) {
+        PrintStream out = new PrintStream(new ByteArrayOutputStream());
+        List<SimulationDriver.Result> results = new SimulationDriver(checkpoints, 10, maxTimesteps, out).runAll(RUNS, 2);
+        for (int i = 0; i < RUNS.size(); i++)
+            assertNotNull(results.get(i), RUNS.get(i) + " failed");
+    }
+}
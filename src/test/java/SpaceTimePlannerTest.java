@@ -0,0 +1,223 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// SpaceTimePlanner's trajectories step or wait one timestep at a time, and keep
+// out of walls and the danger radius of the barbers of every timestep they pass
+// through, on random maps and when LevelMap runs the space_time mode. it waits for
+// a barber that a path planned on the current barbers walks into, and on a
+// repeating schedule finds trajectories as short as a search of every cell at
+// every timestep of the period
+class SpaceTimePlannerTest {
+
+    @Test
+    void waitsForABarberCrossingTheCorridor() {
+        // a corridor along x = 1 from (1, 0) to (1, 4), crossed at y = 2 by a barber
+        // walking from (0, 2) to (2, 2)
+        OccupancyGrid grid = new OccupancyGrid(3, 5);
+        for (int wall : new int[] { 0, 1, 3, 4, 10, 11, 13, 14 })
+            grid.setWall(wall, true);
+        BarberSchedule barbers = new ArrayBarberSchedule(new int[] { 0, 1, 2, 3, 4 }, new int[] { 2, 2, 7, 12 });
+        int start = 5;
+        int goal = 9;
+
+        // planned on the barbers of timestep 1, the second step is onto the barber at timestep 2
+        grid.setBarber(2, true);
+        SearchEngine engine = new SearchEngine(grid);
+        assertTrue(engine.search(start, goal, 1));
+        assertEquals(7, engine.getPathStep(1));
+        assertEquals(7, barbers.cell(2, 0));
+
+        SpaceTimePlanner planner = new SpaceTimePlanner(MapSnapshot.of(grid, barbers));
+        assertTrue(planner.plan(start, goal, 1));
+        assertSafeTrajectory(MapSnapshot.of(grid, barbers), planner, 0, start, goal, 1, "corridor");
+        assertEquals(engine.getPathLength() + 1, planner.getPathLength(), "one timestep of waiting");
+        int waits = 0;
+        for (int i = 0, previous = start; i < planner.getPathLength(); previous = planner.getPathStep(i++)) {
+            if (planner.getPathStep(i) == previous)
+                waits++;
+        }
+        assertEquals(1, waits);
+    }
+
+    @Test
+    void periodOfARepeatingSchedule() {
+        OccupancyGrid grid = new OccupancyGrid(4, 4);
+        int[] round = { 1, 2, 6 };
+        int[] offsets = new int[13];
+        int[] cells = new int[12];
+        for (int t = 0; t < 12; t++) {
+            offsets[t + 1] = t + 1;
+            cells[t] = round[t % 3];
+        }
+        assertEquals(3, MapSnapshot.of(grid, new ArrayBarberSchedule(offsets, cells)).getPeriod());
+
+        cells[11] = 7;
+        assertEquals(12, MapSnapshot.of(grid, new ArrayBarberSchedule(offsets, cells)).getPeriod());
+        assertEquals(0, MapSnapshot.of(grid, null).getPeriod());
+    }
+
+    @Test
+    void shortestOnRepeatingSchedules() {
+        Random random = new Random(11);
+        for (int m = 0; m < 200; m++) {
+            OccupancyGrid grid = Grids.random(2 + random.nextInt(9), 2 + random.nextInt(9),
+                    random.nextDouble() * 0.3, random);
+            MapSnapshot map = MapSnapshot.of(grid,
+                    randomWalks(grid, 1 + random.nextInt(4), 1 + random.nextInt(8), random));
+            SpaceTimePlanner planner = new SpaceTimePlanner(map);
+            planner.setPeriod(map.getPeriod());
+
+            for (int q = 0; q < 10; q++) {
+                int start = random.nextInt(grid.getSizeX() * grid.getSizeY());
+                int goal = random.nextInt(grid.getSizeX() * grid.getSizeY());
+                int timestep = 1 + random.nextInt(20);
+                if (start == goal)
+                    continue;
+                String query = "map " + m + ", " + start + " -> " + goal + " at timestep " + timestep;
+                boolean found = planner.plan(start, goal, timestep);
+                assertEquals(shortestRepeating(map, start, goal, timestep), found ? planner.getPathLength() : -1,
+                        query);
+            }
+        }
+    }
+
+    @Test
+    void keepsOutOfTheDangerRadiusOnRandomMaps() {
+        Random random = new Random(7);
+        for (int m = 0; m < 200; m++) {
+            OccupancyGrid grid = Grids.random(2 + random.nextInt(11), 2 + random.nextInt(11),
+                    random.nextDouble() * 0.3, random);
+            BarberSchedule barbers = randomWalks(grid, 1 + random.nextInt(3), 1 + random.nextInt(20), random);
+            MapSnapshot map = MapSnapshot.of(grid, barbers);
+            int radius = random.nextInt(3);
+            SpaceTimePlanner planner = new SpaceTimePlanner(map);
+            planner.setDangerRadius(radius);
+
+            for (int q = 0; q < 10; q++) {
+                int start = random.nextInt(grid.getSizeX() * grid.getSizeY());
+                int goal = random.nextInt(grid.getSizeX() * grid.getSizeY());
+                int timestep = 1 + random.nextInt(5);
+                String query = "map " + m + " with radius " + radius + ", " + start + " -> " + goal;
+                if (start != goal && planner.plan(start, goal, timestep))
+                    assertSafeTrajectory(map, planner, radius, start, goal, timestep, query);
+            }
+        }
+    }
+
+    @Test
+    void levelMapKeepsScandroOutOfTheDangerRadius() throws IOException {
+        for (String name : new String[] { "cup", "goaround", "goaroundfake" }) {
+            LevelMap level = LevelMap.fromFile(astar.mapPath(name));
+            level.addBarberFile(astar.barberPath(name));
+            level.setRenderer(Renderer.HEADLESS);
+            level.setSearchMode(SearchMode.SPACE_TIME);
+            level.setDangerZones(1, 0, 0);
+            MapSnapshot map = level.snapshot();
+
+            level.begin();
+            while (level.step()) {
+                int scandro = level.getScandro();
+                if (scandro != map.getGoal())
+                    assertTrue(barberDistance(map, scandro, level.getTimestep()) > 1,
+                            name + ": Scandro is next to a barber at timestep " + level.getTimestep());
+            }
+        }
+    }
+
+    // the trajectory of the last plan, made at the given timestep
+    private static void assertSafeTrajectory(MapSnapshot map, SpaceTimePlanner planner, int radius, int start,
+            int goal, int timestep, String query) {
+        int sizeY = map.getSizeY();
+        int previous = start;
+        for (int i = 0; i < planner.getPathLength(); i++) {
+            int cell = planner.getPathStep(i);
+            int t = timestep + i;
+            int distance = Math.abs(cell / sizeY - previous / sizeY) + Math.abs(cell % sizeY - previous % sizeY);
+            assertTrue(distance <= 1, query + ": step " + i + " is not next to the one before");
+            if (cell != goal) {
+                assertTrue(!map.isWall(cell), query + ": step " + i + " is a wall");
+                assertTrue(barberDistance(map, cell, t) > radius, query + ": step " + i + " is too close to a barber");
+            }
+            previous = cell;
+        }
+        assertEquals(goal, previous, query + ": the trajectory does not end at the goal");
+    }
+
+    // breadth first search over every (cell, timestep mod period) from start at the
+    // end of timestep - 1, the number of timesteps to the goal or -1
+    private static int shortestRepeating(MapSnapshot map, int start, int goal, int timestep) {
+        int sizeX = map.getSizeX();
+        int sizeY = map.getSizeY();
+        int period = map.getPeriod();
+        boolean[] seen = new boolean[sizeX * sizeY * period];
+        int[] queue = new int[seen.length];
+        int t = timestep - 1;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        seen[start * period + t % period] = true;
+
+        for (int steps = 1; head < tail; steps++, t++) {
+            int end = tail;
+            int next = (t + 1) % period;
+            for (; head < end; head++) {
+                int cell = queue[head];
+                int x = cell / sizeY;
+                int y = cell % sizeY;
+                int[] moves = { x * sizeY + Math.min(sizeY - 1, y + 1), x * sizeY + Math.max(0, y - 1),
+                        Math.min(sizeX - 1, x + 1) * sizeY + y, Math.max(0, x - 1) * sizeY + y, cell };
+                for (int move : moves) {
+                    if (move == goal)
+                        return steps;
+                    if (map.isWall(move) || map.hasBarber(move, next) || seen[move * period + next])
+                        continue;
+                    seen[move * period + next] = true;
+                    queue[tail++] = move;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // manhattan distance from the cell to the closest barber at timestep t
+    private static int barberDistance(MapSnapshot map, int cell, int t) {
+        int sizeY = map.getSizeY();
+        int closest = Integer.MAX_VALUE;
+        for (int index = 0; index < map.getSizeX() * sizeY; index++) {
+            if (map.hasBarber(index, t)) {
+                int distance = Math.abs(index / sizeY - cell / sizeY) + Math.abs(index % sizeY - cell % sizeY);
+                closest = Math.min(closest, distance);
+            }
+        }
+        return closest;
+    }
+
+    // barbers starting on random open cells, each stepping to a random neighbour
+    // that is not a wall every timestep
+    static BarberSchedule randomWalks(OccupancyGrid grid, int barbers, int timesteps, Random random) {
+        int size = grid.getSizeX() * grid.getSizeY();
+        int[] offsets = new int[timesteps + 1];
+        int[] cells = new int[barbers * timesteps];
+        int[] at = new int[barbers];
+        for (int b = 0; b < barbers; b++)
+            at[b] = random.nextInt(size);
+
+        int count = 0;
+        for (int t = 0; t < timesteps; t++) {
+            offsets[t] = count;
+            for (int b = 0; b < barbers; b++) {
+                int next = Grids.randomNeighbour(grid, at[b], random);
+                if (!grid.isWall(next))
+                    at[b] = next;
+                cells[count++] = at[b];
+            }
+        }
+        offsets[timesteps] = count;
+        return new ArrayBarberSchedule(offsets, cells);
+    }
+}